@@ -0,0 +1,103 @@
+package com.example.finance.tracker.benchmark;
+
+import com.example.finance.tracker.entity.Expense;
+import com.example.finance.tracker.entity.Income;
+import com.example.finance.tracker.entity.User;
+import com.example.finance.tracker.repository.projection.MonthlyTotal;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+/**
+ * Deterministic fixtures and repository stubs shared by the benchmarks, so
+ * runs on different commits measure the same input.
+ */
+final class BenchmarkData {
+    static final String[] CATEGORIES = {"Food", "Rent", "Bills", "Travel", "Health", "Fun", "Transport", "Gifts"};
+    static final String[] SOURCES = {"Salary", "Freelance", "Dividends", "Refund"};
+    private static final long SEED = 42;
+    private static final LocalDate START = LocalDate.of(2015, 1, 1);
+
+    private BenchmarkData() {
+    }
+
+    static User user() {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("bench");
+        user.setEmail("bench@example.com");
+        return user;
+    }
+
+    /** Grouped rows over ten years of months, cycling through the given keys. */
+    static List<MonthlyTotal> monthlyTotals(int rows, String[] keys) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<MonthlyTotal> totals = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            int month = i % 120;
+            totals.add(new MonthlyTotal(2015 + month / 12, month % 12 + 1, keys[i % keys.length],
+                    random.nextLong(100, 50_000), 1L + random.nextInt(20)));
+        }
+        return totals;
+    }
+
+    static List<Expense> expenses(int rows) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        User user = user();
+        List<Expense> expenses = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Expense expense = new Expense();
+            expense.setId((long) i + 1);
+            expense.setTitle("Expense " + i);
+            expense.setDescription("Benchmark expense");
+            expense.setCategory(CATEGORIES[i % CATEGORIES.length]);
+            expense.setAmountCents(random.nextLong(100, 50_000));
+            expense.setDate(START.plusDays(i % 3650));
+            expense.setUser(user);
+            expenses.add(expense);
+        }
+        return expenses;
+    }
+
+    static List<Income> incomes(int rows) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        User user = user();
+        List<Income> incomes = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Income income = new Income();
+            income.setId((long) i + 1);
+            income.setSource(SOURCES[i % SOURCES.length]);
+            income.setDescription("Benchmark income");
+            income.setAmountCents(random.nextLong(100, 500_000));
+            income.setDate(START.plusDays(i % 3650));
+            income.setUser(user);
+            incomes.add(income);
+        }
+        return incomes;
+    }
+
+    /**
+     * A repository stub answering only the named methods; anything else the
+     * code under test calls fails loudly instead of returning a silent null.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(args);
+            }
+            return switch (method.getName()) {
+                case "toString" -> type.getSimpleName() + " stub";
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            };
+        });
+    }
+}
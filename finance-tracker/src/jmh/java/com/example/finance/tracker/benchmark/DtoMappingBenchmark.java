@@ -0,0 +1,56 @@
+package com.example.finance.tracker.benchmark;
+
+import com.example.finance.tracker.dto.ExpenseDTO;
+import com.example.finance.tracker.dto.IncomeDTO;
+import com.example.finance.tracker.entity.Expense;
+import com.example.finance.tracker.entity.Income;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping of a whole result list, the way the list endpoints
+ * map what the repositories return.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int rows;
+
+    private List<Expense> expenses;
+    private List<Income> incomes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        expenses = BenchmarkData.expenses(rows);
+        incomes = BenchmarkData.incomes(rows);
+    }
+
+    @Benchmark
+    public List<ExpenseDTO> expenseDtos() {
+        return expenses.stream().map(Expense::getExpenseDto).toList();
+    }
+
+    @Benchmark
+    public List<IncomeDTO> incomeDtos() {
+        return incomes.stream().map(Income::getIncomeDto).toList();
+    }
+}
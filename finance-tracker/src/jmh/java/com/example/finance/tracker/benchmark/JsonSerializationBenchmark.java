@@ -0,0 +1,98 @@
+package com.example.finance.tracker.benchmark;
+
+import com.example.finance.tracker.dto.ExpenseDTO;
+import com.example.finance.tracker.dto.StatsDTO;
+import com.example.finance.tracker.entity.Expense;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialisation of the two largest response bodies, with a mapper
+ * configured the way Spring MVC configures its own, written to a discarding
+ * stream so only the encoding is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"1000", "100000"})
+    int rows;
+
+    private ObjectWriter expenseListWriter;
+    private ObjectWriter statsWriter;
+    private List<ExpenseDTO> expenses;
+    private StatsDTO stats;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        expenseListWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, ExpenseDTO.class));
+        statsWriter = objectMapper.writerFor(StatsDTO.class);
+        expenses = BenchmarkData.expenses(rows).stream().map(Expense::getExpenseDto).toList();
+        stats = stats();
+    }
+
+    @Benchmark
+    public void expenseList() throws IOException {
+        expenseListWriter.writeValue(OutputStream.nullOutputStream(), expenses);
+    }
+
+    @Benchmark
+    public void statsDto() throws IOException {
+        statsWriter.writeValue(OutputStream.nullOutputStream(), stats);
+    }
+
+    /** Ten years of monthly totals over every category and source. */
+    private static StatsDTO stats() {
+        Map<String, Double> byCategory = new HashMap<>();
+        Map<String, Double> bySource = new HashMap<>();
+        Map<String, Double> monthlyExpenses = new HashMap<>();
+        Map<String, Double> monthlyIncome = new HashMap<>();
+        for (String category : BenchmarkData.CATEGORIES) {
+            byCategory.put(category, 1234.56);
+        }
+        for (String source : BenchmarkData.SOURCES) {
+            bySource.put(source, 6543.21);
+        }
+        for (int month = 0; month < 120; month++) {
+            String key = String.format("%d-%02d", 2015 + month / 12, month % 12 + 1);
+            monthlyExpenses.put(key, 987.65);
+            monthlyIncome.put(key, 3210.98);
+        }
+        return StatsDTO.builder()
+                .userId(1L)
+                .totalIncome(385317.6)
+                .totalExpenses(118518.0)
+                .netBalance(266799.6)
+                .expenseByCategory(byCategory)
+                .incomeBySource(bySource)
+                .monthlyExpenses(monthlyExpenses)
+                .monthlyIncome(monthlyIncome)
+                .build();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.finance.tracker.benchmark;
+
+import com.example.finance.tracker.dto.StatsDTO;
+import com.example.finance.tracker.entity.StatsSnapshot;
+import com.example.finance.tracker.repository.ExpenseRollupRepository;
+import com.example.finance.tracker.repository.IncomeRollupRepository;
+import com.example.finance.tracker.repository.UserRepository;
+import com.example.finance.tracker.repository.projection.MonthlyTotal;
+import com.example.finance.tracker.service.columnar.TransactionColumnStore;
+import com.example.finance.tracker.service.stats.ClosedPeriodSnapshots;
+import com.example.finance.tracker.service.stats.StatsCache;
+import com.example.finance.tracker.service.stats.StatsServiceImpl;
+import com.example.finance.tracker.service.version.DataVersionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * {@link StatsServiceImpl} folding grouped rows into a {@link StatsDTO}, with
+ * the repositories stubbed to return {@code rows} rows each and the cache and
+ * closed-period snapshots bypassed so every invocation recomputes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatsAggregationBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int rows;
+
+    private StatsServiceImpl statsService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<MonthlyTotal> incomes = BenchmarkData.monthlyTotals(rows, BenchmarkData.SOURCES);
+        List<MonthlyTotal> expenses = BenchmarkData.monthlyTotals(rows, BenchmarkData.CATEGORIES);
+
+        UserRepository userRepository = BenchmarkData.stub(UserRepository.class,
+                Map.of("isKnownUser", args -> true));
+        IncomeRollupRepository incomeRollupRepository = BenchmarkData.stub(IncomeRollupRepository.class,
+                Map.of("findMonthlyTotalsByUserId", args -> incomes));
+        ExpenseRollupRepository expenseRollupRepository = BenchmarkData.stub(ExpenseRollupRepository.class,
+                Map.of("findMonthlyTotalsByUserId", args -> expenses));
+        DataVersionService dataVersionService = BenchmarkData.stub(DataVersionService.class,
+                Map.of("currentVersion", args -> Optional.of(0L), "closedVersion", args -> 0L));
+        StatsCache uncached = new StatsCache(1, Duration.ofMinutes(1)) {
+            @Override
+            public StatsDTO get(Long userId, long version, Function<Long, StatsDTO> compute) {
+                return compute.apply(userId);
+            }
+        };
+        ClosedPeriodSnapshots noSnapshots = new ClosedPeriodSnapshots(null, null, null, null, 1) {
+            @Override
+            public Optional<StatsSnapshot.Totals> find(Long userId, long closedVersion, LocalDate openMonth) {
+                return Optional.empty();
+            }
+
+            @Override
+            public void store(Long userId, long closedVersion, LocalDate openMonth, StatsSnapshot.Totals totals) {
+            }
+        };
+
+        statsService = new StatsServiceImpl(userRepository, incomeRollupRepository, expenseRollupRepository,
+                uncached, dataVersionService, null, new TransactionColumnStore(false, DataSize.ofMegabytes(1),
+                        null, null, null), null, noSnapshots);
+    }
+
+    @Benchmark
+    public StatsDTO computeStats() {
+        return statsService.getUserFinanceStats(1L);
+    }
+}
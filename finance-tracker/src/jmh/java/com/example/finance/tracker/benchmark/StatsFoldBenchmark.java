@@ -0,0 +1,86 @@
+package com.example.finance.tracker.benchmark;
+
+import com.example.finance.tracker.dto.StatsDTO;
+import com.example.finance.tracker.money.Money;
+import com.example.finance.tracker.repository.projection.MonthlyTotal;
+import com.example.finance.tracker.service.stats.StatsAssembler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The primitive fold in {@link StatsAssembler} against the boxed map-merge
+ * fold it replaced, on the same grouped rows. Compare
+ * {@code gc.alloc.rate.norm} to see the bytes allocated per build.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatsFoldBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int rows;
+
+    private List<MonthlyTotal> incomes;
+    private List<MonthlyTotal> expenses;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        incomes = BenchmarkData.monthlyTotals(rows, BenchmarkData.SOURCES);
+        expenses = BenchmarkData.monthlyTotals(rows, BenchmarkData.CATEGORIES);
+    }
+
+    @Benchmark
+    public StatsDTO primitiveFold() {
+        return StatsAssembler.build(1L, incomes, expenses);
+    }
+
+    @Benchmark
+    public StatsDTO mapMergeFold() {
+        Map<String, Double> incomeBySource = new HashMap<>();
+        Map<String, Double> monthlyIncome = new HashMap<>();
+        double totalIncome = mapMerge(incomes, incomeBySource, monthlyIncome);
+        Map<String, Double> expenseByCategory = new HashMap<>();
+        Map<String, Double> monthlyExpenses = new HashMap<>();
+        double totalExpenses = mapMerge(expenses, expenseByCategory, monthlyExpenses);
+        return StatsDTO.builder()
+                .userId(1L)
+                .totalIncome(totalIncome)
+                .totalExpenses(totalExpenses)
+                .netBalance(totalIncome - totalExpenses)
+                .expenseByCategory(expenseByCategory)
+                .incomeBySource(incomeBySource)
+                .monthlyExpenses(monthlyExpenses)
+                .monthlyIncome(monthlyIncome)
+                .build();
+    }
+
+    private static double mapMerge(List<MonthlyTotal> rows, Map<String, Double> byKey, Map<String, Double> byMonth) {
+        double total = 0.0;
+        for (MonthlyTotal row : rows) {
+            Double amount = Money.toAmount(row.totalCents());
+            total += amount;
+            byKey.merge(row.key(), amount, Double::sum);
+            byMonth.merge(YearMonth.of(row.year(), row.month()).toString(), amount, Double::sum);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.finance.tracker.loadtest;
+
+import com.example.finance.tracker.money.Money;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Seeds users, expenses and income straight into PostgreSQL with COPY, in
+ * parallel slices, then builds their monthly rollups set-based. Categories
+ * and sources are written as ids from the label dictionary. Expense and
+ * income ids come from one block reserved on each sequence, so they never
+ * collide with ids the running application hands out. Seeding assumes no
+ * other writer is active.
+ */
+final class DatasetSeeder {
+    static final String USERNAME_PREFIX = "loadtest-";
+    private static final int BUFFER = 1 << 16;
+
+    private final LoadTestOptions options;
+    private final LocalDate today = LocalDate.now();
+
+    DatasetSeeder(LoadTestOptions options) {
+        this.options = options;
+    }
+
+    /** Ids of every user seeded by this or an earlier run, in id order. */
+    long[] loadTestUsers() throws SQLException {
+        try (Connection connection = connect()) {
+            return userIds(connection, USERNAME_PREFIX + "%");
+        }
+    }
+
+    void seed() throws SQLException, InterruptedException {
+        String run = USERNAME_PREFIX + Long.toString(System.currentTimeMillis(), 36) + "-";
+        long started = System.nanoTime();
+        long[] users;
+        int[] categories;
+        int[] sources;
+        try (Connection connection = connect()) {
+            categories = labelIds(connection, Distributions.CATEGORIES);
+            sources = labelIds(connection, Distributions.SOURCES);
+            copy(connection, "COPY users (username, email) FROM STDIN WITH (FORMAT csv)", out -> {
+                for (int i = 0; i < options.users(); i++) {
+                    out.write(run + i + "," + run + i + "@example.com\n");
+                }
+            });
+            users = userIds(connection, run + "%");
+        }
+        progress("users", users.length, started);
+
+        started = System.nanoTime();
+        long firstExpense = reserveIds("expense_seq", options.expenses());
+        copyInSlices("COPY expense (id, user_id, title, description, date, amount_cents, category_id) FROM STDIN WITH (FORMAT csv)",
+                firstExpense, options.expenses(), (out, id, random) -> {
+                    int category = Distributions.category(random);
+                    String name = Distributions.CATEGORIES[category];
+                    out.write(id + "," + users[Distributions.skewedIndex(random, users.length)] + "," + name + " purchase,,"
+                            + Distributions.date(random, today) + "," + Money.toCents(Distributions.expenseAmount(random, category))
+                            + "," + categories[category] + "\n");
+                });
+        progress("expenses", options.expenses(), started);
+
+        started = System.nanoTime();
+        long firstIncome = reserveIds("income_seq", options.incomes());
+        copyInSlices("COPY income (id, user_id, source_id, description, date, amount_cents) FROM STDIN WITH (FORMAT csv)",
+                firstIncome, options.incomes(), (out, id, random) -> {
+                    int source = Distributions.source(random);
+                    out.write(id + "," + users[Distributions.skewedIndex(random, users.length)] + ","
+                            + sources[source] + ",," + Distributions.date(random, today) + ","
+                            + Money.toCents(Distributions.incomeAmount(random, source)) + "\n");
+                });
+        progress("incomes", options.incomes(), started);
+
+        started = System.nanoTime();
+        try (Connection connection = connect()) {
+            rollup(connection, "expense", "category_id", firstExpense, options.expenses());
+            rollup(connection, "income", "source_id", firstIncome, options.incomes());
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE users, expense, income, expense_rollup, income_rollup");
+            }
+        }
+        progress("rollups", options.expenses() + options.incomes(), started);
+    }
+
+    /**
+     * Reserves {@code count} ids starting right after a fresh nextval. Moving
+     * the sequence past the block makes the application's next pooled
+     * allocation start after it.
+     */
+    private long reserveIds(String sequence, long count) throws SQLException {
+        try (Connection connection = connect();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT v + 1, setval('" + sequence + "', v + ?) FROM (SELECT nextval('" + sequence + "') AS v) s")) {
+            statement.setLong(1, Math.max(count, 1));
+            try (ResultSet result = statement.executeQuery()) {
+                result.next();
+                return result.getLong(1);
+            }
+        }
+    }
+
+    private void copyInSlices(String sql, long firstId, long rows, RowWriter rowWriter)
+            throws SQLException, InterruptedException {
+        int slices = (int) Math.max(1, Math.min(options.seedThreads(), rows));
+        ExecutorService executor = Executors.newFixedThreadPool(slices);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int slice = 0; slice < slices; slice++) {
+                long from = rows * slice / slices;
+                long to = rows * (slice + 1) / slices;
+                SplittableRandom random = new SplittableRandom(31L * firstId + slice);
+                futures.add(executor.submit(() -> {
+                    try (Connection connection = connect()) {
+                        copy(connection, sql, out -> {
+                            for (long n = from; n < to; n++) {
+                                rowWriter.write(out, firstId + n, random);
+                            }
+                        });
+                    }
+                    return null;
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Seeding failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void rollup(Connection connection, String table, String keyColumn, long firstId, long rows)
+            throws SQLException {
+        String rollup = table + "_rollup";
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO " + rollup + " (user_id, month_start, " + keyColumn + ", total_cents, entry_count) " +
+                        "SELECT user_id, date_trunc('month', date)::date, " + keyColumn + ", SUM(amount_cents), COUNT(*) " +
+                        "FROM " + table + " WHERE id BETWEEN ? AND ? GROUP BY 1, 2, 3 " +
+                        "ON CONFLICT (user_id, month_start, " + keyColumn + ") DO UPDATE " +
+                        "SET total_cents = " + rollup + ".total_cents + EXCLUDED.total_cents, " +
+                        "entry_count = " + rollup + ".entry_count + EXCLUDED.entry_count")) {
+            statement.setLong(1, firstId);
+            statement.setLong(2, firstId + rows - 1);
+            statement.executeUpdate();
+        }
+    }
+
+    /** Label ids for the names, in the same order, creating the labels that are missing. */
+    private static int[] labelIds(Connection connection, String[] names) throws SQLException {
+        int[] ids = new int[names.length];
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO label (name) VALUES (?) " +
+                "ON CONFLICT (name) DO UPDATE SET name = EXCLUDED.name RETURNING id")) {
+            for (int i = 0; i < names.length; i++) {
+                statement.setString(1, names[i]);
+                try (ResultSet result = statement.executeQuery()) {
+                    result.next();
+                    ids[i] = result.getInt(1);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static void copy(Connection connection, String sql, CopyBody body) throws SQLException {
+        PGCopyOutputStream stream = new PGCopyOutputStream(connection.unwrap(PGConnection.class), sql, BUFFER);
+        try (Writer out = new OutputStreamWriter(stream, StandardCharsets.UTF_8)) {
+            body.write(out);
+        } catch (IOException e) {
+            throw new SQLException("COPY failed: " + sql, e);
+        }
+    }
+
+    private static long[] userIds(Connection connection, String usernamePattern) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT id FROM users WHERE username LIKE ? ORDER BY id")) {
+            statement.setString(1, usernamePattern);
+            try (ResultSet result = statement.executeQuery()) {
+                List<Long> ids = new ArrayList<>();
+                while (result.next()) {
+                    ids.add(result.getLong(1));
+                }
+                return ids.stream().mapToLong(Long::longValue).toArray();
+            }
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(options.jdbcUrl(), options.jdbcUser(), options.jdbcPassword());
+    }
+
+    private static void progress(String what, long rows, long startedNanos) {
+        double seconds = (System.nanoTime() - startedNanos) / 1e9;
+        System.out.printf("Seeded %,d %s in %.1f s (%,.0f rows/s)%n", rows, what, seconds, rows / seconds);
+    }
+
+    private interface CopyBody {
+        void write(Writer out) throws IOException;
+    }
+
+    private interface RowWriter {
+        void write(Writer out, long id, SplittableRandom random) throws IOException;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.finance.tracker.loadtest;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+/**
+ * Skewed distributions shared by the seeder and the workload, so the users
+ * that own most rows are also the ones most requests hit.
+ */
+final class Distributions {
+    static final String[] CATEGORIES = {"Food", "Bills", "Transport", "Shopping", "Entertainment", "Rent", "Health", "Travel"};
+    private static final int[] CATEGORY_WEIGHTS = {30, 15, 15, 12, 10, 8, 6, 4};
+    private static final double[] CATEGORY_MEDIANS = {18, 80, 12, 45, 25, 1200, 60, 350};
+    static final String[] SOURCES = {"Salary", "Freelance", "Dividends", "Refund"};
+    private static final int[] SOURCE_WEIGHTS = {60, 20, 10, 10};
+    private static final double[] SOURCE_MEDIANS = {3000, 800, 150, 40};
+    private static final int HISTORY_DAYS = 5 * 365;
+
+    private Distributions() {
+    }
+
+    /** Index in [0, n) with a power-law head: a few heavy users own most of the history. */
+    static int skewedIndex(SplittableRandom random, int n) {
+        double u = random.nextDouble();
+        return (int) (n * u * u * u);
+    }
+
+    static int category(SplittableRandom random) {
+        return weighted(random, CATEGORY_WEIGHTS);
+    }
+
+    static int source(SplittableRandom random) {
+        return weighted(random, SOURCE_WEIGHTS);
+    }
+
+    static double expenseAmount(SplittableRandom random, int category) {
+        return logNormal(random, CATEGORY_MEDIANS[category]);
+    }
+
+    static double incomeAmount(SplittableRandom random, int source) {
+        return logNormal(random, SOURCE_MEDIANS[source]);
+    }
+
+    /** Recent dates are more likely, tailing off over five years; never in the future. */
+    static LocalDate date(SplittableRandom random, LocalDate today) {
+        long daysBack = (long) (-Math.log(1 - random.nextDouble()) * 365);
+        return today.minusDays(Math.min(daysBack, HISTORY_DAYS));
+    }
+
+    private static double logNormal(SplittableRandom random, double median) {
+        double amount = median * Math.exp(0.8 * gaussian(random));
+        return Math.max(0.01, Math.round(amount * 100) / 100.0);
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    private static int weighted(SplittableRandom random, int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int pick = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            pick -= weights[i];
+            if (pick < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.finance.tracker.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Latency histograms per operation, in microseconds. Each client records into
+ * its own {@link Recorder}; they are merged once the run is over, so the hot
+ * path never contends on a shared histogram.
+ */
+final class LatencyReport {
+    private static final String ALL = "all";
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String[] PERCENTILE_KEYS = {"p50Ms", "p90Ms", "p99Ms", "p999Ms"};
+
+    private final List<String> operations;
+    private final Map<String, Histogram> histograms = new LinkedHashMap<>();
+    private final Map<String, Long> errors = new LinkedHashMap<>();
+    private final double measuredSeconds;
+
+    LatencyReport(List<String> operations, List<Recorder> recorders, double measuredSeconds) {
+        this.operations = operations;
+        this.measuredSeconds = measuredSeconds;
+        Histogram all = new Histogram(3);
+        long allErrors = 0;
+        for (int i = 0; i < operations.size(); i++) {
+            Histogram merged = new Histogram(3);
+            long failed = 0;
+            for (Recorder recorder : recorders) {
+                merged.add(recorder.latencies[i]);
+                failed += recorder.errors[i];
+            }
+            histograms.put(operations.get(i), merged);
+            errors.put(operations.get(i), failed);
+            all.add(merged);
+            allErrors += failed;
+        }
+        histograms.put(ALL, all);
+        errors.put(ALL, allErrors);
+    }
+
+    void print(PrintStream out) {
+        out.printf("%n%-18s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        histograms.forEach((name, histogram) -> {
+            out.printf("%-18s %,10d %,8d %,10.1f", name, histogram.getTotalCount(), errors.get(name),
+                    histogram.getTotalCount() / measuredSeconds);
+            for (double percentile : PERCENTILES) {
+                out.printf(" %9.2f", histogram.getValueAtPercentile(percentile) / 1000.0);
+            }
+            out.printf(" %9.2f%n", histogram.getMaxValue() / 1000.0);
+        });
+    }
+
+    /** Writes report.json plus one HdrHistogram percentile file per operation, and returns the JSON path. */
+    Path write(Path directory, Map<String, Object> options) throws IOException {
+        Path run = directory.resolve(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+        Files.createDirectories(run);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("options", options);
+        report.put("measuredSeconds", measuredSeconds);
+        Map<String, Object> summaries = new LinkedHashMap<>();
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            summaries.put(entry.getKey(), summary(entry.getKey(), entry.getValue()));
+            try (PrintStream hgrm = new PrintStream(Files.newOutputStream(run.resolve(entry.getKey() + ".hgrm")))) {
+                entry.getValue().outputPercentileDistribution(hgrm, 1000.0);
+            }
+        }
+        report.put("operations", summaries);
+        Path json = run.resolve("report.json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(json.toFile(), report);
+        return json;
+    }
+
+    /** Prints each percentile next to the same one in an earlier report.json. */
+    void compare(Path baseline, PrintStream out) throws IOException {
+        JsonNode previous = new ObjectMapper().readTree(baseline.toFile()).path("operations");
+        out.printf("%nCompared with %s%n", baseline);
+        out.printf("%-18s %-8s %10s %10s %9s%n", "operation", "metric", "baseline", "current", "change");
+        histograms.forEach((name, histogram) -> {
+            JsonNode before = previous.path(name);
+            if (before.isMissingNode()) {
+                return;
+            }
+            Map<String, Object> now = summary(name, histogram);
+            compareLine(out, name, "req/s", before.path("throughput").asDouble(), (double) now.get("throughput"));
+            for (String key : PERCENTILE_KEYS) {
+                compareLine(out, name, key, before.path(key).asDouble(), (double) now.get(key));
+            }
+        });
+    }
+
+    private Map<String, Object> summary(String name, Histogram histogram) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", histogram.getTotalCount());
+        summary.put("errors", errors.get(name));
+        summary.put("throughput", histogram.getTotalCount() / measuredSeconds);
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            summary.put(PERCENTILE_KEYS[i], histogram.getValueAtPercentile(PERCENTILES[i]) / 1000.0);
+        }
+        summary.put("maxMs", histogram.getMaxValue() / 1000.0);
+        return summary;
+    }
+
+    private static void compareLine(PrintStream out, String name, String metric, double before, double now) {
+        String change = before == 0 ? "n/a" : String.format("%+.1f%%", (now - before) * 100 / before);
+        out.printf("%-18s %-8s %10.2f %10.2f %9s%n", name, metric, before, now, change);
+    }
+
+    /** One client's measurements. Not thread safe; each client owns one. */
+    static final class Recorder {
+        private final Histogram[] latencies;
+        private final long[] errors;
+
+        Recorder(int operations) {
+            latencies = new Histogram[operations];
+            errors = new long[operations];
+            for (int i = 0; i < operations; i++) {
+                latencies[i] = new Histogram(3);
+            }
+        }
+
+        void record(int operation, long micros, boolean ok) {
+            latencies[operation].recordValue(micros);
+            if (!ok) {
+                errors[operation]++;
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.finance.tracker.loadtest;
+
+import com.example.finance.tracker.FinanceTrackerApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * End-to-end load test: boots the application (unless {@code --base-url}
+ * points at a running one), seeds a synthetic dataset, drives the request
+ * mix from {@code --clients} concurrent closed-loop clients and reports
+ * latency percentiles per operation. Results from the warm-up period are
+ * discarded. With {@code --thread-modes} the app is booted and measured once
+ * per mode, each run compared with the one before it.
+ *
+ * <pre>
+ * ./mvnw -Ploadtest verify -Dloadtest.args="--users=100000 --expenses=50000000 --clients=64"
+ * ./mvnw -Ploadtest verify -Dloadtest.args="--seed=false --baseline=target/loadtest/20250101-120000/report.json"
+ * ./mvnw -Ploadtest verify -Dloadtest.args="--seed=false --clients=2000 --thread-modes=platform,virtual --mix=stats:1,expense-list:1"
+ * ./mvnw -Ploadtest verify -Dloadtest.args="--seed=false --finance.read-path=reactive --baseline=target/loadtest/20250101-120000/report.json"
+ * </pre>
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        DatasetSeeder seeder = new DatasetSeeder(options);
+        List<String> threadModes = options.threadModes().isEmpty() ? Collections.singletonList(null) : options.threadModes();
+        Path baseline = options.baseline();
+        boolean seed = options.seed();
+        for (String threadMode : threadModes) {
+            ConfigurableApplicationContext app = null;
+            try {
+                String baseUrl = options.baseUrl();
+                if (options.bootsApp()) {
+                    app = boot(options, threadMode);
+                    baseUrl = "http://localhost:" + ((WebServerApplicationContext) app).getWebServer().getPort();
+                }
+                if (seed) {
+                    seeder.seed();
+                    seed = false;
+                }
+                long[] users = seeder.loadTestUsers();
+                if (users.length == 0) {
+                    throw new IllegalStateException("No load test users found; run once with --seed=true");
+                }
+                Workload workload = new Workload(baseUrl, users, options.mix());
+                System.out.printf("%nRunning %s against %s%s with %d clients over %,d users%n",
+                        workload.operations(), baseUrl, threadMode == null ? "" : " on " + threadMode + " threads",
+                        options.clients(), users.length);
+                LatencyReport report = run(workload, options);
+                report.print(System.out);
+                Map<String, Object> described = options.describe();
+                if (threadMode != null) {
+                    described.put("threadMode", threadMode);
+                }
+                Path json = report.write(options.reportDir(), described);
+                System.out.printf("%nReport written to %s%n", json);
+                if (baseline != null) {
+                    report.compare(baseline, System.out);
+                }
+                if (!options.threadModes().isEmpty()) {
+                    // Each later mode is compared with the one before it.
+                    baseline = json;
+                }
+            } finally {
+                if (app != null) {
+                    app.close();
+                }
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext boot(LoadTestOptions options, String threadMode) {
+        // The run itself restarts nothing, and devtools would reload the app in a second class loader.
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        String url = options.jdbcUrl();
+        properties.put("spring.datasource.url", url + (url.contains("?") ? "&" : "?") + "reWriteBatchedInserts=true");
+        properties.put("spring.datasource.username", options.jdbcUser());
+        properties.put("spring.datasource.password", options.jdbcPassword());
+        properties.put("finance.r2dbc.url", "r2dbc:" + url.substring("jdbc:".length()));
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("logging.level.com.example.finance.tracker", "WARN");
+        properties.putAll(options.appProperties());
+        if (threadMode != null) {
+            properties.put("spring.threads.virtual.enabled", Boolean.toString("virtual".equals(threadMode)));
+        }
+        return SpringApplication.run(FinanceTrackerApplication.class, properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new));
+    }
+
+    private static LatencyReport run(Workload workload, LoadTestOptions options) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+        List<LatencyReport.Recorder> recorders = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(options.clients());
+        for (int c = 0; c < options.clients(); c++) {
+            LatencyReport.Recorder recorder = new LatencyReport.Recorder(workload.operations().size());
+            recorders.add(recorder);
+            SplittableRandom random = new SplittableRandom(c);
+            // Virtual client threads, so thousands of clients cost the load generator next to nothing.
+            Thread.ofVirtual().name("load-client-" + c).start(() -> {
+                try {
+                    drive(client, workload, recorder, random, measureFrom, end);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        return new LatencyReport(workload.operations(), recorders, options.duration().toNanos() / 1e9);
+    }
+
+    private static void drive(HttpClient client, Workload workload, LatencyReport.Recorder recorder,
+                              SplittableRandom random, long measureFrom, long end) {
+        while (true) {
+            int operation = workload.nextOperation(random);
+            HttpRequest request = workload.request(operation, random);
+            long sent = System.nanoTime();
+            if (sent >= end) {
+                return;
+            }
+            boolean ok;
+            try {
+                int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                ok = status >= 200 && status < 300;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                ok = false;
+            }
+            if (sent >= measureFrom) {
+                recorder.record(operation, (System.nanoTime() - sent) / 1000, ok);
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.finance.tracker.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line options, all given as {@code --name=value}. Options under the
+ * {@code spring.}, {@code server.}, {@code logging.} and {@code finance.}
+ * prefixes are passed through to the application when it is booted here.
+ */
+record LoadTestOptions(
+        int users,
+        long expenses,
+        long incomes,
+        boolean seed,
+        int seedThreads,
+        int clients,
+        Duration warmup,
+        Duration duration,
+        String baseUrl,
+        String jdbcUrl,
+        String jdbcUser,
+        String jdbcPassword,
+        String mix,
+        Path reportDir,
+        Path baseline,
+        List<String> threadModes,
+        Map<String, String> appProperties) {
+
+    static final List<String> THREAD_MODES = List.of("platform", "virtual");
+    private static final String[] APP_PREFIXES = {"spring.", "server.", "logging.", "finance."};
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        Map<String, String> appProperties = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (isAppProperty(name)) {
+                appProperties.put(name, value);
+            } else {
+                options.put(name, value);
+            }
+        }
+        long expenses = Long.parseLong(take(options, "expenses", "1000000"));
+        LoadTestOptions parsed = new LoadTestOptions(
+                Integer.parseInt(take(options, "users", "1000")),
+                expenses,
+                Long.parseLong(take(options, "incomes", Long.toString(expenses / 10))),
+                Boolean.parseBoolean(take(options, "seed", "true")),
+                Integer.parseInt(take(options, "seed-threads", "4")),
+                Integer.parseInt(take(options, "clients", "32")),
+                Duration.ofSeconds(Long.parseLong(take(options, "warmup", "15"))),
+                Duration.ofSeconds(Long.parseLong(take(options, "duration", "60"))),
+                take(options, "base-url", ""),
+                take(options, "jdbc-url", "jdbc:postgresql://localhost:5432/finance_tracker"),
+                take(options, "jdbc-user", "postgres"),
+                take(options, "jdbc-password", "postgres"),
+                take(options, "mix", Workload.DEFAULT_MIX),
+                Path.of(take(options, "report-dir", "target/loadtest")),
+                options.containsKey("baseline") ? Path.of(take(options, "baseline", null)) : null,
+                threadModes(take(options, "thread-modes", "")),
+                appProperties);
+        if (!options.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options " + options.keySet());
+        }
+        if (!parsed.threadModes().isEmpty() && !parsed.bootsApp()) {
+            throw new IllegalArgumentException("--thread-modes boots the app once per mode and cannot use --base-url");
+        }
+        return parsed;
+    }
+
+    boolean bootsApp() {
+        return baseUrl.isEmpty();
+    }
+
+    /** Options worth keeping in the report to tell runs apart; credentials are left out. */
+    Map<String, Object> describe() {
+        Map<String, Object> described = new LinkedHashMap<>();
+        described.put("users", users);
+        described.put("expenses", expenses);
+        described.put("incomes", incomes);
+        described.put("seeded", seed);
+        described.put("clients", clients);
+        described.put("warmupSeconds", warmup.toSeconds());
+        described.put("durationSeconds", duration.toSeconds());
+        described.put("baseUrl", bootsApp() ? "in-process" : baseUrl);
+        described.put("mix", mix);
+        described.put("appProperties", appProperties);
+        return described;
+    }
+
+    private static List<String> threadModes(String value) {
+        List<String> modes = value.isEmpty() ? List.of() : List.of(value.split(","));
+        for (String mode : modes) {
+            if (!THREAD_MODES.contains(mode)) {
+                throw new IllegalArgumentException("Bad thread mode '" + mode + "', modes are " + THREAD_MODES);
+            }
+        }
+        return modes;
+    }
+
+    private static String take(Map<String, String> options, String name, String defaultValue) {
+        String value = options.remove(name);
+        return value != null ? value : defaultValue;
+    }
+
+    private static boolean isAppProperty(String name) {
+        for (String prefix : APP_PREFIXES) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
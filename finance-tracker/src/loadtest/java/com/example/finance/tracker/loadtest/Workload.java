@@ -0,0 +1,116 @@
+package com.example.finance.tracker.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.BiFunction;
+
+/**
+ * The request mix, as {@code name:weight} pairs. Each request targets a user
+ * picked with the same skew the seeder used, so heavy users get most of the
+ * traffic, as they would in production.
+ */
+final class Workload {
+    static final String DEFAULT_MIX = "expense-page:25,income-page:8,expense-filtered:8,stats:20,stats-filtered:4,"
+            + "expense-total:5,user:8,user-page:2,post-expense:15,post-income:5";
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    /** Every operation the mix can name, each building one request for a user. */
+    private static final Map<String, BiFunction<Workload, Request, HttpRequest>> OPERATIONS = new LinkedHashMap<>();
+
+    static {
+        OPERATIONS.put("expense-page", (w, r) -> w.get("/api/expense/user/" + r.userId + "/page?limit=50"));
+        OPERATIONS.put("expense-list", (w, r) -> w.get("/api/expense/user/" + r.userId));
+        OPERATIONS.put("income-page", (w, r) -> w.get("/api/income/user/" + r.userId + "/page?limit=50"));
+        OPERATIONS.put("expense-filtered", (w, r) -> w.get("/api/expense/user/" + r.userId + "/page?limit=50&from="
+                + w.today.minusDays(90) + "&category=" + r.category()));
+        OPERATIONS.put("stats", (w, r) -> w.get("/api/stats/" + r.userId));
+        OPERATIONS.put("stats-filtered", (w, r) -> w.get("/api/stats/" + r.userId + "?from=" + w.today.minusDays(365)
+                + "&category=" + r.category()));
+        OPERATIONS.put("expense-total", (w, r) -> w.get("/api/expense/user/" + r.userId + "/total"));
+        OPERATIONS.put("income-total", (w, r) -> w.get("/api/income/user/" + r.userId + "/total"));
+        OPERATIONS.put("user", (w, r) -> w.get("/api/user/" + r.userId));
+        OPERATIONS.put("user-page", (w, r) -> w.get("/api/user/page?limit=50"));
+        OPERATIONS.put("post-expense", (w, r) -> {
+            int category = Distributions.category(r.random);
+            return w.post("/api/expense", String.format(Locale.ROOT,
+                    "{\"title\":\"Load test\",\"category\":\"%s\",\"amount\":%.2f,\"date\":\"%s\",\"userId\":%d}",
+                    Distributions.CATEGORIES[category], Distributions.expenseAmount(r.random, category),
+                    Distributions.date(r.random, w.today), r.userId));
+        });
+        OPERATIONS.put("post-income", (w, r) -> {
+            int source = Distributions.source(r.random);
+            return w.post("/api/income", String.format(Locale.ROOT,
+                    "{\"source\":\"%s\",\"amount\":%.2f,\"date\":\"%s\",\"userId\":%d}",
+                    Distributions.SOURCES[source], Distributions.incomeAmount(r.random, source),
+                    Distributions.date(r.random, w.today), r.userId));
+        });
+    }
+
+    private final String baseUrl;
+    private final long[] users;
+    private final List<String> names = new ArrayList<>();
+    private final int[] cumulativeWeights;
+    private final LocalDate today = LocalDate.now();
+
+    Workload(String baseUrl, long[] users, String mix) {
+        this.baseUrl = baseUrl;
+        this.users = users;
+        List<Integer> cumulative = new ArrayList<>();
+        int total = 0;
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2 || !OPERATIONS.containsKey(parts[0])) {
+                throw new IllegalArgumentException("Bad mix entry '" + entry + "', operations are " + OPERATIONS.keySet());
+            }
+            total += Integer.parseInt(parts[1]);
+            names.add(parts[0]);
+            cumulative.add(total);
+        }
+        this.cumulativeWeights = cumulative.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    List<String> operations() {
+        return names;
+    }
+
+    /** Picks the next operation; the caller records its latency under that index. */
+    int nextOperation(SplittableRandom random) {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return i;
+            }
+        }
+        return cumulativeWeights.length - 1;
+    }
+
+    HttpRequest request(int operation, SplittableRandom random) {
+        long userId = users[Distributions.skewedIndex(random, users.length)];
+        return OPERATIONS.get(names.get(operation)).apply(this, new Request(userId, random));
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(TIMEOUT).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private record Request(long userId, SplittableRandom random) {
+        String category() {
+            return Distributions.CATEGORIES[Distributions.category(random)];
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.finance.tracker.cache;
+
+import com.example.finance.tracker.entity.User;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate's second-level cache, holding only the {@link User} region: a
+ * bounded Caffeine cache behind JCache, evicting by size and TTL. Hibernate
+ * updates or drops an entry when the transaction that changed the user
+ * commits, so the TTL only bounds how long an idle user keeps its slot.
+ * Every application context gets a cache manager of its own, so two contexts
+ * in one JVM (tests, the replica schema bootstrap) never share entries. Hit,
+ * miss and eviction counts are published as the {@code cache.*} meters
+ * tagged {@code cache=user}.
+ */
+@Component
+public class UserCache implements HibernatePropertiesCustomizer, MeterBinder {
+    public static final String REGION = "user";
+
+    private final CacheManager cacheManager;
+    private final Cache<Object, Object> cache;
+
+    public UserCache(@Value("${finance.user-cache.maximum-size:10000}") long maximumSize,
+                     @Value("${finance.user-cache.ttl:1h}") Duration ttl) {
+        this.cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("finance-tracker:" + UUID.randomUUID()), UserCache.class.getClassLoader());
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        configuration.setNativeStatisticsEnabled(true);
+        this.cache = cacheManager.createCache(REGION, configuration);
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+        hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+        hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache.unwrap(com.github.benmanes.caffeine.cache.Cache.class), REGION);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.finance.tracker.concurrency;
+
+import com.example.finance.tracker.exception.DatabaseBusyException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps how many threads work against the database at once. With virtual
+ * threads every request gets its own thread, so without a cap thousands of
+ * them would queue inside the connection pool; here they park cheaply on a
+ * fair semaphore instead and fail with {@link DatabaseBusyException} if no
+ * slot frees up in time.
+ * <p>
+ * A slot is taken by the outermost service or repository call on a thread and
+ * held until it returns, so nested calls never wait on a slot their own
+ * thread holds. It is ordered ahead of the transaction interceptor, so a
+ * thread never holds a connection while waiting for a slot. Work that opens
+ * its own transaction outside a service call wraps itself in {@link #run}.
+ * Reactive reads return before touching the database and are bounded by
+ * their own R2DBC pool, so methods returning a Publisher are left alone.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class DatabaseConcurrencyLimiter implements MeterBinder {
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseConcurrencyLimiter.class);
+
+    private final int maxConcurrency;
+    private final Duration acquireTimeout;
+    private final Semaphore slots;
+    private final ThreadLocal<Boolean> holding = new ThreadLocal<>();
+
+    public DatabaseConcurrencyLimiter(@Value("${finance.db.max-concurrency:10}") int maxConcurrency,
+                                      @Value("${finance.db.acquire-timeout:30s}") Duration acquireTimeout) {
+        this.maxConcurrency = maxConcurrency;
+        this.acquireTimeout = acquireTimeout;
+        this.slots = new Semaphore(maxConcurrency, true);
+    }
+
+    @Around("execution(public !org.reactivestreams.Publisher+ com.example.finance.tracker.service..*Service.*(..)) || " +
+            "execution(!org.reactivestreams.Publisher+ com.example.finance.tracker.repository..*.*(..))")
+    public Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (holding.get() != null) {
+            return joinPoint.proceed();
+        }
+        acquire();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            release();
+        }
+    }
+
+    /** Runs {@code work} holding a slot, unless this thread already holds one. */
+    public void run(Runnable work) throws InterruptedException {
+        if (holding.get() != null) {
+            work.run();
+            return;
+        }
+        acquire();
+        try {
+            work.run();
+        } finally {
+            release();
+        }
+    }
+
+    public int availableSlots() {
+        return slots.availablePermits();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("finance.db.limiter.active", this, limiter -> limiter.maxConcurrency - limiter.availableSlots())
+                .description("Threads currently holding a database slot")
+                .register(registry);
+        Gauge.builder("finance.db.limiter.waiting", slots, Semaphore::getQueueLength)
+                .description("Threads waiting for a database slot")
+                .register(registry);
+    }
+
+    private void acquire() throws InterruptedException {
+        if (!slots.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+            logger.warn("No database slot freed up within {} ms; {} threads waiting",
+                    acquireTimeout.toMillis(), slots.getQueueLength());
+            throw new DatabaseBusyException(maxConcurrency, acquireTimeout);
+        }
+        holding.set(Boolean.TRUE);
+    }
+
+    private void release() {
+        holding.remove();
+        slots.release();
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.finance.tracker.controller;
+
+import com.example.finance.tracker.dto.ColumnStoreDTO;
+import com.example.finance.tracker.service.columnar.TransactionColumnStore;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+@CrossOrigin("*")
+@Tag(name = "Admin Controller")
+public class AdminController {
+    private final TransactionColumnStore transactionColumnStore;
+
+    @GetMapping("/column-store")
+    @Operation(summary = "Get the memory used by the column store, per loaded user")
+    public ResponseEntity<ColumnStoreDTO> getColumnStore(){
+        return ResponseEntity.ok(ColumnStoreDTO.builder()
+                .enabled(transactionColumnStore.isEnabled())
+                .maxBytes(transactionColumnStore.maxBytes())
+                .usedBytes(transactionColumnStore.usedBytes())
+                .users(transactionColumnStore.usage())
+                .build());
+    }
+}
@@ -1,16 +1,32 @@
 package com.example.finance.tracker.controller;
 
+import com.example.finance.tracker.dto.BatchResultDTO;
+import com.example.finance.tracker.dto.CursorPageDTO;
+import com.example.finance.tracker.dto.ImportResultDTO;
 import com.example.finance.tracker.dto.ExpenseDTO;
+import com.example.finance.tracker.service.batch.BatchWriter;
 import com.example.finance.tracker.service.expense.ExpenseService;
+import com.example.finance.tracker.service.export.ExportFormat;
+import com.example.finance.tracker.service.export.ExportService;
+import com.example.finance.tracker.service.filter.TransactionFilter;
+import com.example.finance.tracker.service.importer.ImportService;
+import com.example.finance.tracker.service.version.DataVersionService;
+import com.example.finance.tracker.service.writebehind.WriteBehindQueue;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.LoggerFactory;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 import org.slf4j.Logger;
 
@@ -24,49 +40,127 @@ public class ExpenseController {
     Logger logger = LoggerFactory.getLogger(ExpenseController.class);
 
     private final ExpenseService expenseService;
+    private final ExportService exportService;
+    private final ImportService importService;
+    private final DataVersionService dataVersionService;
+    private final WriteBehindQueue writeBehindQueue;
 
     @Operation(summary = "Post an expense")
     @PostMapping
     public ResponseEntity<ExpenseDTO> postExpense(@Valid @RequestBody ExpenseDTO expenseDTO){
-        ExpenseDTO createdExpense = expenseService.postExpense(expenseDTO);
+        ExpenseDTO createdExpense = writeBehindQueue.isEnabled()
+                ? writeBehindQueue.postExpense(expenseDTO)
+                : expenseService.postExpense(expenseDTO);
         logger.info("Reached POST /api/expense");
         return ResponseEntity.status(HttpStatus.CREATED).body(createdExpense);
 
     }
+    @Operation(summary = "Post up to 10,000 expenses in one request, with a result per item")
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResultDTO> postExpenses(
+            @RequestBody @Size(max = BatchWriter.MAX_BATCH_SIZE) List<ExpenseDTO> expenseDTOs){
+        logger.info("Reached POST /api/expense/batch");
+        return ResponseEntity.ok(expenseService.postExpenses(expenseDTOs));
+    }
     @Operation(summary = "Get all expenses")
     @GetMapping
     public ResponseEntity<List<ExpenseDTO>> getAllExpenses(){
         logger.info("Reached GET /api/expense");
+        writeBehindQueue.awaitFlushed();
         return ResponseEntity.ok(expenseService.getAllExpenses());
     }
+    @Operation(summary = "Get a page of expenses, newest first")
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageDTO<ExpenseDTO>> getExpensePage(@RequestParam(defaultValue = "50") int limit,
+                                                                    @RequestParam(required = false) String after){
+        logger.info("Reached GET /api/expense/page");
+        writeBehindQueue.awaitFlushed();
+        return ResponseEntity.ok(expenseService.getExpensePage(limit, after));
+    }
     @Operation(summary = "Get expense record by ID")
     @GetMapping("/{id}")
     public ResponseEntity<ExpenseDTO> getExpenseById(@PathVariable Long id){
         logger.info("Reached GET /api/expense/{}",id);
+        writeBehindQueue.awaitFlushed();
         return ResponseEntity.ok(expenseService.getExpenseById(id));
     }
     @Operation(summary = "Update expense")
     @PutMapping("/{id}")
     public ResponseEntity<ExpenseDTO> updateExpense(@PathVariable Long id, @Valid @RequestBody ExpenseDTO expenseDTO){
         logger.info("Reached PUT /api/expense/{}",id);
+        writeBehindQueue.awaitFlushed();
         return ResponseEntity.ok(expenseService.updateExpense(id, expenseDTO));
     }
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete expense record")
     public ResponseEntity<?> deleteExpense(@PathVariable Long id){
         logger.info("Reached DELETE/api/expense/{}",id);
+        writeBehindQueue.awaitFlushed();
         expenseService.deleteExpense(id);
         return ResponseEntity.noContent().build();
     }
     @Operation(summary = "Get all expenses by User")
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<ExpenseDTO>> getAllExpensesByUser(@PathVariable Long userId) {
+    public ResponseEntity<List<ExpenseDTO>> getAllExpensesByUser(@PathVariable Long userId,
+                                                                 @ParameterObject TransactionFilter filter,
+                                                                 WebRequest request) {
+        writeBehindQueue.awaitFlushed(userId);
+        if (dataVersionService.eTag(userId).map(request::checkNotModified).orElse(false)) {
+            return null;
+        }
         logger.info("Requested all expenses for User ID: {userId}");
-        return ResponseEntity.ok(expenseService.getAllExpensesByUser(userId));
+        return ResponseEntity.ok(expenseService.getAllExpensesByUser(userId, filter));
+    }
+    @Operation(summary = "Get a page of expenses by User, newest first")
+    @GetMapping("/user/{userId}/page")
+    public ResponseEntity<CursorPageDTO<ExpenseDTO>> getExpensePageByUser(@PathVariable Long userId,
+                                                                          @RequestParam(defaultValue = "50") int limit,
+                                                                          @RequestParam(required = false) String after,
+                                                                          @ParameterObject TransactionFilter filter,
+                                                                          WebRequest request) {
+        writeBehindQueue.awaitFlushed(userId);
+        if (dataVersionService.eTag(userId).map(request::checkNotModified).orElse(false)) {
+            return null;
+        }
+        logger.info("Requested page of expenses for User ID: {}", userId);
+        return ResponseEntity.ok(expenseService.getExpensePageByUser(userId, limit, after, filter));
+    }
+    @Operation(summary = "Export all expenses of a user as NDJSON or CSV")
+    @GetMapping("/user/{userId}/export")
+    public ResponseEntity<StreamingResponseBody> exportExpensesByUser(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        logger.info("Requested expense export for User ID: {}", userId);
+        writeBehindQueue.awaitFlushed(userId);
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        StreamingResponseBody body = exportService.exportExpenses(userId, format, gzip);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"expenses-" + userId + "." + format.getExtension() + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+    @Operation(summary = "Import a user's expenses from a CSV bank statement sent as the request body")
+    @PostMapping(value = "/user/{userId}/import", consumes = "text/csv")
+    public ResponseEntity<ImportResultDTO> importExpensesByUser(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String mapping,
+            @RequestParam(defaultValue = "yyyy-MM-dd") String dateFormat,
+            InputStream csv) {
+        logger.info("Requested expense import for User ID: {}", userId);
+        return ResponseEntity.ok(importService.importExpenses(userId, csv, mapping, dateFormat));
     }
     @Operation(summary = "Get total expenses by user")
     @GetMapping("/user/{userId}/total")
-    public ResponseEntity<Double> getTotalExpenseByUser(@PathVariable Long userId) {
+    public ResponseEntity<Double> getTotalExpenseByUser(@PathVariable Long userId, WebRequest request) {
+        writeBehindQueue.awaitFlushed(userId);
+        if (dataVersionService.eTag(userId).map(request::checkNotModified).orElse(false)) {
+            return null;
+        }
         logger.info("Requested total expenses for User ID {userId}");
         return ResponseEntity.ok(expenseService.getTotalExpenseByUser(userId));
     }
@@ -1,17 +1,33 @@
 package com.example.finance.tracker.controller;
 
+import com.example.finance.tracker.dto.BatchResultDTO;
+import com.example.finance.tracker.dto.CursorPageDTO;
+import com.example.finance.tracker.dto.ImportResultDTO;
 import com.example.finance.tracker.dto.IncomeDTO;
+import com.example.finance.tracker.service.batch.BatchWriter;
+import com.example.finance.tracker.service.export.ExportFormat;
+import com.example.finance.tracker.service.export.ExportService;
+import com.example.finance.tracker.service.filter.TransactionFilter;
+import com.example.finance.tracker.service.importer.ImportService;
+import com.example.finance.tracker.service.version.DataVersionService;
 import com.example.finance.tracker.service.income.IncomeService;
+import com.example.finance.tracker.service.writebehind.WriteBehindQueue;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -22,49 +38,127 @@ import java.util.List;
 public class IncomeController {
     Logger logger = LoggerFactory.getLogger(IncomeController.class);
     private final IncomeService incomeService;
+    private final ExportService exportService;
+    private final ImportService importService;
+    private final DataVersionService dataVersionService;
+    private final WriteBehindQueue writeBehindQueue;
 
     @PostMapping
     @Operation(summary = "Post income")
     public ResponseEntity<IncomeDTO> postIncome(@Valid @RequestBody IncomeDTO incomeDTO){
-        IncomeDTO createdIncome = incomeService.postIncome(incomeDTO);
+        IncomeDTO createdIncome = writeBehindQueue.isEnabled()
+                ? writeBehindQueue.postIncome(incomeDTO)
+                : incomeService.postIncome(incomeDTO);
         logger.info("Reached POST /api/income");
         return ResponseEntity.status(HttpStatus.CREATED).body(createdIncome);
     }
+    @PostMapping("/batch")
+    @Operation(summary = "Post up to 10,000 income records in one request, with a result per item")
+    public ResponseEntity<BatchResultDTO> postIncomes(
+            @RequestBody @Size(max = BatchWriter.MAX_BATCH_SIZE) List<IncomeDTO> incomeDTOs){
+        logger.info("Reached POST /api/income/batch");
+        return ResponseEntity.ok(incomeService.postIncomes(incomeDTOs));
+    }
     @GetMapping()
     @Operation(summary = "Get all income")
     public ResponseEntity<List<IncomeDTO>> getAllIncome(){
         logger.info("Reached GET /api/income");
+        writeBehindQueue.awaitFlushed();
         return ResponseEntity.ok(incomeService.getAllIncome());
     }
+    @GetMapping("/page")
+    @Operation(summary = "Get a page of income, newest first")
+    public ResponseEntity<CursorPageDTO<IncomeDTO>> getIncomePage(@RequestParam(defaultValue = "50") int limit,
+                                                                  @RequestParam(required = false) String after){
+        logger.info("Reached GET /api/income/page");
+        writeBehindQueue.awaitFlushed();
+        return ResponseEntity.ok(incomeService.getIncomePage(limit, after));
+    }
     @PutMapping("/{id}")
     @Operation(summary = "Update income")
     public ResponseEntity<IncomeDTO> updateIncome(@PathVariable Long id, @Valid @RequestBody IncomeDTO incomeDTO) {
         logger.info("Reached PUT /api/income/{}",id);
+        writeBehindQueue.awaitFlushed();
         return ResponseEntity.ok(incomeService.updateIncome(id, incomeDTO));
     }
     @GetMapping("/{id}")
     @Operation(summary = "Get income record by ID")
     public ResponseEntity<IncomeDTO> getIncomeById(@PathVariable Long id){
         logger.info("Reached GET /api/income/{}",id);
+        writeBehindQueue.awaitFlushed();
         return ResponseEntity.ok(incomeService.getIncomeById(id));
     }
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete income record")
     public ResponseEntity<?> deleteIncome(@PathVariable Long id){
         logger.info("Reached DELETE/api/income/{}",id);
+        writeBehindQueue.awaitFlushed();
         incomeService.deleteIncome(id);
         return ResponseEntity.noContent().build();
 
     }
     @GetMapping("/user/{userId}")
     @Operation(summary = "Get all income by User")
-    public ResponseEntity<List<IncomeDTO>> getAllIncomeByUser(@PathVariable Long userId) {
+    public ResponseEntity<List<IncomeDTO>> getAllIncomeByUser(@PathVariable Long userId,
+                                                              @ParameterObject TransactionFilter filter,
+                                                              WebRequest request) {
+        writeBehindQueue.awaitFlushed(userId);
+        if (dataVersionService.eTag(userId).map(request::checkNotModified).orElse(false)) {
+            return null;
+        }
         logger.info("Requested all income for User ID: {userId}");
-        return ResponseEntity.ok(incomeService.getAllIncomeByUser(userId));
+        return ResponseEntity.ok(incomeService.getAllIncomeByUser(userId, filter));
+    }
+    @GetMapping("/user/{userId}/page")
+    @Operation(summary = "Get a page of income by User, newest first")
+    public ResponseEntity<CursorPageDTO<IncomeDTO>> getIncomePageByUser(@PathVariable Long userId,
+                                                                        @RequestParam(defaultValue = "50") int limit,
+                                                                        @RequestParam(required = false) String after,
+                                                                        @ParameterObject TransactionFilter filter,
+                                                                        WebRequest request) {
+        writeBehindQueue.awaitFlushed(userId);
+        if (dataVersionService.eTag(userId).map(request::checkNotModified).orElse(false)) {
+            return null;
+        }
+        logger.info("Requested page of income for User ID: {}", userId);
+        return ResponseEntity.ok(incomeService.getIncomePageByUser(userId, limit, after, filter));
+    }
+    @GetMapping("/user/{userId}/export")
+    @Operation(summary = "Export all income of a user as NDJSON or CSV")
+    public ResponseEntity<StreamingResponseBody> exportIncomeByUser(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        logger.info("Requested income export for User ID: {}", userId);
+        writeBehindQueue.awaitFlushed(userId);
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        StreamingResponseBody body = exportService.exportIncome(userId, format, gzip);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"income-" + userId + "." + format.getExtension() + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+    @PostMapping(value = "/user/{userId}/import", consumes = "text/csv")
+    @Operation(summary = "Import a user's income from a CSV bank statement sent as the request body")
+    public ResponseEntity<ImportResultDTO> importIncomeByUser(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String mapping,
+            @RequestParam(defaultValue = "yyyy-MM-dd") String dateFormat,
+            InputStream csv) {
+        logger.info("Requested income import for User ID: {}", userId);
+        return ResponseEntity.ok(importService.importIncome(userId, csv, mapping, dateFormat));
     }
     @GetMapping("/user/{userId}/total")
     @Operation(summary = "Get total income by user")
-    public ResponseEntity<Double> getTotalIncomeByUser(@PathVariable Long userId) {
+    public ResponseEntity<Double> getTotalIncomeByUser(@PathVariable Long userId, WebRequest request) {
+        writeBehindQueue.awaitFlushed(userId);
+        if (dataVersionService.eTag(userId).map(request::checkNotModified).orElse(false)) {
+            return null;
+        }
         logger.info("Requested total income for User ID {userId}");
         return ResponseEntity.ok(incomeService.getTotalIncomeByUser(userId));
     }
@@ -0,0 +1,125 @@
+package com.example.finance.tracker.controller;
+
+import com.example.finance.tracker.dto.ExpenseDTO;
+import com.example.finance.tracker.dto.IncomeDTO;
+import com.example.finance.tracker.dto.StatsDTO;
+import com.example.finance.tracker.service.filter.TransactionFilter;
+import com.example.finance.tracker.service.reactive.ReactiveReadService;
+import com.example.finance.tracker.service.version.DataVersionService;
+import com.example.finance.tracker.service.writebehind.WriteBehindQueue;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.function.Supplier;
+
+/**
+ * Reactive replacements for the per-user listing and stats endpoints, active
+ * when {@code finance.read-path=reactive}; {@link ReactiveReadPathMappings}
+ * then takes the same paths away from the blocking handlers. Listings stream
+ * row by row with backpressure when the client asks for
+ * {@code application/x-ndjson}, and are collected into one JSON array
+ * otherwise.
+ */
+@RestController
+@RequiredArgsConstructor
+@CrossOrigin("*")
+@Tag(name = "Reactive Read Controller")
+@ConditionalOnProperty(name = "finance.read-path", havingValue = "reactive")
+public class ReactiveReadController {
+    Logger logger = LoggerFactory.getLogger(ReactiveReadController.class);
+
+    private final ReactiveReadService reactiveReadService;
+    private final WriteBehindQueue writeBehindQueue;
+
+    @Operation(summary = "Get all expenses by User, streamed")
+    @GetMapping(value = "/api/expense/user/{userId}",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<Flux<ExpenseDTO>>> getAllExpensesByUser(
+            @PathVariable Long userId,
+            @ParameterObject TransactionFilter filter,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        logger.info("Requested all expenses for User ID: {}", userId);
+        return versioned(userId, ifNoneMatch, () -> reactiveReadService.getAllExpensesByUser(userId, filter));
+    }
+
+    @Operation(summary = "Get all income by User, streamed")
+    @GetMapping(value = "/api/income/user/{userId}",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<Flux<IncomeDTO>>> getAllIncomeByUser(
+            @PathVariable Long userId,
+            @ParameterObject TransactionFilter filter,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        logger.info("Requested all income for User ID: {}", userId);
+        return versioned(userId, ifNoneMatch, () -> reactiveReadService.getAllIncomeByUser(userId, filter));
+    }
+
+    @Operation(summary = "Get summary of user income and expenses")
+    @GetMapping(value = "/api/stats/{userId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<StatsDTO>> getUserStats(
+            @PathVariable Long userId,
+            @ParameterObject TransactionFilter filter,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return currentVersion(userId).flatMap(version -> {
+            String eTag = DataVersionService.eTagOf(userId, version);
+            if (matches(ifNoneMatch, eTag)) {
+                return Mono.just(notModified(eTag));
+            }
+            return reactiveReadService.getUserFinanceStats(userId, version, filter)
+                    .map(stats -> ResponseEntity.ok().eTag(eTag).body(stats));
+        });
+    }
+
+    /** Answers 304 when the client's ETag is current, so the rows are never queried. */
+    private <T> Mono<ResponseEntity<T>> versioned(Long userId, String ifNoneMatch, Supplier<T> body) {
+        return currentVersion(userId).map(version -> {
+            String eTag = DataVersionService.eTagOf(userId, version);
+            if (matches(ifNoneMatch, eTag)) {
+                return notModified(eTag);
+            }
+            return ResponseEntity.ok().eTag(eTag).body(body.get());
+        });
+    }
+
+    /**
+     * Stores the user's pending write-behind writes first, off the event loop,
+     * so the version and the rows read after it include them.
+     */
+    private Mono<Long> currentVersion(Long userId) {
+        if (!writeBehindQueue.hasPending(userId)) {
+            return reactiveReadService.currentVersion(userId);
+        }
+        return Mono.fromRunnable(() -> writeBehindQueue.awaitFlushed(userId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then(Mono.defer(() -> reactiveReadService.currentVersion(userId)));
+    }
+
+    private static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(eTag) || tag.equals("W/" + eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <T> ResponseEntity<T> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.finance.tracker.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hands the paths served by {@link ReactiveReadController} over to it by
+ * unregistering the blocking handlers mapped to the same path and method.
+ * Runs once every handler is registered and before the server starts.
+ */
+@Component
+@ConditionalOnProperty(name = "finance.read-path", havingValue = "reactive")
+public class ReactiveReadPathMappings implements SmartInitializingSingleton {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveReadPathMappings.class);
+
+    private final RequestMappingHandlerMapping handlerMapping;
+
+    public ReactiveReadPathMappings(@Qualifier("requestMappingHandlerMapping") RequestMappingHandlerMapping handlerMapping) {
+        this.handlerMapping = handlerMapping;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Map<RequestMappingInfo, HandlerMethod> handlers = handlerMapping.getHandlerMethods();
+        List<RequestMappingInfo> reactive = handlers.entrySet().stream()
+                .filter(handler -> handler.getValue().getBeanType() == ReactiveReadController.class)
+                .map(Map.Entry::getKey)
+                .toList();
+        handlers.forEach((info, handler) -> {
+            if (handler.getBeanType() != ReactiveReadController.class && reactive.stream().anyMatch(r ->
+                    r.getPatternValues().equals(info.getPatternValues())
+                            && r.getMethodsCondition().getMethods().equals(info.getMethodsCondition().getMethods()))) {
+                logger.info("Serving {} from the reactive read path instead of {}", info.getPatternValues(), handler);
+                handlerMapping.unregisterMapping(info);
+            }
+        });
+    }
+}
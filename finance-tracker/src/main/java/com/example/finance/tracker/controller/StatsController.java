@@ -1,12 +1,32 @@
 package com.example.finance.tracker.controller;
 
+import com.example.finance.tracker.dto.StatsBatchItemDTO;
 import com.example.finance.tracker.dto.StatsDTO;
+import com.example.finance.tracker.dto.TimeSeriesDTO;
+import com.example.finance.tracker.service.filter.TransactionFilter;
+import com.example.finance.tracker.service.stats.StatsGranularity;
+import com.example.finance.tracker.service.stats.StatsService;
 import com.example.finance.tracker.service.stats.StatsServiceImpl;
+import com.example.finance.tracker.service.version.DataVersionService;
+import com.example.finance.tracker.service.writebehind.WriteBehindQueue;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/stats")
@@ -15,12 +35,62 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "Stats Controller")
 public class StatsController {
     private final StatsServiceImpl statsService;
+    private final DataVersionService dataVersionService;
+    private final WriteBehindQueue writeBehindQueue;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/{userId}")
     @Operation(summary = "Get summary of user income and expenses")
-    public ResponseEntity<StatsDTO> getUserStats(@PathVariable Long userId){
-        StatsDTO stats = statsService.getUserFinanceStats(userId);
+    public ResponseEntity<StatsDTO> getUserStats(@PathVariable Long userId,
+                                                 @ParameterObject TransactionFilter filter,
+                                                 WebRequest request){
+        writeBehindQueue.awaitFlushed(userId);
+        if (dataVersionService.eTag(userId).map(request::checkNotModified).orElse(false)) {
+            return null;
+        }
+        StatsDTO stats = statsService.getUserFinanceStats(userId, filter);
         return ResponseEntity.ok(stats);
     }
 
+    @GetMapping("/{userId}/series")
+    @Operation(summary = "Get a user's income and expenses per day, week, month, quarter or year over a date range")
+    public ResponseEntity<TimeSeriesDTO> getUserSeries(@PathVariable Long userId,
+                                                       @RequestParam(defaultValue = "MONTH") StatsGranularity granularity,
+                                                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                       WebRequest request){
+        writeBehindQueue.awaitFlushed(userId);
+        if (dataVersionService.eTag(userId).map(request::checkNotModified).orElse(false)) {
+            return null;
+        }
+        return ResponseEntity.ok(statsService.getUserFinanceSeries(userId, granularity, from, to));
+    }
+
+    /**
+     * Writes one NDJSON line per requested ID, in request order, and flushes
+     * after every chunk of {@link StatsService#BATCH_CHUNK_SIZE} users, so
+     * results reach the client while later chunks are still being read.
+     */
+    @PostMapping(value = "/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream the stats of up to 100,000 users as NDJSON, one line per requested ID")
+    public ResponseEntity<StreamingResponseBody> getUsersStats(
+            @RequestBody @Size(max = StatsService.MAX_BATCH_USERS) List<Long> userIds){
+        writeBehindQueue.awaitFlushed();
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                for (int from = 0; from < userIds.size(); from += StatsService.BATCH_CHUNK_SIZE) {
+                    List<Long> chunk = userIds.subList(from, Math.min(from + StatsService.BATCH_CHUNK_SIZE, userIds.size()));
+                    for (StatsBatchItemDTO item : statsService.getUsersFinanceStats(chunk)) {
+                        writer.writeValue(generator, item);
+                        generator.writeRaw('\n');
+                    }
+                    generator.flush();
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
 }
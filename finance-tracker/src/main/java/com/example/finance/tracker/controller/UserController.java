@@ -1,7 +1,9 @@
 package com.example.finance.tracker.controller;
 
+import com.example.finance.tracker.dto.CursorPageDTO;
 import com.example.finance.tracker.dto.UserDTO;
 import com.example.finance.tracker.service.user.UserService;
+import com.example.finance.tracker.service.writebehind.WriteBehindQueue;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -19,6 +21,7 @@ import java.util.List;
 @Tag(name = "User Controller")
 public class UserController {
     private final UserService userService;
+    private final WriteBehindQueue writeBehindQueue;
 
     @PostMapping
     @Operation(summary = "Create a new user")
@@ -31,6 +34,12 @@ public class UserController {
     public ResponseEntity<List<UserDTO>> getAllUsers(){
         return ResponseEntity.ok(userService.getAllUsers());
     }
+    @GetMapping("/page")
+    @Operation(summary = "Get a page of user details, newest first")
+    public ResponseEntity<CursorPageDTO<UserDTO>> getUserPage(@RequestParam(defaultValue = "50") int limit,
+                                                              @RequestParam(required = false) String after){
+        return ResponseEntity.ok(userService.getUserPage(limit, after));
+    }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get user details by ID")
@@ -45,6 +54,7 @@ public class UserController {
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete user")
     public ResponseEntity<Void> deleteUser(@PathVariable Long id){
+        writeBehindQueue.awaitFlushed(id);
         userService.deleteUser(id);
         return ResponseEntity.noContent().build();
     }
@@ -0,0 +1,42 @@
+package com.example.finance.tracker.datasource;
+
+/**
+ * The user whose data the current thread is reading, if known. Replica reads
+ * for a user stay on one replica, so an ETag and the body it describes never
+ * come from replicas at different points in the past, and move to the
+ * primary for a while after the user writes (see {@link RecentWrites}).
+ */
+public final class ReadRouting {
+    private static final ThreadLocal<Long> CURRENT_USER = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    /** Routes this thread's reads for {@code userId} until the returned scope is closed. */
+    public static Scope forUser(Long userId) {
+        Long previous = CURRENT_USER.get();
+        CURRENT_USER.set(userId);
+        return new Scope(previous);
+    }
+
+    static Long currentUser() {
+        return CURRENT_USER.get();
+    }
+
+    public static final class Scope implements AutoCloseable {
+        private final Long previous;
+
+        private Scope(Long previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT_USER.remove();
+            } else {
+                CURRENT_USER.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.finance.tracker.datasource;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Routes the reads of a request mapped with a {@code {userId}} path variable
+ * for that user. Async requests close the scope when the request thread is
+ * released; whatever streams the body later opens its own.
+ */
+public class ReadRoutingInterceptor implements AsyncHandlerInterceptor {
+    private static final String SCOPE = ReadRoutingInterceptor.class.getName() + ".scope";
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String userId = variables == null ? null : variables.get("userId");
+        if (userId != null) {
+            try {
+                request.setAttribute(SCOPE, ReadRouting.forUser(Long.valueOf(userId)));
+            } catch (NumberFormatException e) {
+                // The handler rejects it as a bad request.
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        close(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        close(request);
+    }
+
+    private static void close(HttpServletRequest request) {
+        if (request.getAttribute(SCOPE) instanceof ReadRouting.Scope scope) {
+            request.removeAttribute(SCOPE);
+            scope.close();
+        }
+    }
+}
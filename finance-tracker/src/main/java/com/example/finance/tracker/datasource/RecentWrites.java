@@ -0,0 +1,45 @@
+package com.example.finance.tracker.datasource;
+
+import com.example.finance.tracker.service.event.UserDataChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Users who wrote within the last {@code finance.datasource.primary-after-write},
+ * whose reads go to the primary so they see their own writes whatever the
+ * replicas lag. The window starts when the write commits and should exceed
+ * the replicas' usual lag. Does nothing unless replicas are configured.
+ */
+@Component
+public class RecentWrites {
+    private final boolean enabled;
+    private final Cache<Long, Boolean> writers;
+
+    public RecentWrites(@Value("${finance.datasource.replica-urls:}") String[] replicaUrls,
+                        @Value("${finance.datasource.primary-after-write:5s}") Duration primaryAfterWrite) {
+        this.enabled = replicaUrls.length > 0;
+        this.writers = Caffeine.newBuilder()
+                .expireAfterWrite(primaryAfterWrite)
+                .build();
+    }
+
+    public void record(Long userId) {
+        if (enabled && userId != null) {
+            writers.put(userId, Boolean.TRUE);
+        }
+    }
+
+    public boolean isRecent(Long userId) {
+        return enabled && writers.getIfPresent(userId) != null;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDataChanged(UserDataChangedEvent event) {
+        record(event.userId());
+    }
+}
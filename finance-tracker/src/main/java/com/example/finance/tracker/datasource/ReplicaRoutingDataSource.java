@@ -0,0 +1,53 @@
+package com.example.finance.tracker.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Picks the database for a read-only connection: the primary for a user in
+ * {@link RecentWrites}, the user's own replica for any other user, and the
+ * replicas in turn when the thread is not reading for a user.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+    private static final String PRIMARY = "primary";
+
+    private final List<HikariDataSource> replicas;
+    private final RecentWrites recentWrites;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas, RecentWrites recentWrites) {
+        this.replicas = replicas;
+        this.recentWrites = recentWrites;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(i, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Long userId = ReadRouting.currentUser();
+        if (userId == null) {
+            return Math.floorMod(next.getAndIncrement(), replicas.size());
+        }
+        if (recentWrites.isRecent(userId)) {
+            return PRIMARY;
+        }
+        return (int) Math.floorMod(userId, (long) replicas.size());
+    }
+
+    /** Closes the replica pools; the primary pool is a bean of its own. */
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+    }
+}
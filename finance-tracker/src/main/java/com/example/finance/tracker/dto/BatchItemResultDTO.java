@@ -0,0 +1,26 @@
+package com.example.finance.tracker.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+@Schema(name = "BatchItemResultDTO", description = "Outcome of one item of a batch request")
+public class BatchItemResultDTO {
+    public enum Status { CREATED, REJECTED }
+
+    @Schema(description = "Position of the item in the request body", example = "0")
+    private int index;
+
+    @Schema(description = "Whether the item was stored")
+    private Status status;
+
+    @Schema(description = "ID of the stored record; null when rejected", example = "1")
+    private Long id;
+
+    @Schema(description = "Why the item was rejected; empty when created")
+    private List<String> errors;
+}
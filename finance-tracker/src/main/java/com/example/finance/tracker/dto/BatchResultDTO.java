@@ -0,0 +1,21 @@
+package com.example.finance.tracker.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+@Schema(name = "BatchResultDTO", description = "Per-item outcome of a batch request")
+public class BatchResultDTO {
+    @Schema(description = "Number of items stored", example = "998")
+    private int created;
+
+    @Schema(description = "Number of items rejected by validation", example = "2")
+    private int rejected;
+
+    @Schema(description = "One result per request item, in request order")
+    private List<BatchItemResultDTO> results;
+}
@@ -0,0 +1,24 @@
+package com.example.finance.tracker.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+@Schema(name = "ColumnStoreDTO", description = "Memory used by the in-process column store")
+public class ColumnStoreDTO {
+    @Schema(description = "Whether stats and filtered listings are served from the column store", example = "true")
+    private boolean enabled;
+
+    @Schema(description = "Memory budget, in bytes", example = "268435456")
+    private long maxBytes;
+
+    @Schema(description = "Estimated heap held by all loaded users, in bytes", example = "52428800")
+    private long usedBytes;
+
+    @Schema(description = "Loaded users, largest first")
+    private List<ColumnUsageDTO> users;
+}
@@ -0,0 +1,25 @@
+package com.example.finance.tracker.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@Schema(name = "ColumnUsageDTO", description = "One user's transactions held in the column store")
+public class ColumnUsageDTO {
+    @Schema(description = "User ID", example = "123")
+    private Long userId;
+
+    @Schema(description = "Data version the columns reflect", example = "42")
+    private long version;
+
+    @Schema(description = "Number of expenses held", example = "5300")
+    private int expenses;
+
+    @Schema(description = "Number of income records held", example = "240")
+    private int incomes;
+
+    @Schema(description = "Estimated heap held, in bytes", example = "412000")
+    private long bytes;
+}
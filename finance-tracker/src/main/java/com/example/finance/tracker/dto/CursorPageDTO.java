@@ -0,0 +1,18 @@
+package com.example.finance.tracker.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+@Schema(name = "CursorPageDTO", description = "One page of a keyset-paginated listing")
+public class CursorPageDTO<T> {
+    @Schema(description = "Items on this page, newest first")
+    private List<T> items;
+
+    @Schema(description = "Opaque cursor to pass as 'after' for the next page; null on the last page")
+    private String nextCursor;
+}
@@ -1,5 +1,6 @@
 package com.example.finance.tracker.dto;
 
+import com.example.finance.tracker.money.Money;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.Column;
@@ -7,12 +8,16 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PastOrPresent;
 import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
 
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 @Schema(name = "ExpenseDTO", description = "Expense data transfer object")
 public class ExpenseDTO {
     @Schema(description = "Expense ID", example = "1")
@@ -31,6 +36,7 @@ public class ExpenseDTO {
     private LocalDate date;
 
     @Schema(description = "Expense category", example = "Food")
+    @NotBlank(message = "Category is required")
     @Column(nullable = false)
     private String category;
 
@@ -41,4 +47,10 @@ public class ExpenseDTO {
 
     @Schema(description = "User ID associated with expense", example = "123")
     private Long userId;
+
+    /** For queries selecting the stored amount, which is in cents. */
+    public ExpenseDTO(Long id, String title, String description, LocalDate date, String category,
+                      Long amountCents, Long userId) {
+        this(id, title, description, date, category, Money.toAmount(amountCents), userId);
+    }
 }
@@ -0,0 +1,18 @@
+package com.example.finance.tracker.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@Schema(name = "ImportRejectionDTO", description = "A CSV row that was not imported")
+public class ImportRejectionDTO {
+    @Schema(description = "Line in the uploaded file on which the row starts", example = "42")
+    private long line;
+
+    @Schema(description = "Why the row was rejected")
+    private List<String> errors;
+}
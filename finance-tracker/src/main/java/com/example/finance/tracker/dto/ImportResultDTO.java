@@ -0,0 +1,21 @@
+package com.example.finance.tracker.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+@Schema(name = "ImportResultDTO", description = "Outcome of a CSV import")
+public class ImportResultDTO {
+    @Schema(description = "Number of rows stored", example = "120000")
+    private long imported;
+
+    @Schema(description = "Number of rows rejected", example = "3")
+    private long rejected;
+
+    @Schema(description = "Rejected rows in file order; only the first 1,000 are listed")
+    private List<ImportRejectionDTO> rejections;
+}
@@ -1,15 +1,21 @@
 package com.example.finance.tracker.dto;
 
+import com.example.finance.tracker.money.Money;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.persistence.Column;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PastOrPresent;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class IncomeDTO {
     private Long id;
     @NotBlank(message = "Source is required")
@@ -21,7 +27,13 @@ public class IncomeDTO {
     private LocalDate date;
     @Column(nullable = false)
     @NotNull
+    @PositiveOrZero(message = "Amount must be non-negative")
     private Double amount;
     @NotNull
     private Long userId;
+
+    /** For queries selecting the stored amount, which is in cents. */
+    public IncomeDTO(Long id, String source, String description, LocalDate date, Long amountCents, Long userId) {
+        this(id, source, description, date, Money.toAmount(amountCents), userId);
+    }
 }
@@ -0,0 +1,21 @@
+package com.example.finance.tracker.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@Schema(name = "StatsBatchItemDTO", description = "Stats of one user of a batch stats request")
+public class StatsBatchItemDTO {
+    public enum Status { OK, NOT_FOUND }
+
+    @Schema(description = "Requested user ID", example = "1")
+    private Long userId;
+
+    @Schema(description = "Whether the user exists")
+    private Status status;
+
+    @Schema(description = "The user's stats; null when the user was not found")
+    private StatsDTO stats;
+}
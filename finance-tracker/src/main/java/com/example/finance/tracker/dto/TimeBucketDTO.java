@@ -0,0 +1,24 @@
+package com.example.finance.tracker.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@Schema(name = "TimeBucketDTO", description = "Totals of one time bucket")
+public class TimeBucketDTO {
+    @Schema(description = "First day of the bucket", example = "2025-01-01")
+    private LocalDate start;
+
+    @Schema(description = "Income in the bucket", example = "3000.0")
+    private Double income;
+
+    @Schema(description = "Expenses in the bucket", example = "1200.0")
+    private Double expenses;
+
+    @Schema(description = "Income minus expenses", example = "1800.0")
+    private Double net;
+}
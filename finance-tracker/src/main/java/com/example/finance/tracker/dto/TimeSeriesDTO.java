@@ -0,0 +1,29 @@
+package com.example.finance.tracker.dto;
+
+import com.example.finance.tracker.service.stats.StatsGranularity;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@Schema(name = "TimeSeriesDTO", description = "A user's income and expenses per time bucket")
+public class TimeSeriesDTO {
+    @Schema(description = "User the series belongs to", example = "1")
+    private Long userId;
+
+    @Schema(description = "Width of each bucket")
+    private StatsGranularity granularity;
+
+    @Schema(description = "Start of the first bucket, the requested start widened to a bucket boundary", example = "2025-01-01")
+    private LocalDate from;
+
+    @Schema(description = "Last day of the last bucket, the requested end widened to a bucket boundary", example = "2025-12-31")
+    private LocalDate to;
+
+    @Schema(description = "Every bucket of the range in date order, including empty ones")
+    private List<TimeBucketDTO> buckets;
+}
@@ -1,6 +1,7 @@
 package com.example.finance.tracker.entity;
 
 import com.example.finance.tracker.dto.ExpenseDTO;
+import com.example.finance.tracker.money.Money;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PastOrPresent;
@@ -9,10 +10,16 @@ import lombok.Data;
 import java.time.LocalDate;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_expense_date_id", columnList = "date, id"),
+        @Index(name = "idx_expense_user_date_id", columnList = "user_id, date, id"),
+        @Index(name = "idx_expense_user_category", columnList = "user_id, category_id")
+})
 @Data
 public class Expense {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expense_seq")
+    @SequenceGenerator(name = "expense_seq", sequenceName = "expense_seq", allocationSize = 50)
     private Long id;
 
     private String title;
@@ -21,9 +28,10 @@ public class Expense {
     @NotNull
     @PastOrPresent(message = "Date should not be in the future!")
     private LocalDate date;
-    @Column(nullable = false)
-    private Double amount;
-    @Column(nullable = false)
+    @Column(name = "amount_cents", nullable = false)
+    private Long amountCents;
+    @Column(name = "category_id", nullable = false)
+    @Convert(converter = LabelConverter.class)
     private String category;
 
     public ExpenseDTO getExpenseDto(){
@@ -31,14 +39,14 @@ public class Expense {
         expenseDTO.setId(id);
         expenseDTO.setTitle(title);
         expenseDTO.setDescription(description);
-        expenseDTO.setAmount(amount);
+        expenseDTO.setAmount(Money.toAmount(amountCents));
         expenseDTO.setDate(date);
         expenseDTO.setCategory(category);
         expenseDTO.setUserId(user.getId());
 
         return expenseDTO;
     }
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     @NotNull
     private User user;
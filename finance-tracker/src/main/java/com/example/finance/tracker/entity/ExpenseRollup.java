@@ -0,0 +1,32 @@
+package com.example.finance.tracker.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Running sum and count of a user's expenses for one calendar month and
+ * category. Kept in step with the expense table by the expense write paths.
+ */
+@Entity
+@Table(name = "expense_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "uk_expense_rollup_group",
+                columnNames = {"user_id", "month_start", "category_id"}))
+@Data
+public class ExpenseRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    @Column(name = "month_start", nullable = false)
+    private LocalDate monthStart;
+    @Column(name = "category_id", nullable = false)
+    @Convert(converter = LabelConverter.class)
+    private String category;
+    @Column(name = "total_cents", nullable = false)
+    private Long totalCents;
+    @Column(name = "entry_count", nullable = false)
+    private Long entryCount;
+}
@@ -1,6 +1,7 @@
 package com.example.finance.tracker.entity;
 
 import com.example.finance.tracker.dto.IncomeDTO;
+import com.example.finance.tracker.money.Money;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.PastOrPresent;
 import jakarta.validation.constraints.Positive;
@@ -10,33 +11,40 @@ import java.time.LocalDate;
 import java.util.Date;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_income_date_id", columnList = "date, id"),
+        @Index(name = "idx_income_user_date_id", columnList = "user_id, date, id"),
+        @Index(name = "idx_income_user_source", columnList = "user_id, source_id")
+})
 @Data
 public class Income {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "income_seq")
+    @SequenceGenerator(name = "income_seq", sequenceName = "income_seq", allocationSize = 50)
     private Long id;
-    @Column(nullable = false)
+    @Column(name = "source_id", nullable = false)
+    @Convert(converter = LabelConverter.class)
     private String source;
     private String description;
     @Column(nullable = false)
     @PastOrPresent(message = "Date should not be in the future!")
     private LocalDate date;
-    @Column(nullable = false)
+    @Column(name = "amount_cents", nullable = false)
     @Positive
-    private Double amount;
+    private Long amountCents;
 
     public IncomeDTO getIncomeDto(){
         IncomeDTO incomeDTO = new IncomeDTO();
         incomeDTO.setId(id);
         incomeDTO.setSource(source);
         incomeDTO.setDescription(description);
-        incomeDTO.setAmount(amount);
+        incomeDTO.setAmount(Money.toAmount(amountCents));
         incomeDTO.setDate(date);
         incomeDTO.setUserId(user.getId());
         return incomeDTO;
     }
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 }
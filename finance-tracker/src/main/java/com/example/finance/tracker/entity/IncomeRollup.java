@@ -0,0 +1,32 @@
+package com.example.finance.tracker.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Running sum and count of a user's income for one calendar month and
+ * source. Kept in step with the income table by the income write paths.
+ */
+@Entity
+@Table(name = "income_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "uk_income_rollup_group",
+                columnNames = {"user_id", "month_start", "source_id"}))
+@Data
+public class IncomeRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    @Column(name = "month_start", nullable = false)
+    private LocalDate monthStart;
+    @Column(name = "source_id", nullable = false)
+    @Convert(converter = LabelConverter.class)
+    private String source;
+    @Column(name = "total_cents", nullable = false)
+    private Long totalCents;
+    @Column(name = "entry_count", nullable = false)
+    private Long entryCount;
+}
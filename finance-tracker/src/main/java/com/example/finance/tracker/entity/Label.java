@@ -0,0 +1,20 @@
+package com.example.finance.tracker.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Dictionary of expense categories and income sources. Rows store the id and
+ * {@link LabelConverter} maps it back to the name, so each distinct name is
+ * stored once. Labels are never renamed or deleted.
+ */
+@Entity
+@Table(name = "label")
+@Data
+public class Label {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+    @Column(nullable = false, unique = true)
+    private String name;
+}
@@ -0,0 +1,28 @@
+package com.example.finance.tracker.entity;
+
+import com.example.finance.tracker.service.label.LabelDictionary;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Stores a category or source name as its {@link Label} id. Applies to query
+ * parameters as well, so filtering and grouping by the attribute run on the
+ * integer column. Hibernate gets this from the Spring context, which injects
+ * the dictionary.
+ */
+@Converter
+@RequiredArgsConstructor
+public class LabelConverter implements AttributeConverter<String, Integer> {
+    private final LabelDictionary labelDictionary;
+
+    @Override
+    public Integer convertToDatabaseColumn(String name) {
+        return name == null ? null : labelDictionary.idOf(name);
+    }
+
+    @Override
+    public String convertToEntityAttribute(Integer id) {
+        return id == null ? null : labelDictionary.nameOf(id);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.finance.tracker.entity;
+
+import com.example.finance.tracker.repository.projection.MonthlyTotal;
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A user's rollup groups for every month before {@code openMonth}, frozen once
+ * those months closed. Tagged with the user's closed-period version it was
+ * built from: it only stands in for those months while the tag and the open
+ * month still match, and a write to a closed month bumps the version rather
+ * than touching this row.
+ */
+@Entity
+@Table(name = "stats_snapshot")
+@Data
+public class StatsSnapshot {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    @Column(name = "closed_version", nullable = false)
+    private Long closedVersion;
+    @Column(name = "open_month", nullable = false)
+    private LocalDate openMonth;
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false)
+    private Totals totals;
+
+    public record Totals(List<MonthlyTotal> incomes, List<MonthlyTotal> expenses) {
+    }
+}
@@ -1,15 +1,20 @@
 package com.example.finance.tracker.entity;
 
 
+import com.example.finance.tracker.cache.UserCache;
 import com.example.finance.tracker.dto.UserDTO;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = UserCache.REGION)
 @Data
 public class User {
 
@@ -0,0 +1,23 @@
+package com.example.finance.tracker.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Counter bumped in the same transaction as every change to a user's expenses
+ * or income. Clients see it as the ETag of the user's per-user resources.
+ * {@code closedVersion} is only bumped by changes to closed accounting
+ * periods; null counts as zero.
+ */
+@Entity
+@Table(name = "user_data_version")
+@Data
+public class UserDataVersion {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    @Column(nullable = false)
+    private Long version;
+    @Column(name = "closed_version")
+    private Long closedVersion;
+}
@@ -0,0 +1,9 @@
+package com.example.finance.tracker.exception;
+
+import java.time.Duration;
+
+public class DatabaseBusyException extends RuntimeException {
+    public DatabaseBusyException(int maxConcurrency, Duration waited) {
+        super("Database is busy: all " + maxConcurrency + " slots stayed in use for " + waited.toMillis() + " ms");
+    }
+}
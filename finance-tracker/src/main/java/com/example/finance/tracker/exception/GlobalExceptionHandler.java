@@ -1,5 +1,6 @@
 package com.example.finance.tracker.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -30,6 +31,48 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         );
         return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
 
+    }
+    @ExceptionHandler(InvalidCursorException.class)
+    protected ResponseEntity<ApiErrorResponse> handleInvalidCursorException(InvalidCursorException ex){
+        var errorResponse = new ApiErrorResponse(
+                HttpStatus.BAD_REQUEST.value(),
+                LocalDateTime.now(),
+                ex.getMessage()
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+
+    }
+    @ExceptionHandler(InvalidRangeException.class)
+    protected ResponseEntity<ApiErrorResponse> handleInvalidRangeException(InvalidRangeException ex){
+        var errorResponse = new ApiErrorResponse(
+                HttpStatus.BAD_REQUEST.value(),
+                LocalDateTime.now(),
+                ex.getMessage()
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+
+    }
+    @ExceptionHandler(InvalidImportException.class)
+    protected ResponseEntity<ApiErrorResponse> handleInvalidImportException(InvalidImportException ex){
+        var errorResponse = new ApiErrorResponse(
+                HttpStatus.BAD_REQUEST.value(),
+                LocalDateTime.now(),
+                ex.getMessage()
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+
+    }
+    @ExceptionHandler(DatabaseBusyException.class)
+    protected ResponseEntity<ApiErrorResponse> handleDatabaseBusyException(DatabaseBusyException ex){
+        var errorResponse = new ApiErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                LocalDateTime.now(),
+                ex.getMessage()
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorResponse);
+
     }
     @ExceptionHandler(Exception.class)
     protected ResponseEntity<ApiErrorResponse> handleGeneric(Exception ex){
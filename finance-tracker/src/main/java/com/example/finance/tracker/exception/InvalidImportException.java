@@ -0,0 +1,7 @@
+package com.example.finance.tracker.exception;
+
+public class InvalidImportException extends RuntimeException {
+    public InvalidImportException(String message) {
+        super("Invalid import: " + message);
+    }
+}
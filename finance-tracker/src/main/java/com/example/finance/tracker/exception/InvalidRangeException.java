@@ -0,0 +1,7 @@
+package com.example.finance.tracker.exception;
+
+public class InvalidRangeException extends RuntimeException {
+    public InvalidRangeException(String message) {
+        super("Invalid date range: " + message);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.finance.tracker.metrics;
+
+import com.example.finance.tracker.dto.CursorPageDTO;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Times every service method and records how many rows each service and
+ * repository call returned. Spring Data repository calls are already timed by
+ * Actuator as {@code spring.data.repository.invocations}; this adds the row
+ * counts next to them so a slow call can be matched to the size of the
+ * user's history behind it. It runs outermost, so service timings include
+ * any wait for a database slot. Methods returning a Publisher only assemble
+ * the pipeline, so they are left out; the reactive endpoints are still timed
+ * as {@code http.server.requests}.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MethodMetricsAspect {
+    static final String SERVICE_TIMER = "finance.service.invocations";
+    static final String SERVICE_ROWS = "finance.service.rows";
+    static final String REPOSITORY_ROWS = "finance.repository.rows";
+
+    private final MeterRegistry registry;
+
+    public MethodMetricsAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(public !org.reactivestreams.Publisher+ com.example.finance.tracker.service..*Service.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        String service = serviceName(joinPoint.getSignature().getDeclaringType());
+        String method = joinPoint.getSignature().getName();
+        Timer.Sample sample = Timer.start(registry);
+        String exception = "none";
+        try {
+            Object result = joinPoint.proceed();
+            return countRows(result, SERVICE_ROWS, "service", service, method);
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(SERVICE_TIMER)
+                    .description("Service method calls")
+                    .tags("service", service, "method", method,
+                            "outcome", "none".equals(exception) ? "SUCCESS" : "ERROR", "exception", exception)
+                    .register(registry));
+        }
+    }
+
+    @Around("execution(!org.reactivestreams.Publisher+ com.example.finance.tracker.repository..*.*(..))")
+    public Object countRepositoryRows(ProceedingJoinPoint joinPoint) throws Throwable {
+        return countRows(joinPoint.proceed(), REPOSITORY_ROWS, "repository",
+                joinPoint.getSignature().getDeclaringType().getSimpleName(), joinPoint.getSignature().getName());
+    }
+
+    /**
+     * Records the number of rows in a collection, page or stream result and
+     * returns it unchanged. A stream is counted as it is consumed and recorded
+     * when it is closed. Scalar results are not recorded.
+     */
+    private Object countRows(Object result, String name, String ownerTag, String owner, String method) {
+        if (result instanceof Stream<?> stream) {
+            AtomicLong rows = new AtomicLong();
+            return stream.peek(row -> rows.incrementAndGet())
+                    .onClose(() -> rows(name, ownerTag, owner, method).record(rows.get()));
+        }
+        long rows;
+        if (result instanceof Collection<?> collection) {
+            rows = collection.size();
+        } else if (result instanceof CursorPageDTO<?> page) {
+            rows = page.getItems().size();
+        } else {
+            return result;
+        }
+        rows(name, ownerTag, owner, method).record(rows);
+        return result;
+    }
+
+    /** The service interface the method was called through, e.g. ExpenseService rather than its Impl. */
+    private static String serviceName(Class<?> type) {
+        for (Class<?> candidate : ClassUtils.getAllInterfacesForClassAsSet(type)) {
+            if (candidate.getSimpleName().endsWith("Service")) {
+                return candidate.getSimpleName();
+            }
+        }
+        return type.getSimpleName();
+    }
+
+    private DistributionSummary rows(String name, String ownerTag, String owner, String method) {
+        return DistributionSummary.builder(name)
+                .description("Rows returned per call")
+                .baseUnit("rows")
+                .tags(ownerTag, owner, "method", method)
+                .register(registry);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.finance.tracker.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Amounts are stored, summed and compared as a {@code long} count of cents,
+ * and only turned into the decimal {@code Double} of the API at the DTO
+ * boundary. Summing integers is exact, so a total no longer drifts with the
+ * number of rows it adds up, and {@link #toAmount} gives the double closest
+ * to the exact total.
+ */
+public final class Money {
+    private static final int SCALE = 2;
+    private static final double CENTS_PER_UNIT = 100.0;
+
+    private Money() {
+    }
+
+    /** Cents in an API amount, rounding half up past the second decimal. */
+    public static long toCents(double amount) {
+        return toCents(amount, RoundingMode.HALF_UP);
+    }
+
+    /** The API amount for a number of cents. */
+    public static Double toAmount(long cents) {
+        return cents / CENTS_PER_UNIT;
+    }
+
+    /** Smallest number of cents at or above the amount, for inclusive lower bounds. */
+    public static long ceilCents(double amount) {
+        return toCents(amount, RoundingMode.CEILING);
+    }
+
+    /** Largest number of cents at or below the amount, for inclusive upper bounds. */
+    public static long floorCents(double amount) {
+        return toCents(amount, RoundingMode.FLOOR);
+    }
+
+    // BigDecimal.valueOf goes through the shortest decimal form of the double,
+    // so 0.29 is exactly 29 cents rather than 28.999... * 100.
+    private static long toCents(double amount, RoundingMode rounding) {
+        return BigDecimal.valueOf(amount).setScale(SCALE, rounding).unscaledValue().longValueExact();
+    }
+}
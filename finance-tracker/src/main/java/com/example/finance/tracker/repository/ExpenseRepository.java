@@ -1,19 +1,74 @@
 package com.example.finance.tracker.repository;
 
+import com.example.finance.tracker.dto.ExpenseDTO;
 import com.example.finance.tracker.entity.Expense;
+import com.example.finance.tracker.repository.projection.MonthlyTotal;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface ExpenseRepository extends JpaRepository<Expense, Long> {
-    List<Expense> findAllByUserId(Long userId);
+    /**
+     * Constructor expression selecting the DTO columns directly, with the
+     * owner's id read from the foreign key, so reads neither touch the users
+     * table nor build managed entities.
+     */
+    String EXPENSE_DTO = "new com.example.finance.tracker.dto.ExpenseDTO(" +
+            "e.id, e.title, e.description, e.date, e.category, e.amountCents, e.user.id)";
 
-    @Query("SELECT SUM(e.amount) FROM Expense e WHERE e.user.id = :userId")
-    Double getTotalExpenseByUserId(@Param("userId") Long userId);
+    @Query("SELECT " + EXPENSE_DTO + " FROM Expense e ORDER BY e.date DESC, e.id DESC")
+    List<ExpenseDTO> findAllNewestFirst();
 
+    @Query("SELECT " + EXPENSE_DTO + " FROM Expense e WHERE e.id = :id")
+    Optional<ExpenseDTO> findDtoById(@Param("id") Long id);
 
+    @Query("SELECT " + EXPENSE_DTO + " FROM Expense e WHERE e.user.id = :userId ORDER BY e.date DESC, e.id DESC")
+    List<ExpenseDTO> findAllByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT SUM(e.amountCents) FROM Expense e WHERE e.user.id = :userId")
+    Long getTotalExpenseByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT new com.example.finance.tracker.repository.projection.MonthlyTotal(" +
+            "year(e.date), month(e.date), e.category, SUM(e.amountCents), COUNT(e)) " +
+            "FROM Expense e WHERE e.user.id = :userId " +
+            "GROUP BY year(e.date), month(e.date), e.category")
+    List<MonthlyTotal> sumByMonthAndCategory(@Param("userId") Long userId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e FROM Expense e WHERE e.user.id = :userId ORDER BY e.date, e.id")
+    Stream<Expense> streamAllByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT " + EXPENSE_DTO + " FROM Expense e ORDER BY e.date DESC, e.id DESC")
+    List<ExpenseDTO> findFirstPage(Limit limit);
+
+    @Query("SELECT " + EXPENSE_DTO + " FROM Expense e WHERE (e.date, e.id) < (:date, :id) " +
+            "ORDER BY e.date DESC, e.id DESC")
+    List<ExpenseDTO> findPageAfter(@Param("date") LocalDate date, @Param("id") Long id, Limit limit);
+
+    @Query("SELECT " + EXPENSE_DTO + " FROM Expense e WHERE e.user.id = :userId ORDER BY e.date DESC, e.id DESC")
+    List<ExpenseDTO> findFirstPageByUserId(@Param("userId") Long userId, Limit limit);
+
+    @Query("SELECT " + EXPENSE_DTO + " FROM Expense e WHERE e.user.id = :userId AND (e.date, e.id) < (:date, :id) " +
+            "ORDER BY e.date DESC, e.id DESC")
+    List<ExpenseDTO> findPageByUserIdAfter(@Param("userId") Long userId, @Param("date") LocalDate date,
+                                           @Param("id") Long id, Limit limit);
+
+    @Query("SELECT e.id FROM Expense e WHERE e.id IN :ids")
+    Set<Long> findExistingIds(Collection<Long> ids);
 }
@@ -0,0 +1,57 @@
+package com.example.finance.tracker.repository;
+
+import com.example.finance.tracker.entity.ExpenseRollup;
+import com.example.finance.tracker.repository.projection.MonthlyTotal;
+import com.example.finance.tracker.repository.projection.UserMonthlyTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ExpenseRollupRepository extends JpaRepository<ExpenseRollup, Long> {
+
+    /** Native, so it takes the category's label id rather than its name. */
+    @Modifying
+    @Query(value = "INSERT INTO expense_rollup (user_id, month_start, category_id, total_cents, entry_count) " +
+            "VALUES (:userId, :monthStart, :categoryId, :amountCents, :count) " +
+            "ON CONFLICT (user_id, month_start, category_id) DO UPDATE " +
+            "SET total_cents = expense_rollup.total_cents + EXCLUDED.total_cents, " +
+            "entry_count = expense_rollup.entry_count + EXCLUDED.entry_count",
+            nativeQuery = true)
+    void apply(@Param("userId") Long userId, @Param("monthStart") LocalDate monthStart,
+               @Param("categoryId") Integer categoryId, @Param("amountCents") Long amountCents, @Param("count") Long count);
+
+    @Modifying
+    @Query("DELETE FROM ExpenseRollup r WHERE r.userId = :userId AND r.monthStart = :monthStart " +
+            "AND r.category = :category AND r.entryCount <= 0")
+    void deleteIfEmpty(@Param("userId") Long userId, @Param("monthStart") LocalDate monthStart,
+                       @Param("category") String category);
+
+    @Modifying
+    @Query("DELETE FROM ExpenseRollup r WHERE r.userId = :userId")
+    void deleteAllByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT new com.example.finance.tracker.repository.projection.MonthlyTotal(" +
+            "year(r.monthStart), month(r.monthStart), r.category, r.totalCents, r.entryCount) " +
+            "FROM ExpenseRollup r WHERE r.userId = :userId")
+    List<MonthlyTotal> findMonthlyTotalsByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT new com.example.finance.tracker.repository.projection.MonthlyTotal(" +
+            "year(r.monthStart), month(r.monthStart), r.category, r.totalCents, r.entryCount) " +
+            "FROM ExpenseRollup r WHERE r.userId = :userId AND r.monthStart >= :from")
+    List<MonthlyTotal> findMonthlyTotalsByUserIdFrom(@Param("userId") Long userId, @Param("from") LocalDate from);
+
+    @Query("SELECT new com.example.finance.tracker.repository.projection.UserMonthlyTotal(" +
+            "r.userId, year(r.monthStart), month(r.monthStart), r.category, r.totalCents, r.entryCount) " +
+            "FROM ExpenseRollup r WHERE r.userId IN :userIds")
+    List<UserMonthlyTotal> findMonthlyTotalsByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    @Query("SELECT SUM(r.totalCents) FROM ExpenseRollup r WHERE r.userId = :userId")
+    Long getTotalByUserId(@Param("userId") Long userId);
+}
@@ -1,18 +1,74 @@
 package com.example.finance.tracker.repository;
 
+import com.example.finance.tracker.dto.IncomeDTO;
 import com.example.finance.tracker.entity.Income;
+import com.example.finance.tracker.repository.projection.MonthlyTotal;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface IncomeRepository extends JpaRepository<Income, Long> {
+    /**
+     * Constructor expression selecting the DTO columns directly, with the
+     * owner's id read from the foreign key, so reads neither touch the users
+     * table nor build managed entities.
+     */
+    String INCOME_DTO = "new com.example.finance.tracker.dto.IncomeDTO(" +
+            "i.id, i.source, i.description, i.date, i.amountCents, i.user.id)";
 
-    List<Income> findAllByUserId(Long userId);
-    
-    @Query("SELECT SUM(i.amount) FROM Income i WHERE i.user.id = :userId")
-    Double getTotalIncomeByUserId(@Param("userId") Long userId);
+    @Query("SELECT " + INCOME_DTO + " FROM Income i ORDER BY i.date DESC, i.id DESC")
+    List<IncomeDTO> findAllNewestFirst();
+
+    @Query("SELECT " + INCOME_DTO + " FROM Income i WHERE i.id = :id")
+    Optional<IncomeDTO> findDtoById(@Param("id") Long id);
+
+    @Query("SELECT " + INCOME_DTO + " FROM Income i WHERE i.user.id = :userId ORDER BY i.date DESC, i.id DESC")
+    List<IncomeDTO> findAllByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT SUM(i.amountCents) FROM Income i WHERE i.user.id = :userId")
+    Long getTotalIncomeByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT new com.example.finance.tracker.repository.projection.MonthlyTotal(" +
+            "year(i.date), month(i.date), i.source, SUM(i.amountCents), COUNT(i)) " +
+            "FROM Income i WHERE i.user.id = :userId " +
+            "GROUP BY year(i.date), month(i.date), i.source")
+    List<MonthlyTotal> sumByMonthAndSource(@Param("userId") Long userId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT i FROM Income i WHERE i.user.id = :userId ORDER BY i.date, i.id")
+    Stream<Income> streamAllByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT " + INCOME_DTO + " FROM Income i ORDER BY i.date DESC, i.id DESC")
+    List<IncomeDTO> findFirstPage(Limit limit);
+
+    @Query("SELECT " + INCOME_DTO + " FROM Income i WHERE (i.date, i.id) < (:date, :id) " +
+            "ORDER BY i.date DESC, i.id DESC")
+    List<IncomeDTO> findPageAfter(@Param("date") LocalDate date, @Param("id") Long id, Limit limit);
+
+    @Query("SELECT " + INCOME_DTO + " FROM Income i WHERE i.user.id = :userId ORDER BY i.date DESC, i.id DESC")
+    List<IncomeDTO> findFirstPageByUserId(@Param("userId") Long userId, Limit limit);
+
+    @Query("SELECT " + INCOME_DTO + " FROM Income i WHERE i.user.id = :userId AND (i.date, i.id) < (:date, :id) " +
+            "ORDER BY i.date DESC, i.id DESC")
+    List<IncomeDTO> findPageByUserIdAfter(@Param("userId") Long userId, @Param("date") LocalDate date,
+                                          @Param("id") Long id, Limit limit);
+
+    @Query("SELECT i.id FROM Income i WHERE i.id IN :ids")
+    Set<Long> findExistingIds(Collection<Long> ids);
 }
@@ -0,0 +1,37 @@
+package com.example.finance.tracker.repository;
+
+import com.example.finance.tracker.repository.projection.MonthlyTotal;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Grouped monthly totals over the raw expense or income rows, restricted by a
+ * specification. Used when a filter rules out reading the precomputed rollups.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MonthlyTotalQueries {
+    private final EntityManager entityManager;
+
+    public <T> List<MonthlyTotal> sumByMonth(Class<T> type, String keyAttribute, Specification<T> filter) {
+        HibernateCriteriaBuilder cb = (HibernateCriteriaBuilder) entityManager.getCriteriaBuilder();
+        CriteriaQuery<MonthlyTotal> query = cb.createQuery(MonthlyTotal.class);
+        Root<T> root = query.from(type);
+        Expression<Integer> year = cb.year(root.get("date"));
+        Expression<Integer> month = cb.month(root.get("date"));
+        Path<String> key = root.get(keyAttribute);
+        query.select(cb.construct(MonthlyTotal.class, year, month, key, cb.sum(root.<Long>get("amountCents")), cb.count(root)))
+                .where(filter.toPredicate(root, query, cb))
+                .groupBy(year, month, key);
+        return entityManager.createQuery(query).getResultList();
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.finance.tracker.repository;
+
+import com.example.finance.tracker.dto.ExpenseDTO;
+import com.example.finance.tracker.dto.IncomeDTO;
+import com.example.finance.tracker.money.Money;
+import com.example.finance.tracker.repository.projection.MonthlyTotal;
+import com.example.finance.tracker.service.filter.TransactionFilter;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Read queries for the reactive read path, over R2DBC. Row streams are
+ * fetched from a server-side cursor {@value #FETCH_SIZE} rows at a time as
+ * the subscriber requests them, so a slow client holds back the query instead
+ * of buffering a user's history in memory. Category and source names are
+ * joined in from the {@code label} dictionary, since plain SQL bypasses the
+ * JPA converter.
+ * <p>
+ * The pool is owned here rather than exposed as a {@code ConnectionFactory}
+ * bean: Boot would otherwise move schema initialisation and the default
+ * transaction manager over to R2DBC, and both must stay on JDBC.
+ */
+@Repository
+@ConditionalOnProperty(name = "finance.read-path", havingValue = "reactive")
+public class ReactiveTransactionQueries implements DisposableBean {
+    private static final int FETCH_SIZE = 500;
+    private static final String NEWEST_FIRST = " ORDER BY date DESC, id DESC";
+
+    private final ConnectionPool pool;
+    private final DatabaseClient client;
+
+    public ReactiveTransactionQueries(@Value("${finance.r2dbc.url}") String url,
+                                      @Value("${finance.r2dbc.username}") String username,
+                                      @Value("${finance.r2dbc.password}") String password,
+                                      @Value("${finance.r2dbc.max-size:10}") int maxSize) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        this.pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .initialSize(0)
+                .maxSize(maxSize)
+                .build());
+        this.client = DatabaseClient.create(pool);
+    }
+
+    /** The user's data version, 0 before the first write; empty when the user does not exist. */
+    public Mono<Long> findVersionOfUser(Long userId) {
+        return client.sql("SELECT COALESCE(v.version, 0) AS version FROM users u " +
+                        "LEFT JOIN user_data_version v ON v.user_id = u.id WHERE u.id = :userId")
+                .bind("userId", userId)
+                .map(row -> row.get("version", Long.class))
+                .one();
+    }
+
+    public Flux<ExpenseDTO> findExpenses(Long userId, TransactionFilter filter) {
+        Where where = where(userId, filter, "category_id", filter.category());
+        return stream("SELECT e.id, title, description, date, l.name AS category, amount_cents, user_id FROM expense e"
+                + " JOIN label l ON l.id = e.category_id" + where.sql() + NEWEST_FIRST, where, row -> new ExpenseDTO(
+                row.get("id", Long.class), row.get("title", String.class), row.get("description", String.class),
+                row.get("date", LocalDate.class), row.get("category", String.class),
+                row.get("amount_cents", Long.class), row.get("user_id", Long.class)));
+    }
+
+    public Flux<IncomeDTO> findIncome(Long userId, TransactionFilter filter) {
+        Where where = where(userId, filter, "source_id", filter.source());
+        return stream("SELECT i.id, l.name AS source, description, date, amount_cents, user_id FROM income i"
+                + " JOIN label l ON l.id = i.source_id" + where.sql() + NEWEST_FIRST, where, row -> new IncomeDTO(
+                row.get("id", Long.class), row.get("source", String.class), row.get("description", String.class),
+                row.get("date", LocalDate.class), row.get("amount_cents", Long.class), row.get("user_id", Long.class)));
+    }
+
+    /** The user's expense rollup rows, one per (month, category). */
+    public Flux<MonthlyTotal> findExpenseMonthlyTotals(Long userId) {
+        return rollup("expense_rollup", "category_id", userId);
+    }
+
+    /** The user's income rollup rows, one per (month, source). */
+    public Flux<MonthlyTotal> findIncomeMonthlyTotals(Long userId) {
+        return rollup("income_rollup", "source_id", userId);
+    }
+
+    /** Expenses matching the filter, grouped by (month, category) in SQL. */
+    public Flux<MonthlyTotal> sumExpensesByMonth(Long userId, TransactionFilter filter) {
+        return sumByMonth("expense", "category_id", where(userId, filter, "category_id", filter.category()));
+    }
+
+    /** Income matching the filter, grouped by (month, source) in SQL. */
+    public Flux<MonthlyTotal> sumIncomeByMonth(Long userId, TransactionFilter filter) {
+        return sumByMonth("income", "source_id", where(userId, filter, "source_id", filter.source()));
+    }
+
+    @Override
+    public void destroy() {
+        pool.dispose();
+    }
+
+    private Flux<MonthlyTotal> rollup(String table, String keyColumn, Long userId) {
+        return client.sql("SELECT EXTRACT(YEAR FROM month_start)::int AS year, " +
+                        "EXTRACT(MONTH FROM month_start)::int AS month, l.name AS key, " +
+                        "total_cents, entry_count AS count FROM " + table + " r JOIN label l ON l.id = r." + keyColumn +
+                        " WHERE user_id = :userId")
+                .bind("userId", userId)
+                .map(ReactiveTransactionQueries::monthlyTotal)
+                .all();
+    }
+
+    /** Groups on the label id and only then looks up the names, once per group. */
+    private Flux<MonthlyTotal> sumByMonth(String table, String keyColumn, Where where) {
+        return bindAll(client.sql("SELECT year, month, l.name AS key, total_cents, count FROM (" +
+                "SELECT EXTRACT(YEAR FROM date)::int AS year, EXTRACT(MONTH FROM date)::int AS month, "
+                + keyColumn + " AS key_id, SUM(amount_cents)::bigint AS total_cents, COUNT(*) AS count FROM " + table + where.sql()
+                + " GROUP BY 1, 2, 3) g JOIN label l ON l.id = g.key_id"), where)
+                .map(ReactiveTransactionQueries::monthlyTotal)
+                .all();
+    }
+
+    private <T> Flux<T> stream(String sql, Where where, Function<Readable, T> mapper) {
+        return bindAll(client.sql(sql), where)
+                .filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .map(mapper)
+                .all();
+    }
+
+    private static MonthlyTotal monthlyTotal(Readable row) {
+        return new MonthlyTotal(row.get("year", Integer.class), row.get("month", Integer.class),
+                row.get("key", String.class), row.get("total_cents", Long.class), row.get("count", Long.class));
+    }
+
+    /** Same predicates as {@code TransactionSpecifications}: only the criteria that are set. */
+    private static Where where(Long userId, TransactionFilter filter, String keyColumn, String key) {
+        StringBuilder sql = new StringBuilder(" WHERE user_id = :userId");
+        Map<String, Object> binds = new LinkedHashMap<>();
+        binds.put("userId", userId);
+        if (filter.from() != null) {
+            sql.append(" AND date >= :from");
+            binds.put("from", filter.from());
+        }
+        if (filter.to() != null) {
+            sql.append(" AND date <= :to");
+            binds.put("to", filter.to());
+        }
+        if (key != null) {
+            sql.append(" AND ").append(keyColumn).append(" = (SELECT id FROM label WHERE name = :key)");
+            binds.put("key", key);
+        }
+        if (filter.minAmount() != null) {
+            sql.append(" AND amount_cents >= :minAmount");
+            binds.put("minAmount", Money.ceilCents(filter.minAmount()));
+        }
+        if (filter.maxAmount() != null) {
+            sql.append(" AND amount_cents <= :maxAmount");
+            binds.put("maxAmount", Money.floorCents(filter.maxAmount()));
+        }
+        return new Where(sql.toString(), binds);
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindAll(DatabaseClient.GenericExecuteSpec spec, Where where) {
+        for (Map.Entry<String, Object> bind : where.binds().entrySet()) {
+            spec = spec.bind(bind.getKey(), bind.getValue());
+        }
+        return spec;
+    }
+
+    private record Where(String sql, Map<String, Object> binds) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.finance.tracker.repository;
+
+import com.example.finance.tracker.entity.StatsSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface StatsSnapshotRepository extends JpaRepository<StatsSnapshot, Long> {
+
+    Optional<StatsSnapshot> findByUserIdAndClosedVersionAndOpenMonth(Long userId, Long closedVersion, LocalDate openMonth);
+
+    /**
+     * Keeps whichever snapshot is newer, so a slow writer never replaces a
+     * later one. Stores nothing once the user is gone; the user row is locked
+     * like a foreign key check would, so a concurrent delete cannot slip in
+     * between.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO stats_snapshot (user_id, closed_version, open_month, totals) " +
+            "SELECT u.id, :closedVersion, :openMonth, CAST(:totals AS jsonb) FROM users u WHERE u.id = :userId " +
+            "FOR KEY SHARE " +
+            "ON CONFLICT (user_id) DO UPDATE SET closed_version = EXCLUDED.closed_version, " +
+            "open_month = EXCLUDED.open_month, totals = EXCLUDED.totals " +
+            "WHERE (stats_snapshot.open_month, stats_snapshot.closed_version) < (EXCLUDED.open_month, EXCLUDED.closed_version)",
+            nativeQuery = true)
+    void store(@Param("userId") Long userId, @Param("closedVersion") Long closedVersion,
+               @Param("openMonth") LocalDate openMonth, @Param("totals") String totals);
+
+    @Modifying
+    @Query("DELETE FROM StatsSnapshot s WHERE s.userId = :userId")
+    void deleteAllByUserId(@Param("userId") Long userId);
+}
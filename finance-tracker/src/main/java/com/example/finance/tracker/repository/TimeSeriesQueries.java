@@ -0,0 +1,64 @@
+package com.example.finance.tracker.repository;
+
+import com.example.finance.tracker.repository.projection.BucketTotal;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A user's income and expenses summed per {@code date_trunc} bucket in one
+ * statement, ordered by bucket. Buckets without rows are left out. Day and
+ * week buckets are summed from the raw rows through the (user, date) indexes;
+ * month, quarter and year buckets from the monthly rollups, so a multi-year
+ * range reads one row per month and category or source. Rollups only hold
+ * whole months, so their range should start and end on month boundaries.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TimeSeriesQueries {
+    private static final Set<String> UNITS = Set.of("day", "week", "month", "quarter", "year");
+
+    private final EntityManager entityManager;
+
+    public List<BucketTotal> sumByBucket(Long userId, String unit, LocalDate from, LocalDate to) {
+        return sum(userId, unit, from, to, "income", "expense", "date", "amount_cents");
+    }
+
+    public List<BucketTotal> sumRollupsByBucket(Long userId, String unit, LocalDate from, LocalDate to) {
+        return sum(userId, unit, from, to, "income_rollup", "expense_rollup", "month_start", "total_cents");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<BucketTotal> sum(Long userId, String unit, LocalDate from, LocalDate to,
+                                 String incomeTable, String expenseTable, String dateColumn, String amountColumn) {
+        if (!UNITS.contains(unit)) {
+            throw new IllegalArgumentException("Unknown date_trunc unit: " + unit);
+        }
+        String bucket = "CAST(date_trunc('" + unit + "', CAST(" + dateColumn + " AS timestamp)) AS date)";
+        String range = " WHERE user_id = :userId AND " + dateColumn + " BETWEEN :from AND :to";
+        String sql = "SELECT bucket, CAST(SUM(income_cents) AS bigint) AS income_cents, " +
+                "CAST(SUM(expense_cents) AS bigint) AS expense_cents FROM (" +
+                "SELECT " + bucket + " AS bucket, " + amountColumn + " AS income_cents, 0 AS expense_cents " +
+                "FROM " + incomeTable + range +
+                " UNION ALL " +
+                "SELECT " + bucket + " AS bucket, 0 AS income_cents, " + amountColumn + " AS expense_cents " +
+                "FROM " + expenseTable + range +
+                ") buckets GROUP BY bucket ORDER BY bucket";
+        return entityManager.createNativeQuery(sql)
+                .setParameter("userId", userId)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .unwrap(NativeQuery.class)
+                .addScalar("bucket", LocalDate.class)
+                .addScalar("income_cents", Long.class)
+                .addScalar("expense_cents", Long.class)
+                .setTupleTransformer((tuple, aliases) ->
+                        new BucketTotal((LocalDate) tuple[0], (Long) tuple[1], (Long) tuple[2]))
+                .getResultList();
+    }
+}
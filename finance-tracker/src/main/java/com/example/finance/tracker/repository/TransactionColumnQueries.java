@@ -0,0 +1,48 @@
+package com.example.finance.tracker.repository;
+
+import com.example.finance.tracker.service.columnar.TransactionColumns;
+import com.example.finance.tracker.service.columnar.UserColumns;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+
+/**
+ * Reads a user's rows into {@link TransactionColumns}, streamed in (date, id)
+ * order. The version and both tables are read in one repeatable-read
+ * snapshot, so the columns are exactly the data at that version. A caller's
+ * transaction keeps its own isolation when this joins it, so read paths that
+ * may load columns start theirs repeatable-read too.
+ */
+@Repository
+public class TransactionColumnQueries {
+    private static final int FETCH_SIZE = 5_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransactionColumnQueries(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public UserColumns load(Long userId) {
+        Long version = jdbcTemplate.queryForObject(
+                "SELECT COALESCE((SELECT version FROM user_data_version WHERE user_id = ?), 0)", Long.class, userId);
+        TransactionColumns expenses = load("SELECT id, date - DATE '1970-01-01', amount_cents, category_id, " +
+                "title, description FROM expense WHERE user_id = ? ORDER BY date, id", userId);
+        TransactionColumns income = load("SELECT id, date - DATE '1970-01-01', amount_cents, source_id, " +
+                "NULL, description FROM income WHERE user_id = ? ORDER BY date, id", userId);
+        return new UserColumns(version, expenses, income);
+    }
+
+    private TransactionColumns load(String sql, Long userId) {
+        TransactionColumns.Builder builder = new TransactionColumns.Builder();
+        jdbcTemplate.query(sql, (RowCallbackHandler) row -> builder.add(row.getLong(1), row.getInt(2),
+                row.getLong(3), row.getInt(4), row.getString(5), row.getString(6)), userId);
+        return builder.build();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.finance.tracker.repository;
+
+import com.example.finance.tracker.dto.ExpenseDTO;
+import com.example.finance.tracker.dto.IncomeDTO;
+import com.example.finance.tracker.entity.Expense;
+import com.example.finance.tracker.entity.Income;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Filtered expense and income reads, newest first, selected straight into
+ * DTOs the same way as the repository constructor expressions. Specification
+ * queries on the repositories would load managed entities instead.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransactionDtoQueries {
+    private final EntityManager entityManager;
+
+    public List<ExpenseDTO> findExpenses(Specification<Expense> filter, Limit limit) {
+        return find(Expense.class, ExpenseDTO.class, filter, limit, root -> new Selection<?>[]{
+                root.get("id"), root.get("title"), root.get("description"), root.get("date"),
+                root.get("category"), root.get("amountCents"), root.get("user").get("id")});
+    }
+
+    public List<IncomeDTO> findIncome(Specification<Income> filter, Limit limit) {
+        return find(Income.class, IncomeDTO.class, filter, limit, root -> new Selection<?>[]{
+                root.get("id"), root.get("source"), root.get("description"), root.get("date"),
+                root.get("amountCents"), root.get("user").get("id")});
+    }
+
+    private <T, D> List<D> find(Class<T> type, Class<D> dto, Specification<T> filter, Limit limit,
+                                Function<Root<T>, Selection<?>[]> columns) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<D> query = cb.createQuery(dto);
+        Root<T> root = query.from(type);
+        query.select(cb.construct(dto, columns.apply(root)))
+                .where(filter.toPredicate(root, query, cb))
+                .orderBy(cb.desc(root.get("date")), cb.desc(root.get("id")));
+        TypedQuery<D> typed = entityManager.createQuery(query);
+        if (limit.isLimited()) {
+            typed.setMaxResults(limit.max());
+        }
+        return typed.getResultList();
+    }
+}
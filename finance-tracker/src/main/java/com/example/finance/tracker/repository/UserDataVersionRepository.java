@@ -0,0 +1,42 @@
+package com.example.finance.tracker.repository;
+
+import com.example.finance.tracker.entity.UserDataVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface UserDataVersionRepository extends JpaRepository<UserDataVersion, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO user_data_version (user_id, version) VALUES (:userId, 1) " +
+            "ON CONFLICT (user_id) DO UPDATE SET version = user_data_version.version + 1",
+            nativeQuery = true)
+    void bump(@Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "INSERT INTO user_data_version (user_id, version, closed_version) VALUES (:userId, 0, 1) " +
+            "ON CONFLICT (user_id) DO UPDATE SET closed_version = COALESCE(user_data_version.closed_version, 0) + 1",
+            nativeQuery = true)
+    void bumpClosed(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM UserDataVersion v WHERE v.userId = :userId")
+    void deleteAllByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT COALESCE(v.closedVersion, 0) FROM UserDataVersion v WHERE v.userId = :userId")
+    Optional<Long> findClosedVersion(@Param("userId") Long userId);
+
+    /** Zero for a user who has never written anything; empty when the user does not exist. */
+    @Query("SELECT COALESCE(v.version, 0) FROM User u LEFT JOIN UserDataVersion v ON v.userId = u.id " +
+            "WHERE u.id = :userId")
+    Optional<Long> findVersionOfUser(@Param("userId") Long userId);
+
+    /** The user's version, locked until the transaction ends so no other writer moves it; empty before the first write. */
+    @Query(value = "SELECT version FROM user_data_version WHERE user_id = :userId FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockVersion(@Param("userId") Long userId);
+}
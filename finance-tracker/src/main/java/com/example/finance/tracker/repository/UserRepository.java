@@ -1,10 +1,39 @@
 package com.example.finance.tracker.repository;
 
 import com.example.finance.tracker.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
+
+    @Query("SELECT u.id FROM User u")
+    List<Long> findAllIds();
+
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    Set<Long> findExistingIds(Collection<Long> ids);
+
+    List<User> findAllByOrderByIdDesc();
+
+    List<User> findByOrderByIdDesc(Limit limit);
+
+    List<User> findByIdLessThanOrderByIdDesc(Long id, Limit limit);
+
+    /**
+     * Whether the user exists, answered through {@link #findById} so that a
+     * user held in the second-level cache costs no round-trip; an unknown id
+     * still costs one query. Unlike {@link #existsById}, which always counts
+     * in the database, this loads the user into the current persistence
+     * context, and into the cache on a miss. Use it for the existence checks
+     * in front of reads and writes that only need the id afterwards.
+     */
+    default boolean isKnownUser(Long id) {
+        return id != null && findById(id).isPresent();
+    }
 }
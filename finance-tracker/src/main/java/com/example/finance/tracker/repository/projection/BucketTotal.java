@@ -0,0 +1,7 @@
+package com.example.finance.tracker.repository.projection;
+
+import java.time.LocalDate;
+
+/** Income and expense sums, in cents, of one time bucket starting at {@code start}. */
+public record BucketTotal(LocalDate start, Long incomeCents, Long expenseCents) {
+}
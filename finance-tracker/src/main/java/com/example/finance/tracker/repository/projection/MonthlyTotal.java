@@ -0,0 +1,8 @@
+package com.example.finance.tracker.repository.projection;
+
+/**
+ * Sum, in cents, and number of amounts for one (year, month, key) group, where
+ * key is an expense category or an income source.
+ */
+public record MonthlyTotal(Integer year, Integer month, String key, Long totalCents, Long count) {
+}
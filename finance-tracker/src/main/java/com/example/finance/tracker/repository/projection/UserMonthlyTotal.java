@@ -0,0 +1,12 @@
+package com.example.finance.tracker.repository.projection;
+
+/**
+ * A {@link MonthlyTotal} together with the user it belongs to, for reads that
+ * span several users.
+ */
+public record UserMonthlyTotal(Long userId, Integer year, Integer month, String key, Long totalCents, Long count) {
+
+    public MonthlyTotal monthlyTotal() {
+        return new MonthlyTotal(year, month, key, totalCents, count);
+    }
+}
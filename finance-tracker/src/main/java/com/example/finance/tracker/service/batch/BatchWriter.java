@@ -0,0 +1,120 @@
+package com.example.finance.tracker.service.batch;
+
+import com.example.finance.tracker.dto.BatchItemResultDTO;
+import com.example.finance.tracker.dto.BatchResultDTO;
+import com.example.finance.tracker.entity.User;
+import com.example.finance.tracker.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Validates and inserts a batch of DTOs in the caller's transaction. Users are
+ * checked with one query for the whole batch, and entities are persisted and
+ * flushed in chunks matching {@code hibernate.jdbc.batch_size} so each chunk
+ * goes to the database as a single JDBC batch.
+ */
+@Component
+@RequiredArgsConstructor
+public class BatchWriter {
+    public static final int MAX_BATCH_SIZE = 10_000;
+    static final int FLUSH_SIZE = 500;
+
+    private final Validator validator;
+    private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private static final Logger logger = LoggerFactory.getLogger(BatchWriter.class);
+
+    /**
+     * @param toEntity  builds an unsaved entity from a valid DTO and its user
+     * @param idOf      reads the generated id back after the insert
+     * @param onWritten receives every stored entity, e.g. to update rollups
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public <D, E> BatchResultDTO write(List<D> items, Function<D, Long> userIdOf,
+                                       BiFunction<D, User, E> toEntity, Function<E, Long> idOf,
+                                       Consumer<List<E>> onWritten) {
+        Set<Long> knownUsers = existingUsers(items.stream().filter(Objects::nonNull).map(userIdOf).filter(Objects::nonNull).collect(Collectors.toSet()));
+        Map<Long, User> users = new HashMap<>();
+        List<BatchItemResultDTO> results = new ArrayList<>(items.size());
+        List<E> written = new ArrayList<>(items.size());
+        List<BatchItemResultDTO> pending = new ArrayList<>(items.size());
+
+        for (int i = 0; i < items.size(); i++) {
+            D item = items.get(i);
+            List<String> errors = validate(item, userIdOf, knownUsers);
+            if (!errors.isEmpty()) {
+                results.add(BatchItemResultDTO.builder()
+                        .index(i).status(BatchItemResultDTO.Status.REJECTED).errors(errors).build());
+                continue;
+            }
+            User user = users.computeIfAbsent(userIdOf.apply(item), userRepository::getReferenceById);
+            E entity = toEntity.apply(item, user);
+            entityManager.persist(entity);
+            written.add(entity);
+            BatchItemResultDTO result = BatchItemResultDTO.builder()
+                    .index(i).status(BatchItemResultDTO.Status.CREATED).errors(List.of()).build();
+            pending.add(result);
+            results.add(result);
+            if (written.size() % FLUSH_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        for (int i = 0; i < written.size(); i++) {
+            pending.get(i).setId(idOf.apply(written.get(i)));
+        }
+        onWritten.accept(written);
+        logger.info("Batch stored {} of {} items", written.size(), items.size());
+        return BatchResultDTO.builder()
+                .created(written.size())
+                .rejected(items.size() - written.size())
+                .results(results)
+                .build();
+    }
+
+    private Set<Long> existingUsers(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return userRepository.findExistingIds(userIds);
+    }
+
+    private <D> List<String> validate(D item, Function<D, Long> userIdOf, Set<Long> knownUsers) {
+        if (item == null) {
+            return List.of("Item must not be null");
+        }
+        Long userId = userIdOf.apply(item);
+        List<String> errors = new ArrayList<>();
+        for (ConstraintViolation<D> violation : validator.validate(item)) {
+            errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        if (userId == null) {
+            errors.add("userId: User ID is required");
+        } else if (!knownUsers.contains(userId)) {
+            errors.add("userId: User not found with ID: " + userId);
+        }
+        return errors;
+    }
+}
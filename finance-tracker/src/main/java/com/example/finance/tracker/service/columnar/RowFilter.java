@@ -0,0 +1,29 @@
+package com.example.finance.tracker.service.columnar;
+
+import com.example.finance.tracker.money.Money;
+import com.example.finance.tracker.service.filter.TransactionFilter;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * A {@link TransactionFilter} in the units of {@link TransactionColumns}: the
+ * inclusive date bounds as epoch days, the category/source as its label id and
+ * the amount bounds in cents, rounded the same way as the SQL predicates.
+ */
+public record RowFilter(int fromDay, int toDay, int label, long minCents, long maxCents) {
+    /** Label value matching every row. */
+    public static final int ANY_LABEL = Integer.MIN_VALUE;
+
+    public static RowFilter of(TransactionFilter filter, String key, ToIntFunction<String> labelIds) {
+        return new RowFilter(
+                filter.from() == null ? Integer.MIN_VALUE : Math.toIntExact(filter.from().toEpochDay()),
+                filter.to() == null ? Integer.MAX_VALUE : Math.toIntExact(filter.to().toEpochDay()),
+                key == null ? ANY_LABEL : labelIds.applyAsInt(key),
+                filter.minAmount() == null ? Long.MIN_VALUE : Money.ceilCents(filter.minAmount()),
+                filter.maxAmount() == null ? Long.MAX_VALUE : Money.floorCents(filter.maxAmount()));
+    }
+
+    boolean matches(int rowLabel, long rowCents) {
+        return (label == ANY_LABEL || label == rowLabel) && rowCents >= minCents && rowCents <= maxCents;
+    }
+}
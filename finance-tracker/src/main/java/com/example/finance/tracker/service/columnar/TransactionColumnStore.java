@@ -0,0 +1,326 @@
+package com.example.finance.tracker.service.columnar;
+
+import com.example.finance.tracker.dto.ColumnUsageDTO;
+import com.example.finance.tracker.dto.ExpenseDTO;
+import com.example.finance.tracker.dto.IncomeDTO;
+import com.example.finance.tracker.dto.StatsDTO;
+import com.example.finance.tracker.entity.Expense;
+import com.example.finance.tracker.entity.Income;
+import com.example.finance.tracker.money.Money;
+import com.example.finance.tracker.repository.TransactionColumnQueries;
+import com.example.finance.tracker.repository.UserDataVersionRepository;
+import com.example.finance.tracker.service.event.UserDataChangedEvent;
+import com.example.finance.tracker.service.filter.TransactionFilter;
+import com.example.finance.tracker.service.label.LabelDictionary;
+import com.example.finance.tracker.service.stats.StatsAssembler;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Optional in-process copy of active users' transactions as
+ * {@link TransactionColumns}, so stats and filtered listings scan arrays
+ * instead of querying PostgreSQL. Off unless
+ * {@code finance.column-store.enabled=true}; when off, or when a user's
+ * columns are not at the current data version, every method returns empty and
+ * callers use their SQL path.
+ * <p>
+ * A user is loaded on first access and evicted, least recently used first,
+ * once the estimated bytes of all loaded users pass
+ * {@code finance.column-store.max-size}.
+ * <p>
+ * Each user's columns carry the data version they reflect. The expense and
+ * income write paths record the rows they add and remove; after the
+ * transaction commits, those changes are applied to columns that were at the
+ * version the transaction started from, and the result is tagged with the
+ * version it committed. The first change to a resident user locks the
+ * version row, so no other writer moves it in between. Any other write, such
+ * as an import or a rollup rebuild, publishes a {@link UserDataChangedEvent}
+ * without recording rows, and the user is dropped and reloaded on next access.
+ */
+@Component
+public class TransactionColumnStore implements MeterBinder {
+    private final boolean enabled;
+    private final long maxBytes;
+    private final AsyncCache<Long, UserColumns> cache;
+    private final TransactionColumnQueries transactionColumnQueries;
+    private final UserDataVersionRepository userDataVersionRepository;
+    private final LabelDictionary labelDictionary;
+    private static final Logger logger = LoggerFactory.getLogger(TransactionColumnStore.class);
+
+    public TransactionColumnStore(@Value("${finance.column-store.enabled:false}") boolean enabled,
+                                  @Value("${finance.column-store.max-size:256MB}") DataSize maxSize,
+                                  TransactionColumnQueries transactionColumnQueries,
+                                  UserDataVersionRepository userDataVersionRepository,
+                                  LabelDictionary labelDictionary) {
+        this.enabled = enabled;
+        this.maxBytes = maxSize.toBytes();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Long userId, UserColumns columns) -> (int) Math.min(Integer.MAX_VALUE, columns.bytes()))
+                .recordStats()
+                .buildAsync();
+        this.transactionColumnQueries = transactionColumnQueries;
+        this.userDataVersionRepository = userDataVersionRepository;
+        this.labelDictionary = labelDictionary;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    /** Stats over the user's rows matching the filter, at the current data version. */
+    public Optional<StatsDTO> stats(Long userId, TransactionFilter filter) {
+        return currentVersion(userId).flatMap(version -> stats(userId, version, filter));
+    }
+
+    /** Stats over the user's rows matching the filter, if the columns are at {@code version}. */
+    public Optional<StatsDTO> stats(Long userId, long version, TransactionFilter filter) {
+        return current(userId, version).map(columns -> StatsAssembler.build(userId,
+                columns.income().sumByMonth(rowFilter(filter, filter.source()), labelDictionary::nameOf),
+                columns.expenses().sumByMonth(rowFilter(filter, filter.category()), labelDictionary::nameOf)));
+    }
+
+    public Optional<List<ExpenseDTO>> expenses(Long userId, TransactionFilter filter) {
+        return currentVersion(userId).flatMap(version -> current(userId, version)).map(columns ->
+                columns.expenses().newestFirst(rowFilter(filter, filter.category()),
+                        (id, day, cents, label, title, description) -> new ExpenseDTO(id, title, description,
+                                LocalDate.ofEpochDay(day), labelDictionary.nameOf(label), Money.toAmount(cents), userId)));
+    }
+
+    public Optional<List<IncomeDTO>> income(Long userId, TransactionFilter filter) {
+        return currentVersion(userId).flatMap(version -> current(userId, version)).map(columns ->
+                columns.income().newestFirst(rowFilter(filter, filter.source()),
+                        (id, day, cents, label, title, description) -> new IncomeDTO(id, labelDictionary.nameOf(label),
+                                description, LocalDate.ofEpochDay(day), Money.toAmount(cents), userId)));
+    }
+
+    public void expenseAdded(Expense expense) {
+        if (enabled) {
+            changes(expense.getUser().getId()).expenses.add(row(expense.getId(), expense.getDate(),
+                    expense.getAmountCents(), expense.getCategory(), expense.getTitle(), expense.getDescription()));
+        }
+    }
+
+    public void expensesAdded(List<Expense> expenses) {
+        expenses.forEach(this::expenseAdded);
+    }
+
+    public void expenseRemoved(Expense expense) {
+        if (enabled) {
+            changes(expense.getUser().getId()).expenses.remove(expense.getId());
+        }
+    }
+
+    public void incomeAdded(Income income) {
+        if (enabled) {
+            changes(income.getUser().getId()).income.add(row(income.getId(), income.getDate(),
+                    income.getAmountCents(), income.getSource(), null, income.getDescription()));
+        }
+    }
+
+    public void incomesAdded(List<Income> incomes) {
+        incomes.forEach(this::incomeAdded);
+    }
+
+    public void incomeRemoved(Income income) {
+        if (enabled) {
+            changes(income.getUser().getId()).income.remove(income.getId());
+        }
+    }
+
+    /**
+     * Runs before the listener that bumps the version, so the version read
+     * here is the one the transaction started from.
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onUserDataChanged(UserDataChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            cache.synchronous().invalidate(event.userId());
+            return;
+        }
+        Pending pending = pendingChanges().computeIfAbsent(event.userId(), userId -> new Pending());
+        if (pending.bumps++ == 0 && isResident(event.userId())) {
+            pending.before = userDataVersionRepository.lockVersion(event.userId()).orElse(-1L);
+        }
+    }
+
+    /** Loaded users, largest first. */
+    public List<ColumnUsageDTO> usage() {
+        List<ColumnUsageDTO> usage = new ArrayList<>();
+        cache.synchronous().asMap().forEach((userId, columns) -> usage.add(ColumnUsageDTO.builder()
+                .userId(userId)
+                .version(columns.version())
+                .expenses(columns.expenses().size())
+                .incomes(columns.income().size())
+                .bytes(columns.bytes())
+                .build()));
+        usage.sort(Comparator.comparingLong(ColumnUsageDTO::getBytes).reversed());
+        return usage;
+    }
+
+    public long usedBytes() {
+        return cache.synchronous().policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "columns");
+        Gauge.builder("finance.column.store.bytes", this, TransactionColumnStore::usedBytes)
+                .description("Estimated heap held by loaded transaction columns")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /**
+     * The user's columns if they are at {@code version}. A missing user is
+     * loaded on this thread while concurrent callers wait on its future, and
+     * columns left behind by a write that recorded no rows are reloaded.
+     */
+    private Optional<UserColumns> current(Long userId, long version) {
+        if (!enabled || version < 0) {
+            return Optional.empty();
+        }
+        for (int attempt = 0; attempt < 2; attempt++) {
+            CompletableFuture<UserColumns> loading = new CompletableFuture<>();
+            CompletableFuture<UserColumns> cached = cache.get(userId, (key, executor) -> loading);
+            if (cached == loading) {
+                load(userId, loading);
+            }
+            UserColumns columns;
+            try {
+                columns = cached.join();
+            } catch (CompletionException e) {
+                logger.warn("Could not load columns for user ID {}", userId, e.getCause());
+                return Optional.empty();
+            }
+            if (columns.version() == version) {
+                return Optional.of(columns);
+            }
+            if (columns.version() > version) {
+                return Optional.empty();
+            }
+            cache.asMap().remove(userId, cached);
+        }
+        return Optional.empty();
+    }
+
+    private void load(Long userId, CompletableFuture<UserColumns> loading) {
+        try {
+            long started = System.nanoTime();
+            UserColumns columns = transactionColumnQueries.load(userId);
+            logger.debug("Loaded {} expenses and {} incomes for user ID {} at version {} in {} ms",
+                    columns.expenses().size(), columns.income().size(), userId, columns.version(),
+                    (System.nanoTime() - started) / 1_000_000);
+            loading.complete(columns);
+        } catch (RuntimeException | Error e) {
+            loading.completeExceptionally(e);
+        }
+    }
+
+    private Optional<Long> currentVersion(Long userId) {
+        return enabled ? userDataVersionRepository.findVersionOfUser(userId) : Optional.empty();
+    }
+
+    private boolean isResident(Long userId) {
+        CompletableFuture<UserColumns> cached = cache.getIfPresent(userId);
+        return cached != null && cached.isDone() && !cached.isCompletedExceptionally();
+    }
+
+    private RowFilter rowFilter(TransactionFilter filter, String key) {
+        return RowFilter.of(filter, key, labelDictionary::idOf);
+    }
+
+    private TransactionColumns.Row row(Long id, LocalDate date, Long amountCents, String label,
+                                       String title, String description) {
+        return new TransactionColumns.Row(id, Math.toIntExact(date.toEpochDay()), amountCents,
+                labelDictionary.idOf(label), title, description);
+    }
+
+    private Pending changes(Long userId) {
+        return pendingChanges().computeIfAbsent(userId, id -> new Pending());
+    }
+
+    /** Changes recorded by the current transaction, applied after it commits. */
+    @SuppressWarnings("unchecked")
+    private Map<Long, Pending> pendingChanges() {
+        Map<Long, Pending> pending = (Map<Long, Pending>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<Long, Pending> changes = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    changes.forEach(TransactionColumnStore.this::committed);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TransactionColumnStore.this);
+                }
+            });
+            pending = changes;
+        }
+        return pending;
+    }
+
+    private void committed(Long userId, Pending pending) {
+        long after = pending.before + pending.bumps;
+        cache.asMap().computeIfPresent(userId, (id, cached) -> {
+            if (!cached.isDone() || cached.isCompletedExceptionally()) {
+                return null;
+            }
+            UserColumns columns = cached.join();
+            if (pending.before >= 0 && columns.version() == pending.before && pending.hasRows()) {
+                return CompletableFuture.completedFuture(columns.apply(pending.expenses, pending.income, after));
+            }
+            return columns.version() == after && pending.before >= 0 ? cached : null;
+        });
+    }
+
+    /** What one transaction did to one user. */
+    private static final class Pending {
+        /** Version before the transaction, or -1 when the user was not loaded at its first change. */
+        long before = -1;
+        int bumps;
+        final TransactionColumns.Changes expenses = new TransactionColumns.Changes();
+        final TransactionColumns.Changes income = new TransactionColumns.Changes();
+
+        boolean hasRows() {
+            return !expenses.isEmpty() || !income.isEmpty();
+        }
+    }
+}
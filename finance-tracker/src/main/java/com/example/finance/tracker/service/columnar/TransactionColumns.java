@@ -0,0 +1,331 @@
+package com.example.finance.tracker.service.columnar;
+
+import com.example.finance.tracker.repository.projection.MonthlyTotal;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * One user's expenses or income as parallel primitive arrays, sorted by
+ * (date, id): the date as an epoch day, the amount in cents and the
+ * category/source as its label id, plus the title and description for
+ * listings. A date range is found by binary search and the rows in it are
+ * scanned without touching the database or allocating per row.
+ * <p>
+ * An instance never changes the rows below its {@link #size()}, so it can be
+ * read from any thread. {@link #apply} returns a new instance; rows that sort
+ * after the last one are written into spare capacity past {@code size} and
+ * share the arrays, anything else copies them. Because of that sharing, only
+ * the latest instance of a user's rows may be applied to.
+ */
+public final class TransactionColumns {
+    public static final TransactionColumns EMPTY = new Builder().build();
+
+    private static final Comparator<Row> ORDER = Comparator.comparingInt(Row::day).thenComparingLong(Row::id);
+    // Array headers, and the bytes per row of the six columns with compressed references.
+    private static final long HEADER_BYTES = 6 * 16;
+    private static final long ROW_BYTES = 8 + 4 + 8 + 4 + 4 + 4;
+
+    private final int size;
+    private final long[] ids;
+    private final int[] days;
+    private final long[] cents;
+    private final int[] labels;
+    private final String[] titles;
+    private final String[] descriptions;
+    private final long stringBytes;
+
+    private TransactionColumns(int size, long[] ids, int[] days, long[] cents, int[] labels,
+                               String[] titles, String[] descriptions, long stringBytes) {
+        this.size = size;
+        this.ids = ids;
+        this.days = days;
+        this.cents = cents;
+        this.labels = labels;
+        this.titles = titles;
+        this.descriptions = descriptions;
+        this.stringBytes = stringBytes;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Estimated heap held: the arrays at their capacity plus each distinct string once. */
+    public long bytes() {
+        return HEADER_BYTES + ids.length * ROW_BYTES + stringBytes;
+    }
+
+    /** Matching rows, newest first, in the order the SQL listings return them. */
+    public <T> List<T> newestFirst(RowFilter filter, RowMapper<T> mapper) {
+        List<T> rows = new ArrayList<>();
+        for (int i = upperBound(filter.toDay()) - 1, first = lowerBound(filter.fromDay()); i >= first; i--) {
+            if (filter.matches(labels[i], cents[i])) {
+                rows.add(mapper.map(ids[i], days[i], cents[i], labels[i], titles[i], descriptions[i]));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Matching rows summed per (month, label), the same groups the SQL
+     * {@code sumByMonth} queries return. Rows arrive in date order, so each
+     * month is folded into a per-label array and flushed when the next month
+     * starts.
+     */
+    public List<MonthlyTotal> sumByMonth(RowFilter filter, IntFunction<String> labelNames) {
+        List<MonthlyTotal> totals = new ArrayList<>();
+        long[] sums = new long[16];
+        long[] counts = new long[16];
+        int[] touched = new int[16];
+        int touchedCount = 0;
+        int year = 0;
+        int month = 0;
+        long nextMonth = Long.MIN_VALUE;
+        for (int i = lowerBound(filter.fromDay()), last = upperBound(filter.toDay()); i < last; i++) {
+            int label = labels[i];
+            if (!filter.matches(label, cents[i])) {
+                continue;
+            }
+            if (days[i] >= nextMonth) {
+                flush(totals, year, month, sums, counts, touched, touchedCount, labelNames);
+                touchedCount = 0;
+                LocalDate date = LocalDate.ofEpochDay(days[i]);
+                year = date.getYear();
+                month = date.getMonthValue();
+                nextMonth = date.withDayOfMonth(1).plusMonths(1).toEpochDay();
+            }
+            if (label >= sums.length) {
+                int length = Math.max(label + 1, sums.length * 2);
+                sums = Arrays.copyOf(sums, length);
+                counts = Arrays.copyOf(counts, length);
+            }
+            if (counts[label] == 0) {
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, touchedCount * 2);
+                }
+                touched[touchedCount++] = label;
+            }
+            sums[label] += cents[i];
+            counts[label]++;
+        }
+        flush(totals, year, month, sums, counts, touched, touchedCount, labelNames);
+        return totals;
+    }
+
+    private static void flush(List<MonthlyTotal> totals, int year, int month, long[] sums, long[] counts,
+                              int[] touched, int touchedCount, IntFunction<String> labelNames) {
+        for (int t = 0; t < touchedCount; t++) {
+            int label = touched[t];
+            totals.add(new MonthlyTotal(year, month, labelNames.apply(label), sums[label], counts[label]));
+            sums[label] = 0;
+            counts[label] = 0;
+        }
+    }
+
+    /** Rows without the removed ids, plus the added ones. */
+    public TransactionColumns apply(Changes changes) {
+        if (changes.isEmpty()) {
+            return this;
+        }
+        List<Row> added = new ArrayList<>(changes.added.values());
+        added.sort(ORDER);
+        if (changes.removed.isEmpty() && (size == 0 || sortsBefore(size - 1, added.get(0)))) {
+            return append(added);
+        }
+        int capacity = size + added.size();
+        long[] newIds = new long[capacity];
+        int[] newDays = new int[capacity];
+        long[] newCents = new long[capacity];
+        int[] newLabels = new int[capacity];
+        String[] newTitles = new String[capacity];
+        String[] newDescriptions = new String[capacity];
+        int count = 0;
+        int next = 0;
+        for (int i = 0; i < size; i++) {
+            if (changes.removed.contains(ids[i]) || changes.added.containsKey(ids[i])) {
+                continue;
+            }
+            for (; next < added.size() && !sortsBefore(i, added.get(next)); next++, count++) {
+                set(added.get(next), count, newIds, newDays, newCents, newLabels, newTitles, newDescriptions);
+            }
+            newIds[count] = ids[i];
+            newDays[count] = days[i];
+            newCents[count] = cents[i];
+            newLabels[count] = labels[i];
+            newTitles[count] = titles[i];
+            newDescriptions[count] = descriptions[i];
+            count++;
+        }
+        for (; next < added.size(); next++, count++) {
+            set(added.get(next), count, newIds, newDays, newCents, newLabels, newTitles, newDescriptions);
+        }
+        return new TransactionColumns(count, newIds, newDays, newCents, newLabels, newTitles, newDescriptions,
+                stringBytes + stringBytes(added));
+    }
+
+    /** Writes past {@code size}, which no existing instance reads, growing the arrays only when they are full. */
+    private TransactionColumns append(List<Row> added) {
+        int newSize = size + added.size();
+        long[] newIds = ids;
+        int[] newDays = days;
+        long[] newCents = cents;
+        int[] newLabels = labels;
+        String[] newTitles = titles;
+        String[] newDescriptions = descriptions;
+        if (newSize > ids.length) {
+            int capacity = Math.max(newSize, size + (size >> 1) + 16);
+            newIds = Arrays.copyOf(ids, capacity);
+            newDays = Arrays.copyOf(days, capacity);
+            newCents = Arrays.copyOf(cents, capacity);
+            newLabels = Arrays.copyOf(labels, capacity);
+            newTitles = Arrays.copyOf(titles, capacity);
+            newDescriptions = Arrays.copyOf(descriptions, capacity);
+        }
+        for (int i = 0; i < added.size(); i++) {
+            set(added.get(i), size + i, newIds, newDays, newCents, newLabels, newTitles, newDescriptions);
+        }
+        return new TransactionColumns(newSize, newIds, newDays, newCents, newLabels, newTitles, newDescriptions,
+                stringBytes + stringBytes(added));
+    }
+
+    private static void set(Row row, int i, long[] ids, int[] days, long[] cents, int[] labels,
+                            String[] titles, String[] descriptions) {
+        ids[i] = row.id();
+        days[i] = row.day();
+        cents[i] = row.cents();
+        labels[i] = row.label();
+        titles[i] = row.title();
+        descriptions[i] = row.description();
+    }
+
+    /** Whether row {@code i} sorts before {@code row}; ids are unique, so never equal. */
+    private boolean sortsBefore(int i, Row row) {
+        return days[i] < row.day() || days[i] == row.day() && ids[i] < row.id();
+    }
+
+    /** First index whose day is on or after {@code day}. */
+    private int lowerBound(int day) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (days[mid] < day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** First index whose day is after {@code day}. */
+    private int upperBound(int day) {
+        return day == Integer.MAX_VALUE ? size : lowerBound(day + 1);
+    }
+
+    private static long stringBytes(List<Row> rows) {
+        long bytes = 0;
+        for (Row row : rows) {
+            bytes += stringBytes(row.title()) + stringBytes(row.description());
+        }
+        return bytes;
+    }
+
+    // String object plus its byte[], assuming Latin-1 compact strings.
+    private static long stringBytes(String value) {
+        return value == null ? 0 : 40 + value.length();
+    }
+
+    /** A stored row: the date as an epoch day, the amount in cents and the category/source as its label id. */
+    public record Row(long id, int day, long cents, int label, String title, String description) {
+    }
+
+    @FunctionalInterface
+    public interface RowMapper<T> {
+        T map(long id, int day, long cents, int label, String title, String description);
+    }
+
+    /** Rows added and ids removed by one transaction, in the order they happened. */
+    public static final class Changes {
+        private final Map<Long, Row> added = new LinkedHashMap<>();
+        private final Set<Long> removed = new HashSet<>();
+
+        public void add(Row row) {
+            added.put(row.id(), row);
+        }
+
+        public void remove(long id) {
+            added.remove(id);
+            removed.add(id);
+        }
+
+        public boolean isEmpty() {
+            return added.isEmpty() && removed.isEmpty();
+        }
+    }
+
+    /**
+     * Collects rows in (date, id) order, sharing repeated titles and
+     * descriptions so each distinct string is held once.
+     */
+    public static final class Builder {
+        private final Map<String, String> strings = new HashMap<>();
+        private int size;
+        private long[] ids = new long[16];
+        private int[] days = new int[16];
+        private long[] cents = new long[16];
+        private int[] labels = new int[16];
+        private String[] titles = new String[16];
+        private String[] descriptions = new String[16];
+        private long stringBytes;
+
+        public void add(long id, int day, long amountCents, int label, String title, String description) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                days = Arrays.copyOf(days, capacity);
+                cents = Arrays.copyOf(cents, capacity);
+                labels = Arrays.copyOf(labels, capacity);
+                titles = Arrays.copyOf(titles, capacity);
+                descriptions = Arrays.copyOf(descriptions, capacity);
+            }
+            ids[size] = id;
+            days[size] = day;
+            cents[size] = amountCents;
+            labels[size] = label;
+            titles[size] = shared(title);
+            descriptions[size] = shared(description);
+            size++;
+        }
+
+        private String shared(String value) {
+            if (value == null) {
+                return null;
+            }
+            String existing = strings.putIfAbsent(value, value);
+            if (existing != null) {
+                return existing;
+            }
+            stringBytes += stringBytes(value);
+            return value;
+        }
+
+        /** Trims the arrays to the rows plus a little room for appends. */
+        public TransactionColumns build() {
+            int capacity = size + (size >> 4);
+            return new TransactionColumns(size, Arrays.copyOf(ids, capacity), Arrays.copyOf(days, capacity),
+                    Arrays.copyOf(cents, capacity), Arrays.copyOf(labels, capacity), Arrays.copyOf(titles, capacity),
+                    Arrays.copyOf(descriptions, capacity), stringBytes);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.finance.tracker.service.columnar;
+
+/** A user's expense and income columns as of one data version. */
+public record UserColumns(long version, TransactionColumns expenses, TransactionColumns income) {
+
+    public long bytes() {
+        return expenses.bytes() + income.bytes();
+    }
+
+    UserColumns apply(TransactionColumns.Changes expenseChanges, TransactionColumns.Changes incomeChanges,
+                      long newVersion) {
+        return new UserColumns(newVersion, expenses.apply(expenseChanges), income.apply(incomeChanges));
+    }
+}
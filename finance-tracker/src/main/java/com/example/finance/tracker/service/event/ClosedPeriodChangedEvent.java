@@ -0,0 +1,9 @@
+package com.example.finance.tracker.service.event;
+
+/**
+ * Published inside the writing transaction, next to a
+ * {@link UserDataChangedEvent}, when the write touches a closed accounting
+ * period, so snapshots of the user's closed months are rebuilt.
+ */
+public record ClosedPeriodChangedEvent(Long userId) {
+}
@@ -0,0 +1,8 @@
+package com.example.finance.tracker.service.event;
+
+/**
+ * Published inside the writing transaction whenever a user's expenses or
+ * income change, so derived per-user state can be refreshed.
+ */
+public record UserDataChangedEvent(Long userId) {
+}
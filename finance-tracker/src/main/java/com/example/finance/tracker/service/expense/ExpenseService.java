@@ -1,7 +1,10 @@
 package com.example.finance.tracker.service.expense;
 
+import com.example.finance.tracker.dto.BatchResultDTO;
+import com.example.finance.tracker.dto.CursorPageDTO;
 import com.example.finance.tracker.dto.ExpenseDTO;
 import com.example.finance.tracker.entity.Expense;
+import com.example.finance.tracker.service.filter.TransactionFilter;
 
 import java.util.List;
 
@@ -9,10 +12,15 @@ import java.util.List;
 public interface ExpenseService {
 
     ExpenseDTO postExpense(ExpenseDTO expenseDTO);
+    BatchResultDTO postExpenses(List<ExpenseDTO> expenseDTOs);
     List<ExpenseDTO> getAllExpenses();
     ExpenseDTO getExpenseById(Long id);
     ExpenseDTO updateExpense(Long id, ExpenseDTO expenseDTO);
     void deleteExpense(Long id);
     List<ExpenseDTO> getAllExpensesByUser(Long userId);
+    List<ExpenseDTO> getAllExpensesByUser(Long userId, TransactionFilter filter);
     Double getTotalExpenseByUser(Long userId);
+    CursorPageDTO<ExpenseDTO> getExpensePage(int limit, String after);
+    CursorPageDTO<ExpenseDTO> getExpensePageByUser(Long userId, int limit, String after);
+    CursorPageDTO<ExpenseDTO> getExpensePageByUser(Long userId, int limit, String after, TransactionFilter filter);
 }
@@ -1,29 +1,49 @@
 package com.example.finance.tracker.service.expense;
 
+import com.example.finance.tracker.dto.BatchResultDTO;
+import com.example.finance.tracker.dto.CursorPageDTO;
 import com.example.finance.tracker.dto.ExpenseDTO;
 import com.example.finance.tracker.entity.Expense;
 import com.example.finance.tracker.entity.User;
 import com.example.finance.tracker.exception.ResourceNotFoundException;
 import com.example.finance.tracker.exception.UserNotFoundException;
+import com.example.finance.tracker.money.Money;
 import com.example.finance.tracker.repository.ExpenseRepository;
+import com.example.finance.tracker.repository.ExpenseRollupRepository;
+import com.example.finance.tracker.repository.TransactionDtoQueries;
 import com.example.finance.tracker.repository.UserRepository;
+import com.example.finance.tracker.service.batch.BatchWriter;
+import com.example.finance.tracker.service.columnar.TransactionColumnStore;
+import com.example.finance.tracker.service.filter.TransactionFilter;
+import com.example.finance.tracker.service.filter.TransactionSpecifications;
+import com.example.finance.tracker.service.pagination.KeysetCursor;
+import com.example.finance.tracker.service.rollup.RollupService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 public class ExpenseServiceImpl implements ExpenseService{
     private final ExpenseRepository expenseRepository;
     private final UserRepository userRepository;
+    private final ExpenseRollupRepository expenseRollupRepository;
+    private final TransactionDtoQueries transactionDtoQueries;
+    private final RollupService rollupService;
+    private final BatchWriter batchWriter;
+    private final TransactionColumnStore transactionColumnStore;
     private static final Logger logger = LoggerFactory.getLogger(ExpenseServiceImpl.class);
     @Override
+    @Transactional
     public ExpenseDTO postExpense(ExpenseDTO expenseDTO){
         logger.info("Posting new expense for user ID:{}",expenseDTO.getUserId());
         Expense savedExpense = saveOrUpdateExpense(new Expense(), expenseDTO);
@@ -32,43 +52,68 @@ public class ExpenseServiceImpl implements ExpenseService{
     }
     private Expense saveOrUpdateExpense(Expense expense, ExpenseDTO expenseDTO){
         logger.debug("Filling new DTO fields for ExpenseDTO: {}",expenseDTO.getId());
-        if (expenseDTO.getDate() == null || expenseDTO.getAmount() < 0) {
-            throw new IllegalArgumentException("Invalid input: source must not be null and amount must be non-negative.");
+        if (expenseDTO.getDate() == null || expenseDTO.getCategory() == null || expenseDTO.getCategory().isBlank()
+                || expenseDTO.getAmount() == null || expenseDTO.getAmount() < 0) {
+            throw new IllegalArgumentException("Invalid input: date and category are required and amount must be non-negative.");
         }
+        if (expense.getId() != null) {
+            rollupService.removeExpense(expense.getUser().getId(), expense.getDate(), expense.getCategory(), expense.getAmountCents());
+            transactionColumnStore.expenseRemoved(expense);
+        }
+        copyFields(expense, expenseDTO);
+        if (!userRepository.isKnownUser(expenseDTO.getUserId())) {
+            logger.error("User with ID {}  not found",expenseDTO.getUserId());
+            throw new UserNotFoundException(expenseDTO.getUserId());
+        }
+        User user = userRepository.getReferenceById(expenseDTO.getUserId());
+        expense.setUser(user);
+        rollupService.addExpense(user.getId(), expense.getDate(), expense.getCategory(), expense.getAmountCents());
+        logger.debug("Saving expense to repository...");
+        Expense saved = expenseRepository.save(expense);
+        transactionColumnStore.expenseAdded(saved);
+        return saved;
+    }
+    private static void copyFields(Expense expense, ExpenseDTO expenseDTO){
         expense.setTitle(expenseDTO.getTitle());
         expense.setDate(expenseDTO.getDate());
-        expense.setAmount(expenseDTO.getAmount());
+        expense.setAmountCents(Money.toCents(expenseDTO.getAmount()));
         expense.setDescription(expenseDTO.getDescription());
         expense.setCategory(expenseDTO.getCategory());
-        User user = userRepository.findById(expenseDTO.getUserId())
-                .orElseThrow(() -> {
-                    logger.error("User with ID {}  not found",expenseDTO.getUserId());
-                    return new UserNotFoundException(expenseDTO.getUserId());
-                });
-        expense.setUser(user);
-        logger.debug("Saving expense to repository...");
-        return expenseRepository.save(expense);
     }
     @Override
+    @Transactional
+    public BatchResultDTO postExpenses(List<ExpenseDTO> expenseDTOs){
+        logger.info("Posting batch of {} expenses", expenseDTOs.size());
+        return batchWriter.write(expenseDTOs, ExpenseDTO::getUserId, (dto, user) -> {
+            Expense expense = new Expense();
+            copyFields(expense, dto);
+            expense.setUser(user);
+            return expense;
+        }, Expense::getId, written -> {
+            rollupService.addExpenses(written);
+            transactionColumnStore.expensesAdded(written);
+        });
+    }
+    @Override
+    @Transactional(readOnly = true)
     public List<ExpenseDTO> getAllExpenses(){
         logger.info("Getting all expenses...");
-        return expenseRepository.findAll().stream()
-                .sorted(Comparator.comparing(Expense::getDate).reversed())
-                .map(Expense::getExpenseDto)
-                .collect(Collectors.toList());
+        return expenseRepository.findAllNewestFirst();
     }
     @Override
+    @Transactional(readOnly = true)
     public ExpenseDTO getExpenseById(Long id){
 
-        Optional<Expense> optionalExpense = expenseRepository.findById(id);
+        Optional<ExpenseDTO> optionalExpense = expenseRepository.findDtoById(id);
         if(optionalExpense.isPresent()){
             logger.info("Getting expense with ID {}...",id);
-            return optionalExpense.get().getExpenseDto();
+            return optionalExpense.get();
         }else{
             throw new ResourceNotFoundException(id);
         }
     }
     @Override
+    @Transactional
     public ExpenseDTO updateExpense(Long id, ExpenseDTO expenseDTO){
         Optional<Expense> optionalExpense = expenseRepository.findById(id);
         logger.info("Updating expense with ID {}...",expenseDTO.getId());
@@ -79,35 +124,93 @@ public class ExpenseServiceImpl implements ExpenseService{
         }
     }
     @Override
+    @Transactional
     public void deleteExpense(Long id) {
-        if (!expenseRepository.existsById(id)) {
-            logger.error("Expense with ID {} not found",id);
-            throw new ResourceNotFoundException(id);
-        }
+        Expense expense = expenseRepository.findById(id)
+                .orElseThrow(() -> {
+                    logger.error("Expense with ID {} not found",id);
+                    return new ResourceNotFoundException(id);
+                });
         logger.info("Deleting expense with ID {}...",id);
+        rollupService.removeExpense(expense.getUser().getId(), expense.getDate(), expense.getCategory(), expense.getAmountCents());
+        transactionColumnStore.expenseRemoved(expense);
         expenseRepository.deleteById(id);
     }
     @Override
+    @Transactional(readOnly = true)
     public List<ExpenseDTO> getAllExpensesByUser(Long userId) {
-        if (!userRepository.existsById(userId)) {
+        return getAllExpensesByUser(userId, TransactionFilter.NONE);
+    }
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public List<ExpenseDTO> getAllExpensesByUser(Long userId, TransactionFilter filter) {
+        if (!userRepository.isKnownUser(userId)) {
             logger.error("Cannot get all expenses for User with ID {}", userId);
             throw new UserNotFoundException(userId);
         }
+        if (!filter.matchesAll()) {
+            logger.info("Getting expenses for user with ID {} matching {}", userId, filter);
+            return transactionColumnStore.expenses(userId, filter).orElseGet(() ->
+                    transactionDtoQueries.findExpenses(TransactionSpecifications.expenses(userId, filter), Limit.unlimited()));
+        }
         logger.info("Getting expenses for user with ID {}",userId);
-        return expenseRepository.findAllByUserId(userId).stream()
-                .sorted(Comparator.comparing(Expense::getDate).reversed())
-                .map(Expense::getExpenseDto)
-                .collect(Collectors.toList());
+        return expenseRepository.findAllByUserId(userId);
     }
     @Override
+    @Transactional(readOnly = true)
     public Double getTotalExpenseByUser(Long userId) {
 
-        if (!userRepository.existsById(userId)) {
+        if (!userRepository.isKnownUser(userId)) {
             logger.error("Cannot get total expenses. User with ID {} was not found", userId);
             throw new UserNotFoundException(userId);
         }
         logger.info("Getting total expenses for user with ID {}",userId);
-        return Optional.ofNullable(expenseRepository.getTotalExpenseByUserId(userId)).orElse(0.0);
+        return Money.toAmount(Optional.ofNullable(expenseRollupRepository.getTotalByUserId(userId)).orElse(0L));
+    }
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ExpenseDTO> getExpensePage(int limit, String after) {
+        int pageSize = KeysetCursor.clampPageSize(limit);
+        logger.info("Getting page of {} expenses after cursor {}", pageSize, after);
+        Limit fetch = Limit.of(pageSize + 1);
+        List<ExpenseDTO> rows;
+        if (after == null) {
+            rows = expenseRepository.findFirstPage(fetch);
+        } else {
+            KeysetCursor cursor = KeysetCursor.decode(after, true);
+            rows = expenseRepository.findPageAfter(cursor.date(), cursor.id(), fetch);
+        }
+        return KeysetCursor.page(rows, pageSize, e -> new KeysetCursor(e.getDate(), e.getId()), Function.identity());
+    }
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ExpenseDTO> getExpensePageByUser(Long userId, int limit, String after) {
+        return getExpensePageByUser(userId, limit, after, TransactionFilter.NONE);
+    }
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ExpenseDTO> getExpensePageByUser(Long userId, int limit, String after, TransactionFilter filter) {
+        if (!userRepository.isKnownUser(userId)) {
+            logger.error("Cannot get expenses for User with ID {}", userId);
+            throw new UserNotFoundException(userId);
+        }
+        int pageSize = KeysetCursor.clampPageSize(limit);
+        logger.info("Getting page of {} expenses for user with ID {} after cursor {}", pageSize, userId, after);
+        Limit fetch = Limit.of(pageSize + 1);
+        List<ExpenseDTO> rows;
+        if (!filter.matchesAll()) {
+            Specification<Expense> spec = TransactionSpecifications.expenses(userId, filter);
+            if (after != null) {
+                spec = spec.and(TransactionSpecifications.after(KeysetCursor.decode(after, true)));
+            }
+            rows = transactionDtoQueries.findExpenses(spec, fetch);
+        } else if (after == null) {
+            rows = expenseRepository.findFirstPageByUserId(userId, fetch);
+        } else {
+            KeysetCursor cursor = KeysetCursor.decode(after, true);
+            rows = expenseRepository.findPageByUserIdAfter(userId, cursor.date(), cursor.id(), fetch);
+        }
+        return KeysetCursor.page(rows, pageSize, e -> new KeysetCursor(e.getDate(), e.getId()), Function.identity());
     }
 
 }
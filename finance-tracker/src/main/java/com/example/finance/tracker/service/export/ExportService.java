@@ -0,0 +1,8 @@
+package com.example.finance.tracker.service.export;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+public interface ExportService {
+    StreamingResponseBody exportExpenses(Long userId, ExportFormat format, boolean gzip);
+    StreamingResponseBody exportIncome(Long userId, ExportFormat format, boolean gzip);
+}
@@ -0,0 +1,176 @@
+package com.example.finance.tracker.service.export;
+
+import com.example.finance.tracker.concurrency.DatabaseConcurrencyLimiter;
+import com.example.finance.tracker.datasource.ReadRouting;
+import com.example.finance.tracker.dto.ExpenseDTO;
+import com.example.finance.tracker.dto.IncomeDTO;
+import com.example.finance.tracker.entity.Expense;
+import com.example.finance.tracker.entity.Income;
+import com.example.finance.tracker.exception.UserNotFoundException;
+import com.example.finance.tracker.repository.ExpenseRepository;
+import com.example.finance.tracker.repository.IncomeRepository;
+import com.example.finance.tracker.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams a user's full history straight from a database cursor to the
+ * response. Rows are written and detached one at a time, so heap use does not
+ * grow with the size of the history.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExportServiceImpl implements ExportService {
+    private static final List<String> EXPENSE_COLUMNS =
+            List.of("id", "date", "title", "description", "category", "amount", "userId");
+    private static final List<String> INCOME_COLUMNS =
+            List.of("id", "date", "source", "description", "amount", "userId");
+
+    private final ExpenseRepository expenseRepository;
+    private final IncomeRepository incomeRepository;
+    private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final DatabaseConcurrencyLimiter databaseConcurrencyLimiter;
+    private static final Logger logger = LoggerFactory.getLogger(ExportServiceImpl.class);
+
+    @Override
+    public StreamingResponseBody exportExpenses(Long userId, ExportFormat format, boolean gzip) {
+        requireUser(userId);
+        logger.info("Exporting expenses for user with ID {} as {}", userId, format);
+        return out -> export(out, userId, gzip, format, EXPENSE_COLUMNS,
+                () -> expenseRepository.streamAllByUserId(userId), Expense::getExpenseDto, ExportServiceImpl::expenseRow);
+    }
+
+    @Override
+    public StreamingResponseBody exportIncome(Long userId, ExportFormat format, boolean gzip) {
+        requireUser(userId);
+        logger.info("Exporting income for user with ID {} as {}", userId, format);
+        return out -> export(out, userId, gzip, format, INCOME_COLUMNS,
+                () -> incomeRepository.streamAllByUserId(userId), Income::getIncomeDto, ExportServiceImpl::incomeRow);
+    }
+
+    private void requireUser(Long userId) {
+        if (!userRepository.isKnownUser(userId)) {
+            logger.error("Cannot export for User with ID {}", userId);
+            throw new UserNotFoundException(userId);
+        }
+    }
+
+    private <E, D> void export(OutputStream response, Long userId, boolean gzip, ExportFormat format, List<String> columns,
+                               Supplier<Stream<E>> rows, Function<E, D> toDto,
+                               Function<D, List<Object>> toCsvRow) throws IOException {
+        OutputStream out = gzip ? new GZIPOutputStream(response, 64 * 1024) : response;
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        // The body streams on another thread than the request, so it routes its reads itself.
+        try (ReadRouting.Scope ignored = ReadRouting.forUser(userId)) {
+            databaseConcurrencyLimiter.run(() -> readOnly.executeWithoutResult(status -> {
+                try (Stream<E> stream = rows.get()) {
+                    if (format == ExportFormat.CSV) {
+                        writeCsv(out, columns, stream.map(row -> toCsvRow.apply(detached(row, toDto))));
+                    } else {
+                        writeNdjson(out, stream.map(row -> detached(row, toDto)));
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a database slot");
+        }
+        if (gzip) {
+            ((GZIPOutputStream) out).finish();
+        }
+        out.flush();
+    }
+
+    private <E, D> D detached(E row, Function<E, D> toDto) {
+        D dto = toDto.apply(row);
+        entityManager.detach(row);
+        return dto;
+    }
+
+    private void writeNdjson(OutputStream out, Stream<?> dtos) throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            Iterator<?> it = dtos.iterator();
+            while (it.hasNext()) {
+                writer.writeValue(generator, it.next());
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    private void writeCsv(OutputStream out, List<String> columns, Stream<List<Object>> rows) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        writeCsvLine(writer, columns);
+        Iterator<List<Object>> it = rows.iterator();
+        while (it.hasNext()) {
+            writeCsvLine(writer, it.next());
+        }
+        writer.flush();
+    }
+
+    private static void writeCsvLine(Writer writer, List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = values.get(i);
+            if (value != null) {
+                writer.write(csvEscape(value.toString()));
+            }
+        }
+        writer.write('\n');
+    }
+
+    private static String csvEscape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static List<Object> expenseRow(ExpenseDTO dto) {
+        return Arrays.asList(dto.getId(), dto.getDate(), dto.getTitle(), dto.getDescription(),
+                dto.getCategory(), dto.getAmount(), dto.getUserId());
+    }
+
+    private static List<Object> incomeRow(IncomeDTO dto) {
+        return Arrays.asList(dto.getId(), dto.getDate(), dto.getSource(), dto.getDescription(),
+                dto.getAmount(), dto.getUserId());
+    }
+}
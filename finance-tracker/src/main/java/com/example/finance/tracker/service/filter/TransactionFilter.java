@@ -0,0 +1,33 @@
+package com.example.finance.tracker.service.filter;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Optional criteria for per-user reads, bound from query parameters. Null
+ * fields are ignored. {@code category} applies to expenses and {@code source}
+ * to income; the date and amount bounds apply to both and are inclusive.
+ */
+public record TransactionFilter(
+        @Schema(description = "Earliest date, inclusive", example = "2025-01-01")
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @Schema(description = "Latest date, inclusive", example = "2025-01-31")
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+        @Schema(description = "Expense category, exact match", example = "Food")
+        String category,
+        @Schema(description = "Income source, exact match", example = "Salary")
+        String source,
+        @Schema(description = "Smallest amount, inclusive", example = "10")
+        Double minAmount,
+        @Schema(description = "Largest amount, inclusive", example = "500")
+        Double maxAmount) {
+
+    public static final TransactionFilter NONE = new TransactionFilter(null, null, null, null, null, null);
+
+    public boolean matchesAll() {
+        return from == null && to == null && category == null && source == null
+                && minAmount == null && maxAmount == null;
+    }
+}
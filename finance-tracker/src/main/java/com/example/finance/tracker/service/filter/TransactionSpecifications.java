@@ -0,0 +1,61 @@
+package com.example.finance.tracker.service.filter;
+
+import com.example.finance.tracker.entity.Expense;
+import com.example.finance.tracker.entity.Income;
+import com.example.finance.tracker.money.Money;
+import com.example.finance.tracker.service.pagination.KeysetCursor;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns a {@link TransactionFilter} into SQL predicates. Only the criteria
+ * that are set become predicates, so each combination gets its own plan and
+ * can use the (user_id, date, id) and (user_id, category/source) indexes.
+ */
+public final class TransactionSpecifications {
+
+    private TransactionSpecifications() {
+    }
+
+    public static Specification<Expense> expenses(Long userId, TransactionFilter filter) {
+        return matching(userId, filter, "category", filter.category());
+    }
+
+    public static Specification<Income> income(Long userId, TransactionFilter filter) {
+        return matching(userId, filter, "source", filter.source());
+    }
+
+    /** Rows after the cursor in (date DESC, id DESC) order. */
+    public static <T> Specification<T> after(KeysetCursor cursor) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.<LocalDate>get("date"), cursor.date()),
+                cb.and(cb.equal(root.get("date"), cursor.date()), cb.lessThan(root.<Long>get("id"), cursor.id())));
+    }
+
+    private static <T> Specification<T> matching(Long userId, TransactionFilter filter, String keyAttribute, String key) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(root.get("user").get("id"), userId));
+            if (filter.from() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("date"), filter.from()));
+            }
+            if (filter.to() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("date"), filter.to()));
+            }
+            if (key != null) {
+                predicates.add(cb.equal(root.get(keyAttribute), key));
+            }
+            if (filter.minAmount() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("amountCents"), Money.ceilCents(filter.minAmount())));
+            }
+            if (filter.maxAmount() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("amountCents"), Money.floorCents(filter.maxAmount())));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+}
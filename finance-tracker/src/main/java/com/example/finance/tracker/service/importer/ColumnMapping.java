@@ -0,0 +1,63 @@
+package com.example.finance.tracker.service.importer;
+
+import com.example.finance.tracker.exception.InvalidImportException;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maps DTO fields to CSV column positions. By default a field is read from the
+ * header with the same name (case-insensitive); a mapping such as
+ * {@code title=Narrative,amount=Debit Amount} points fields at other headers.
+ */
+public record ColumnMapping(Map<String, Integer> indexes) {
+
+    public static ColumnMapping resolve(List<String> fields, Set<String> required, String mapping, List<String> header) {
+        Map<String, String> headerByField = new LinkedHashMap<>();
+        fields.forEach(field -> headerByField.put(field, field));
+        if (mapping != null && !mapping.isBlank()) {
+            for (String pair : mapping.split(",")) {
+                int separator = pair.indexOf('=');
+                String field = separator < 0 ? "" : pair.substring(0, separator).trim();
+                if (!headerByField.containsKey(field)) {
+                    throw new InvalidImportException("mapping '" + pair.trim() + "' must be field=Header with field one of " + fields);
+                }
+                headerByField.put(field, pair.substring(separator + 1).trim());
+            }
+        }
+
+        Map<String, Integer> columnByHeader = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim();
+            if (i == 0 && name.startsWith("\uFEFF")) {
+                name = name.substring(1);
+            }
+            columnByHeader.putIfAbsent(name.toLowerCase(Locale.ROOT), i);
+        }
+
+        Map<String, Integer> indexes = new HashMap<>();
+        headerByField.forEach((field, name) -> {
+            Integer index = columnByHeader.get(name.toLowerCase(Locale.ROOT));
+            if (index != null) {
+                indexes.put(field, index);
+            } else if (required.contains(field)) {
+                throw new InvalidImportException("no column '" + name + "' for required field '" + field + "'");
+            }
+        });
+        return new ColumnMapping(indexes);
+    }
+
+    /** Trimmed value of the field in this record, or null when unmapped or blank. */
+    public String value(List<String> record, String field) {
+        Integer index = indexes.get(field);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+}
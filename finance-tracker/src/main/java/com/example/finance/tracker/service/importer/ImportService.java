@@ -0,0 +1,10 @@
+package com.example.finance.tracker.service.importer;
+
+import com.example.finance.tracker.dto.ImportResultDTO;
+
+import java.io.InputStream;
+
+public interface ImportService {
+    ImportResultDTO importExpenses(Long userId, InputStream csv, String mapping, String dateFormat);
+    ImportResultDTO importIncome(Long userId, InputStream csv, String mapping, String dateFormat);
+}
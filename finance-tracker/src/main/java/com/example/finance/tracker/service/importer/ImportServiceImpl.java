@@ -0,0 +1,367 @@
+package com.example.finance.tracker.service.importer;
+
+import com.example.finance.tracker.dto.ExpenseDTO;
+import com.example.finance.tracker.dto.ImportRejectionDTO;
+import com.example.finance.tracker.dto.ImportResultDTO;
+import com.example.finance.tracker.dto.IncomeDTO;
+import com.example.finance.tracker.exception.InvalidImportException;
+import com.example.finance.tracker.exception.UserNotFoundException;
+import com.example.finance.tracker.money.Money;
+import com.example.finance.tracker.repository.UserRepository;
+import com.example.finance.tracker.service.event.ClosedPeriodChangedEvent;
+import com.example.finance.tracker.service.event.UserDataChangedEvent;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Imports bank statements without holding them in memory. Rows are parsed as
+ * they arrive, validated in parallel chunks against the same rules as the REST
+ * API, and streamed with COPY into a temporary staging table. One
+ * INSERT ... SELECT then moves them into the real table and one upsert folds
+ * them into the monthly rollups.
+ */
+@Service
+@RequiredArgsConstructor
+public class ImportServiceImpl implements ImportService {
+    static final int CHUNK_SIZE = 5_000;
+    static final int MAX_REPORTED_REJECTIONS = 1_000;
+    /** Ids covered by one nextval; must match the allocationSize of expense_seq and income_seq. */
+    private static final int ID_BLOCK = 50;
+
+    private static final Target<ExpenseDTO> EXPENSES = new Target<>("expense", "category",
+            List.of("title", "description", "category", "date", "amount"),
+            List.of("title", "category", "date", "amount"),
+            (row, userId) -> {
+                ExpenseDTO dto = new ExpenseDTO();
+                dto.setTitle(row.text("title"));
+                dto.setDescription(row.text("description"));
+                dto.setCategory(row.text("category"));
+                dto.setDate(row.date("date"));
+                dto.setAmount(row.amount("amount"));
+                dto.setUserId(userId);
+                return dto;
+            },
+            dto -> Arrays.asList(dto.getTitle(), dto.getDescription(), dto.getCategory(), dto.getDate(),
+                    Money.toCents(dto.getAmount())));
+
+    private static final Target<IncomeDTO> INCOME = new Target<>("income", "source",
+            List.of("source", "description", "date", "amount"),
+            List.of("source", "date", "amount"),
+            (row, userId) -> {
+                IncomeDTO dto = new IncomeDTO();
+                dto.setSource(row.text("source"));
+                dto.setDescription(row.text("description"));
+                dto.setDate(row.date("date"));
+                dto.setAmount(row.amount("amount"));
+                dto.setUserId(userId);
+                return dto;
+            },
+            dto -> Arrays.asList(dto.getSource(), dto.getDescription(), dto.getDate(), Money.toCents(dto.getAmount())));
+
+    private final UserRepository userRepository;
+    private final Validator validator;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private static final Logger logger = LoggerFactory.getLogger(ImportServiceImpl.class);
+
+    @Override
+    @Transactional
+    public ImportResultDTO importExpenses(Long userId, InputStream csv, String mapping, String dateFormat) {
+        return importRows(EXPENSES, userId, csv, mapping, dateFormat);
+    }
+
+    @Override
+    @Transactional
+    public ImportResultDTO importIncome(Long userId, InputStream csv, String mapping, String dateFormat) {
+        return importRows(INCOME, userId, csv, mapping, dateFormat);
+    }
+
+    private <D> ImportResultDTO importRows(Target<D> target, Long userId, InputStream csv,
+                                           String mapping, String dateFormat) {
+        if (!userRepository.isKnownUser(userId)) {
+            logger.error("Cannot import {} for User with ID {}", target.table(), userId);
+            throw new UserNotFoundException(userId);
+        }
+        DateTimeFormatter dates = dateFormatter(dateFormat);
+        logger.info("Importing {} rows for user with ID {}", target.table(), userId);
+
+        jdbcTemplate.execute(target.stagingDdl());
+        Report report = jdbcTemplate.execute((ConnectionCallback<Report>) connection -> {
+            try {
+                return stage(target, userId, csv, mapping, dates, connection.unwrap(PGConnection.class));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        if (report.imported > 0) {
+            jdbcTemplate.update(target.labelSql());
+            jdbcTemplate.update(target.mergeSql(), (report.imported - 1) / ID_BLOCK, userId);
+            jdbcTemplate.update(target.rollupSql(), userId);
+            // Statements are mostly history, so an import is taken to touch closed months.
+            eventPublisher.publishEvent(new ClosedPeriodChangedEvent(userId));
+            eventPublisher.publishEvent(new UserDataChangedEvent(userId));
+        }
+        logger.info("Imported {} {} rows for user with ID {}, rejected {}",
+                report.imported, target.table(), userId, report.rejected);
+        return ImportResultDTO.builder()
+                .imported(report.imported)
+                .rejected(report.rejected)
+                .rejections(report.rejections)
+                .build();
+    }
+
+    private <D> Report stage(Target<D> target, Long userId, InputStream csv, String mapping,
+                             DateTimeFormatter dates, PGConnection connection) throws IOException, SQLException {
+        CsvReader reader = new CsvReader(new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8), 64 * 1024));
+        List<String> header = reader.next();
+        if (header == null) {
+            throw new InvalidImportException("the file is empty");
+        }
+        ColumnMapping columns = ColumnMapping.resolve(target.fields(), Set.copyOf(target.required()), mapping, header);
+
+        Report report = new Report();
+        PGCopyOutputStream copyStream = new PGCopyOutputStream(connection, target.copySql(), 64 * 1024);
+        try (Writer copy = new OutputStreamWriter(copyStream, StandardCharsets.UTF_8)) {
+            List<Line> chunk = new ArrayList<>(CHUNK_SIZE);
+            List<String> record;
+            while ((record = reader.next()) != null) {
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    continue;
+                }
+                chunk.add(new Line(reader.recordLine(), record));
+                if (chunk.size() == CHUNK_SIZE) {
+                    stageChunk(target, userId, columns, dates, chunk, copy, report);
+                    chunk.clear();
+                }
+            }
+            stageChunk(target, userId, columns, dates, chunk, copy, report);
+        }
+        return report;
+    }
+
+    private <D> void stageChunk(Target<D> target, Long userId, ColumnMapping columns, DateTimeFormatter dates,
+                                List<Line> chunk, Writer copy, Report report) throws IOException {
+        List<Checked<D>> checked = chunk.parallelStream()
+                .map(line -> check(target, userId, columns, dates, line))
+                .toList();
+        for (Checked<D> row : checked) {
+            if (row.errors().isEmpty()) {
+                writeCopyRow(copy, row.line(), target.stagingValues().apply(row.dto()));
+                report.imported++;
+            } else {
+                report.reject(row.line(), row.errors());
+            }
+        }
+    }
+
+    private <D> Checked<D> check(Target<D> target, Long userId, ColumnMapping columns,
+                                 DateTimeFormatter dates, Line line) {
+        Row row = new Row(line.record(), columns, dates);
+        D dto = target.toDto().apply(row, userId);
+        for (String field : target.required()) {
+            if (columns.value(line.record(), field) == null) {
+                row.fail(field, "is required");
+            }
+        }
+        validator.validate(dto).stream()
+                .sorted(Comparator.comparing(v -> v.getPropertyPath().toString()))
+                .filter(v -> !row.failed.contains(v.getPropertyPath().toString()))
+                .forEach(v -> row.fail(v.getPropertyPath().toString(), v.getMessage()));
+        return new Checked<>(line.number(), dto, row.errors);
+    }
+
+    private static void writeCopyRow(Writer copy, long line, List<Object> values) throws IOException {
+        copy.write(Long.toString(line));
+        for (Object value : values) {
+            copy.write(',');
+            if (value instanceof String text) {
+                copy.write('"');
+                copy.write(text.replace("\"", "\"\""));
+                copy.write('"');
+            } else if (value != null) {
+                copy.write(value.toString());
+            }
+        }
+        copy.write('\n');
+    }
+
+    private static DateTimeFormatter dateFormatter(String pattern) {
+        try {
+            return DateTimeFormatter.ofPattern(pattern);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidImportException("bad date format '" + pattern + "'");
+        }
+    }
+
+    /**
+     * How one of the importable tables is staged and merged. Amounts are
+     * staged as cents and the key as its name, which the merge swaps for the
+     * label id.
+     */
+    private record Target<D>(String table, String keyColumn, List<String> fields, List<String> required,
+                             BiFunction<Row, Long, D> toDto, Function<D, List<Object>> stagingValues) {
+
+        String staging() {
+            return table + "_import";
+        }
+
+        String stagingDdl() {
+            return "CREATE TEMP TABLE " + staging() + " (line bigint, " + fields.stream()
+                    .map(field -> stagingColumn(field) + " " + switch (field) {
+                        case "date" -> "date";
+                        case "amount" -> "bigint";
+                        default -> "text";
+                    })
+                    .collect(Collectors.joining(", ")) + ") ON COMMIT DROP";
+        }
+
+        String copySql() {
+            return "COPY " + staging() + " (line, " + fields.stream().map(Target::stagingColumn)
+                    .collect(Collectors.joining(", ")) + ") FROM STDIN WITH (FORMAT csv)";
+        }
+
+        /** Adds the staged names that have no label yet. */
+        String labelSql() {
+            return "INSERT INTO label (name) SELECT DISTINCT " + keyColumn + " FROM " + staging() +
+                    " ON CONFLICT (name) DO NOTHING";
+        }
+
+        /** Takes ids in blocks of {@link #ID_BLOCK} from the sequence, exactly as Hibernate's pooled optimizer does. */
+        String mergeSql() {
+            return "WITH blocks AS MATERIALIZED (" +
+                    "SELECT b, nextval('" + table + "_seq') AS hi FROM generate_series(0, ?) AS b), " +
+                    "staged AS (SELECT row_number() OVER (ORDER BY line) - 1 AS n, * FROM " + staging() + ") " +
+                    "INSERT INTO " + table + " (id, user_id, " + fields.stream().map(this::tableColumn)
+                    .collect(Collectors.joining(", ")) + ") " +
+                    "SELECT blocks.hi - " + (ID_BLOCK - 1) + " + staged.n % " + ID_BLOCK + ", ?, " +
+                    fields.stream().map(field -> field.equals(keyColumn) ? "label.id" : "staged." + stagingColumn(field))
+                            .collect(Collectors.joining(", ")) + " " +
+                    "FROM staged JOIN blocks ON blocks.b = staged.n / " + ID_BLOCK + " " +
+                    "JOIN label ON label.name = staged." + keyColumn;
+        }
+
+        String rollupSql() {
+            String rollup = table + "_rollup";
+            String keyId = tableColumn(keyColumn);
+            return "INSERT INTO " + rollup + " (user_id, month_start, " + keyId + ", total_cents, entry_count) " +
+                    "SELECT ?, date_trunc('month', date)::date, label.id, SUM(amount_cents), COUNT(*) " +
+                    "FROM " + staging() + " staged JOIN label ON label.name = staged." + keyColumn + " GROUP BY 2, 3 " +
+                    "ON CONFLICT (user_id, month_start, " + keyId + ") DO UPDATE " +
+                    "SET total_cents = " + rollup + ".total_cents + EXCLUDED.total_cents, " +
+                    "entry_count = " + rollup + ".entry_count + EXCLUDED.entry_count";
+        }
+
+        private String tableColumn(String field) {
+            return field.equals(keyColumn) ? field + "_id" : stagingColumn(field);
+        }
+
+        private static String stagingColumn(String field) {
+            return field.equals("amount") ? "amount_cents" : field;
+        }
+    }
+
+    /** Field accessors that record parse failures instead of throwing. */
+    private static final class Row {
+        private final List<String> record;
+        private final ColumnMapping columns;
+        private final DateTimeFormatter dates;
+        private final List<String> errors = new ArrayList<>();
+        private final Set<String> failed = new HashSet<>();
+
+        Row(List<String> record, ColumnMapping columns, DateTimeFormatter dates) {
+            this.record = record;
+            this.columns = columns;
+            this.dates = dates;
+        }
+
+        String text(String field) {
+            return columns.value(record, field);
+        }
+
+        LocalDate date(String field) {
+            String value = text(field);
+            if (value == null) {
+                return null;
+            }
+            try {
+                return LocalDate.parse(value, dates);
+            } catch (DateTimeParseException e) {
+                fail(field, "'" + value + "' is not a date");
+                return null;
+            }
+        }
+
+        Double amount(String field) {
+            String value = text(field);
+            if (value == null) {
+                return null;
+            }
+            try {
+                double amount = Double.parseDouble(value);
+                if (Double.isFinite(amount)) {
+                    return amount;
+                }
+            } catch (NumberFormatException ignored) {
+                // reported below
+            }
+            fail(field, "'" + value + "' is not a number");
+            return null;
+        }
+
+        void fail(String field, String message) {
+            if (failed.add(field)) {
+                errors.add(field + ": " + message);
+            }
+        }
+    }
+
+    private record Line(long number, List<String> record) {
+    }
+
+    private record Checked<D>(long line, D dto, List<String> errors) {
+    }
+
+    private static final class Report {
+        private long imported;
+        private long rejected;
+        private final List<ImportRejectionDTO> rejections = new ArrayList<>();
+
+        void reject(long line, List<String> errors) {
+            rejected++;
+            if (rejections.size() < MAX_REPORTED_REJECTIONS) {
+                rejections.add(new ImportRejectionDTO(line, errors));
+            }
+        }
+    }
+}
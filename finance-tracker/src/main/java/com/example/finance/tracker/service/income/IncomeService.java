@@ -1,17 +1,26 @@
 package com.example.finance.tracker.service.income;
 
+import com.example.finance.tracker.dto.BatchResultDTO;
+import com.example.finance.tracker.dto.BatchResultDTO;
+import com.example.finance.tracker.dto.CursorPageDTO;
 import com.example.finance.tracker.dto.IncomeDTO;
 import com.example.finance.tracker.entity.Income;
+import com.example.finance.tracker.service.filter.TransactionFilter;
 
 import java.util.List;
 
 public interface IncomeService {
     IncomeDTO postIncome(IncomeDTO incomeDTO);
+    BatchResultDTO postIncomes(List<IncomeDTO> incomeDTOs);
     IncomeDTO updateIncome(Long id, IncomeDTO incomeDTO);
     List<IncomeDTO> getAllIncome();
     IncomeDTO getIncomeById(Long id);
     void deleteIncome(Long id);
     List<IncomeDTO> getAllIncomeByUser(Long userId);
+    List<IncomeDTO> getAllIncomeByUser(Long userId, TransactionFilter filter);
     Double getTotalIncomeByUser(Long userId);
+    CursorPageDTO<IncomeDTO> getIncomePage(int limit, String after);
+    CursorPageDTO<IncomeDTO> getIncomePageByUser(Long userId, int limit, String after);
+    CursorPageDTO<IncomeDTO> getIncomePageByUser(Long userId, int limit, String after, TransactionFilter filter);
 
 }
@@ -1,30 +1,50 @@
 package com.example.finance.tracker.service.income;
 
 
+import com.example.finance.tracker.dto.BatchResultDTO;
+import com.example.finance.tracker.dto.CursorPageDTO;
 import com.example.finance.tracker.dto.IncomeDTO;
 import com.example.finance.tracker.entity.Income;
 import com.example.finance.tracker.entity.User;
 import com.example.finance.tracker.exception.ResourceNotFoundException;
 import com.example.finance.tracker.exception.UserNotFoundException;
+import com.example.finance.tracker.money.Money;
 import com.example.finance.tracker.repository.IncomeRepository;
+import com.example.finance.tracker.repository.IncomeRollupRepository;
+import com.example.finance.tracker.repository.TransactionDtoQueries;
 import com.example.finance.tracker.repository.UserRepository;
+import com.example.finance.tracker.service.batch.BatchWriter;
+import com.example.finance.tracker.service.columnar.TransactionColumnStore;
+import com.example.finance.tracker.service.filter.TransactionFilter;
+import com.example.finance.tracker.service.filter.TransactionSpecifications;
+import com.example.finance.tracker.service.pagination.KeysetCursor;
+import com.example.finance.tracker.service.rollup.RollupService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 public class IncomeServiceImpl implements IncomeService{
     private final IncomeRepository incomeRepository;
     private final UserRepository userRepository;
+    private final IncomeRollupRepository incomeRollupRepository;
+    private final TransactionDtoQueries transactionDtoQueries;
+    private final RollupService rollupService;
+    private final BatchWriter batchWriter;
+    private final TransactionColumnStore transactionColumnStore;
     private static final Logger logger = LoggerFactory.getLogger(IncomeServiceImpl.class);
     @Override
+    @Transactional
     public IncomeDTO postIncome(IncomeDTO incomeDTO){
         logger.info("Posting new income for user ID:{}",incomeDTO.getUserId());
         Income income = saveOrUpdateIncome(new Income(),incomeDTO);
@@ -37,20 +57,45 @@ public class IncomeServiceImpl implements IncomeService{
         if (incomeDTO.getSource() == null || incomeDTO.getAmount() < 0) {
             throw new IllegalArgumentException("Invalid input: source must not be null and amount must be non-negative.");
         }
+        if (income.getId() != null) {
+            rollupService.removeIncome(income.getUser().getId(), income.getDate(), income.getSource(), income.getAmountCents());
+            transactionColumnStore.incomeRemoved(income);
+        }
+        copyFields(income, incomeDTO);
+        if (!userRepository.isKnownUser(incomeDTO.getUserId())) {
+            logger.error("User with ID {}  not found",incomeDTO.getUserId());
+            throw new UserNotFoundException(incomeDTO.getUserId());
+        }
+        User user = userRepository.getReferenceById(incomeDTO.getUserId());
+        income.setUser(user);
+        rollupService.addIncome(user.getId(), income.getDate(), income.getSource(), income.getAmountCents());
+        logger.debug("Saving income to repository...");
+        Income saved = incomeRepository.save(income);
+        transactionColumnStore.incomeAdded(saved);
+        return saved;
+    }
+    private static void copyFields(Income income, IncomeDTO incomeDTO){
         income.setSource(incomeDTO.getSource());
         income.setDate(incomeDTO.getDate());
-        income.setAmount(incomeDTO.getAmount());
+        income.setAmountCents(Money.toCents(incomeDTO.getAmount()));
         income.setDescription(incomeDTO.getDescription());
-        User user = userRepository.findById(incomeDTO.getUserId())
-                .orElseThrow(() -> {
-                    logger.error("User with ID {}  not found",incomeDTO.getUserId());
-                    return new UserNotFoundException(incomeDTO.getUserId());
-                });
-        income.setUser(user);
-        logger.debug("Saving income to repository...");
-        return incomeRepository.save(income);
     }
     @Override
+    @Transactional
+    public BatchResultDTO postIncomes(List<IncomeDTO> incomeDTOs){
+        logger.info("Posting batch of {} income records", incomeDTOs.size());
+        return batchWriter.write(incomeDTOs, IncomeDTO::getUserId, (dto, user) -> {
+            Income income = new Income();
+            copyFields(income, dto);
+            income.setUser(user);
+            return income;
+        }, Income::getId, written -> {
+            rollupService.addIncomes(written);
+            transactionColumnStore.incomesAdded(written);
+        });
+    }
+    @Override
+    @Transactional
     public IncomeDTO updateIncome(Long id, IncomeDTO incomeDTO){
         Optional<Income> optionalIncome = incomeRepository.findById(id);
         logger.info("Updating expense with ID {}...",incomeDTO.getId());
@@ -62,28 +107,31 @@ public class IncomeServiceImpl implements IncomeService{
         }
     }
     @Override
+    @Transactional(readOnly = true)
     public List<IncomeDTO> getAllIncome(){
         logger.info("Getting all income...");
-        return incomeRepository.findAll().stream()
-                .sorted(Comparator.comparing(Income::getDate).reversed())
-                .map(Income::getIncomeDto)
-                .collect(Collectors.toList());
+        return incomeRepository.findAllNewestFirst();
     }
     @Override
+    @Transactional(readOnly = true)
     public IncomeDTO getIncomeById(Long id){
-        Optional<Income> optionalIncome = incomeRepository.findById(id);
+        Optional<IncomeDTO> optionalIncome = incomeRepository.findDtoById(id);
         if(optionalIncome.isPresent()){
             logger.info("Getting income with ID {}...", id);
-            return optionalIncome.get().getIncomeDto();
+            return optionalIncome.get();
         } else{
             throw new ResourceNotFoundException(id);
         }
     }
     @Override
+    @Transactional
     public void deleteIncome(Long id){
         Optional<Income> optionalIncome = incomeRepository.findById(id);
         if(optionalIncome.isPresent()){
             logger.info("Deleting expense with ID {}...",id);
+            Income income = optionalIncome.get();
+            rollupService.removeIncome(income.getUser().getId(), income.getDate(), income.getSource(), income.getAmountCents());
+            transactionColumnStore.incomeRemoved(income);
             incomeRepository.deleteById(id);
         } else{
             logger.error("Expense with ID {} not found",id);
@@ -91,25 +139,79 @@ public class IncomeServiceImpl implements IncomeService{
         }
     }
     @Override
+    @Transactional(readOnly = true)
     public List<IncomeDTO> getAllIncomeByUser(Long userId) {
-        if (!userRepository.existsById(userId)) {
+        return getAllIncomeByUser(userId, TransactionFilter.NONE);
+    }
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public List<IncomeDTO> getAllIncomeByUser(Long userId, TransactionFilter filter) {
+        if (!userRepository.isKnownUser(userId)) {
             logger.error("Cannot get income for User with ID {}", userId);
             throw new ResourceNotFoundException(userId);
         }
+        if (!filter.matchesAll()) {
+            logger.info("Getting income for user with ID {} matching {}", userId, filter);
+            return transactionColumnStore.income(userId, filter).orElseGet(() ->
+                    transactionDtoQueries.findIncome(TransactionSpecifications.income(userId, filter), Limit.unlimited()));
+        }
         logger.info("Getting income for user with ID {}...",userId);
-        return incomeRepository.findAllByUserId(userId).stream()
-                .sorted(Comparator.comparing(Income::getDate).reversed())
-                .map(Income::getIncomeDto)
-                .collect(Collectors.toList());
+        return incomeRepository.findAllByUserId(userId);
     }
     @Override
+    @Transactional(readOnly = true)
     public Double getTotalIncomeByUser(Long userId) {
 
-        if (!userRepository.existsById(userId)) {
+        if (!userRepository.isKnownUser(userId)) {
             logger.error("Cannot get total income for User with ID {}", userId);
             throw new UserNotFoundException(userId);
         }
         logger.info("Getting total income for user with ID {}",userId);
-        return Optional.ofNullable(incomeRepository.getTotalIncomeByUserId(userId)).orElse(0.0);
+        return Money.toAmount(Optional.ofNullable(incomeRollupRepository.getTotalByUserId(userId)).orElse(0L));
+    }
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<IncomeDTO> getIncomePage(int limit, String after) {
+        int pageSize = KeysetCursor.clampPageSize(limit);
+        logger.info("Getting page of {} income records after cursor {}", pageSize, after);
+        Limit fetch = Limit.of(pageSize + 1);
+        List<IncomeDTO> rows;
+        if (after == null) {
+            rows = incomeRepository.findFirstPage(fetch);
+        } else {
+            KeysetCursor cursor = KeysetCursor.decode(after, true);
+            rows = incomeRepository.findPageAfter(cursor.date(), cursor.id(), fetch);
+        }
+        return KeysetCursor.page(rows, pageSize, i -> new KeysetCursor(i.getDate(), i.getId()), Function.identity());
+    }
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<IncomeDTO> getIncomePageByUser(Long userId, int limit, String after) {
+        return getIncomePageByUser(userId, limit, after, TransactionFilter.NONE);
+    }
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<IncomeDTO> getIncomePageByUser(Long userId, int limit, String after, TransactionFilter filter) {
+        if (!userRepository.isKnownUser(userId)) {
+            logger.error("Cannot get income for User with ID {}", userId);
+            throw new ResourceNotFoundException(userId);
+        }
+        int pageSize = KeysetCursor.clampPageSize(limit);
+        logger.info("Getting page of {} income records for user with ID {} after cursor {}", pageSize, userId, after);
+        Limit fetch = Limit.of(pageSize + 1);
+        List<IncomeDTO> rows;
+        if (!filter.matchesAll()) {
+            Specification<Income> spec = TransactionSpecifications.income(userId, filter);
+            if (after != null) {
+                spec = spec.and(TransactionSpecifications.after(KeysetCursor.decode(after, true)));
+            }
+            rows = transactionDtoQueries.findIncome(spec, fetch);
+        } else if (after == null) {
+            rows = incomeRepository.findFirstPageByUserId(userId, fetch);
+        } else {
+            KeysetCursor cursor = KeysetCursor.decode(after, true);
+            rows = incomeRepository.findPageByUserIdAfter(userId, cursor.date(), cursor.id(), fetch);
+        }
+        return KeysetCursor.page(rows, pageSize, i -> new KeysetCursor(i.getDate(), i.getId()), Function.identity());
     }
 }
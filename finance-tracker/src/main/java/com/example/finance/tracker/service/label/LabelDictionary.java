@@ -0,0 +1,125 @@
+package com.example.finance.tracker.service.label;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of the {@code label} table, loaded on startup and filled in
+ * on a miss. Ids and names never change, so an entry is never stale.
+ * <p>
+ * A label created by a transaction is only cached for other threads once that
+ * transaction commits; until then only the creating transaction sees its id,
+ * so a rollback cannot leave an id behind that points at no row. Names are
+ * only created by read-write transactions: elsewhere, such as a filter on a
+ * name nobody has used yet, an unknown name maps to {@link #UNKNOWN}, which
+ * matches no row.
+ */
+@Component
+public class LabelDictionary implements SmartInitializingSingleton {
+    /** Id for names with no label, which no row references. */
+    public static final int UNKNOWN = -1;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final Map<Integer, String> names = new ConcurrentHashMap<>();
+    private static final Logger logger = LoggerFactory.getLogger(LabelDictionary.class);
+
+    /**
+     * Takes the DataSource rather than the shared JdbcTemplate, which waits for
+     * schema initialisation and so for the JPA setup that needs this class.
+     * Queries still join the current JPA transaction's connection.
+     */
+    public LabelDictionary(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        jdbcTemplate.query("SELECT id, name FROM label", (ResultSet row) -> {
+            remember(row.getString("name"), row.getInt("id"));
+        });
+        logger.debug("Loaded {} labels", ids.size());
+    }
+
+    public Integer idOf(String name) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        Map<String, Integer> created = createdInTransaction();
+        if (created != null && (id = created.get(name)) != null) {
+            return id;
+        }
+        List<Integer> existing = jdbcTemplate.queryForList("SELECT id FROM label WHERE name = ?", Integer.class, name);
+        if (!existing.isEmpty()) {
+            remember(name, existing.get(0));
+            return existing.get(0);
+        }
+        if (created == null) {
+            return UNKNOWN;
+        }
+        // Waits for a concurrent transaction creating the same name, then returns its id.
+        id = jdbcTemplate.queryForObject("INSERT INTO label (name) VALUES (?) " +
+                "ON CONFLICT (name) DO UPDATE SET name = EXCLUDED.name RETURNING id", Integer.class, name);
+        logger.debug("Created label {} for '{}'", id, name);
+        created.put(name, id);
+        names.put(id, name);
+        return id;
+    }
+
+    public String nameOf(Integer id) {
+        String name = names.get(id);
+        if (name == null) {
+            name = jdbcTemplate.queryForObject("SELECT name FROM label WHERE id = ?", String.class, id);
+            names.put(id, name);
+        }
+        return name;
+    }
+
+    private void remember(String name, Integer id) {
+        ids.put(name, id);
+        names.put(id, name);
+    }
+
+    /**
+     * Labels created by the current read-write transaction, published to the
+     * cache after it commits; null outside such a transaction.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Integer> createdInTransaction() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return null;
+        }
+        Map<String, Integer> created = (Map<String, Integer>) TransactionSynchronizationManager.getResource(this);
+        if (created == null) {
+            Map<String, Integer> pending = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pending.forEach(LabelDictionary.this::remember);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(LabelDictionary.this);
+                }
+            });
+            created = pending;
+        }
+        return created;
+    }
+}
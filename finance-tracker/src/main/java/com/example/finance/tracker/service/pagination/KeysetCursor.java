@@ -0,0 +1,64 @@
+package com.example.finance.tracker.service.pagination;
+
+import com.example.finance.tracker.dto.CursorPageDTO;
+import com.example.finance.tracker.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Position of the last row on a page, ordered by (date DESC, id DESC). Date is
+ * null for listings ordered by id alone. Clients only ever see the encoded form.
+ */
+public record KeysetCursor(LocalDate date, Long id) {
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    public String encode() {
+        String raw = date == null ? String.valueOf(id) : date + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor for a listing ordered by (date, id) when {@code dated},
+     * or by id alone otherwise; a cursor of the other shape, such as one
+     * copied from another listing, is rejected rather than matching nothing.
+     */
+    public static KeysetCursor decode(String cursor, boolean dated) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0 && !dated) {
+                return new KeysetCursor(null, Long.parseLong(raw));
+            }
+            if (separator >= 0 && dated) {
+                return new KeysetCursor(LocalDate.parse(raw.substring(0, separator)),
+                        Long.parseLong(raw.substring(separator + 1)));
+            }
+        } catch (RuntimeException e) {
+            // Reported below like any other unusable cursor.
+        }
+        throw new InvalidCursorException(cursor);
+    }
+
+    public static int clampPageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Builds a page from rows fetched with a limit of {@code pageSize + 1}; the
+     * extra row only signals that another page exists.
+     */
+    public static <E, D> CursorPageDTO<D> page(List<E> rows, int pageSize,
+                                              Function<E, KeysetCursor> cursorOf, Function<E, D> mapper) {
+        boolean hasMore = rows.size() > pageSize;
+        List<E> pageRows = hasMore ? rows.subList(0, pageSize) : rows;
+        return CursorPageDTO.<D>builder()
+                .items(pageRows.stream().map(mapper).toList())
+                .nextCursor(hasMore ? cursorOf.apply(pageRows.get(pageSize - 1)).encode() : null)
+                .build();
+    }
+}
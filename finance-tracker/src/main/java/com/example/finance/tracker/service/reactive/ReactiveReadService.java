@@ -0,0 +1,21 @@
+package com.example.finance.tracker.service.reactive;
+
+import com.example.finance.tracker.dto.ExpenseDTO;
+import com.example.finance.tracker.dto.IncomeDTO;
+import com.example.finance.tracker.dto.StatsDTO;
+import com.example.finance.tracker.service.filter.TransactionFilter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking versions of the per-user listing and stats reads. The user is
+ * looked up once, through {@link #currentVersion}, which also yields the
+ * ETag; the other methods take a user known to exist.
+ */
+public interface ReactiveReadService {
+    /** Emits the user's data version, or fails with UserNotFoundException. */
+    Mono<Long> currentVersion(Long userId);
+    Flux<ExpenseDTO> getAllExpensesByUser(Long userId, TransactionFilter filter);
+    Flux<IncomeDTO> getAllIncomeByUser(Long userId, TransactionFilter filter);
+    Mono<StatsDTO> getUserFinanceStats(Long userId, long version, TransactionFilter filter);
+}
@@ -0,0 +1,63 @@
+package com.example.finance.tracker.service.reactive;
+
+import com.example.finance.tracker.dto.ExpenseDTO;
+import com.example.finance.tracker.dto.IncomeDTO;
+import com.example.finance.tracker.dto.StatsDTO;
+import com.example.finance.tracker.exception.UserNotFoundException;
+import com.example.finance.tracker.repository.ReactiveTransactionQueries;
+import com.example.finance.tracker.repository.projection.MonthlyTotal;
+import com.example.finance.tracker.service.filter.TransactionFilter;
+import com.example.finance.tracker.service.stats.StatsAssembler;
+import com.example.finance.tracker.service.stats.StatsCache;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "finance.read-path", havingValue = "reactive")
+public class ReactiveReadServiceImpl implements ReactiveReadService {
+    private final ReactiveTransactionQueries reactiveTransactionQueries;
+    private final StatsCache statsCache;
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveReadServiceImpl.class);
+
+    @Override
+    public Mono<Long> currentVersion(Long userId) {
+        return reactiveTransactionQueries.findVersionOfUser(userId)
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException(userId)));
+    }
+
+    @Override
+    public Flux<ExpenseDTO> getAllExpensesByUser(Long userId, TransactionFilter filter) {
+        logger.info("Streaming expenses for user with ID {} matching {}", userId, filter);
+        return reactiveTransactionQueries.findExpenses(userId, filter);
+    }
+
+    @Override
+    public Flux<IncomeDTO> getAllIncomeByUser(Long userId, TransactionFilter filter) {
+        logger.info("Streaming income for user with ID {} matching {}", userId, filter);
+        return reactiveTransactionQueries.findIncome(userId, filter);
+    }
+
+    /** Same split as StatsServiceImpl: cached rollups when unfiltered, grouped raw rows otherwise. */
+    @Override
+    public Mono<StatsDTO> getUserFinanceStats(Long userId, long version, TransactionFilter filter) {
+        if (!filter.matchesAll()) {
+            logger.info("Getting User Stats matching {}", filter);
+            return build(userId, reactiveTransactionQueries.sumIncomeByMonth(userId, filter),
+                    reactiveTransactionQueries.sumExpensesByMonth(userId, filter));
+        }
+        return Mono.fromFuture(() -> statsCache.getAsync(userId, version, id -> build(id,
+                reactiveTransactionQueries.findIncomeMonthlyTotals(id),
+                reactiveTransactionQueries.findExpenseMonthlyTotals(id)).toFuture()));
+    }
+
+    private static Mono<StatsDTO> build(Long userId, Flux<MonthlyTotal> incomes, Flux<MonthlyTotal> expenses) {
+        return Mono.zip(incomes.collectList(), expenses.collectList())
+                .map(totals -> StatsAssembler.build(userId, totals.getT1(), totals.getT2()));
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.finance.tracker.service.rollup;
+
+import java.time.LocalDate;
+
+/**
+ * Calendar months as accounting periods. The month holding today is open and
+ * every earlier month is closed. A write dated in a month that has closed, or
+ * closes by tomorrow, counts as a change to a closed period, so a snapshot
+ * taken just after a month ends cannot miss a write committed just before,
+ * even with some clock skew between nodes.
+ */
+public final class AccountingPeriods {
+
+    private AccountingPeriods() {
+    }
+
+    /** First day of the open month. */
+    public static LocalDate openMonth() {
+        return LocalDate.now().withDayOfMonth(1);
+    }
+
+    public static boolean isClosed(LocalDate date) {
+        return date.isBefore(LocalDate.now().plusDays(1).withDayOfMonth(1));
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.finance.tracker.service.rollup;
+
+import com.example.finance.tracker.repository.ExpenseRepository;
+import com.example.finance.tracker.repository.ExpenseRollupRepository;
+import com.example.finance.tracker.repository.IncomeRepository;
+import com.example.finance.tracker.repository.IncomeRollupRepository;
+import com.example.finance.tracker.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Populates the rollup tables from existing expense and income rows. Runs on
+ * startup when the rollups are empty but transactions exist (first deploy of
+ * the rollup tables), or on every startup when
+ * {@code finance.rollup.rebuild-on-startup} is set.
+ */
+@Component
+@RequiredArgsConstructor
+public class RollupBackfillRunner implements ApplicationRunner {
+    private final RollupService rollupService;
+    private final UserRepository userRepository;
+    private final ExpenseRepository expenseRepository;
+    private final IncomeRepository incomeRepository;
+    private final ExpenseRollupRepository expenseRollupRepository;
+    private final IncomeRollupRepository incomeRollupRepository;
+    private static final Logger logger = LoggerFactory.getLogger(RollupBackfillRunner.class);
+
+    @Value("${finance.rollup.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        boolean rollupsMissing = expenseRollupRepository.count() == 0 && incomeRollupRepository.count() == 0
+                && (expenseRepository.count() > 0 || incomeRepository.count() > 0);
+        if (!rebuildOnStartup && !rollupsMissing) {
+            return;
+        }
+        List<Long> userIds = userRepository.findAllIds();
+        logger.info("Rebuilding rollups for {} users...", userIds.size());
+        userIds.forEach(rollupService::rebuild);
+        logger.info("Rollup rebuild finished");
+    }
+}
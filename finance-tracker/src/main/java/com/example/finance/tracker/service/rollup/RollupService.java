@@ -0,0 +1,18 @@
+package com.example.finance.tracker.service.rollup;
+
+import com.example.finance.tracker.entity.Expense;
+import com.example.finance.tracker.entity.Income;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface RollupService {
+    void addExpense(Long userId, LocalDate date, String category, Long amountCents);
+    void addExpenses(List<Expense> expenses);
+    void removeExpense(Long userId, LocalDate date, String category, Long amountCents);
+    void addIncome(Long userId, LocalDate date, String source, Long amountCents);
+    void addIncomes(List<Income> incomes);
+    void removeIncome(Long userId, LocalDate date, String source, Long amountCents);
+    void rebuild(Long userId);
+    void deleteForUser(Long userId);
+}
@@ -0,0 +1,175 @@
+package com.example.finance.tracker.service.rollup;
+
+import com.example.finance.tracker.entity.Expense;
+import com.example.finance.tracker.entity.ExpenseRollup;
+import com.example.finance.tracker.entity.Income;
+import com.example.finance.tracker.entity.IncomeRollup;
+import com.example.finance.tracker.repository.ExpenseRepository;
+import com.example.finance.tracker.repository.ExpenseRollupRepository;
+import com.example.finance.tracker.repository.IncomeRepository;
+import com.example.finance.tracker.repository.IncomeRollupRepository;
+import com.example.finance.tracker.repository.projection.MonthlyTotal;
+import com.example.finance.tracker.service.event.ClosedPeriodChangedEvent;
+import com.example.finance.tracker.service.event.UserDataChangedEvent;
+import com.example.finance.tracker.service.label.LabelDictionary;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Maintains the per-user monthly rollups. The add/remove methods join the
+ * caller's transaction so a rollup never disagrees with the rows it summarises.
+ * Every write path goes through here, so this is also where a
+ * {@link UserDataChangedEvent} is published for each affected user, plus a
+ * {@link ClosedPeriodChangedEvent} when the write is dated in a closed month.
+ */
+@Service
+@RequiredArgsConstructor
+public class RollupServiceImpl implements RollupService {
+    private final ExpenseRollupRepository expenseRollupRepository;
+    private final IncomeRollupRepository incomeRollupRepository;
+    private final ExpenseRepository expenseRepository;
+    private final IncomeRepository incomeRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LabelDictionary labelDictionary;
+    private static final Logger logger = LoggerFactory.getLogger(RollupServiceImpl.class);
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addExpense(Long userId, LocalDate date, String category, Long amountCents) {
+        expenseRollupRepository.apply(userId, date.withDayOfMonth(1), labelDictionary.idOf(category), amountCents, 1L);
+        changed(userId, date);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addExpenses(List<Expense> expenses) {
+        Map<Group, Sum> sums = sumByGroup(expenses, e -> e.getUser().getId(), Expense::getDate, Expense::getCategory, Expense::getAmountCents);
+        sums.forEach((group, sum) -> expenseRollupRepository.apply(
+                group.userId(), group.monthStart(), labelDictionary.idOf(group.key()), sum.total, sum.count));
+        changed(sums.keySet());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removeExpense(Long userId, LocalDate date, String category, Long amountCents) {
+        LocalDate monthStart = date.withDayOfMonth(1);
+        expenseRollupRepository.apply(userId, monthStart, labelDictionary.idOf(category), -amountCents, -1L);
+        expenseRollupRepository.deleteIfEmpty(userId, monthStart, category);
+        changed(userId, date);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addIncome(Long userId, LocalDate date, String source, Long amountCents) {
+        incomeRollupRepository.apply(userId, date.withDayOfMonth(1), labelDictionary.idOf(source), amountCents, 1L);
+        changed(userId, date);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addIncomes(List<Income> incomes) {
+        Map<Group, Sum> sums = sumByGroup(incomes, i -> i.getUser().getId(), Income::getDate, Income::getSource, Income::getAmountCents);
+        sums.forEach((group, sum) -> incomeRollupRepository.apply(
+                group.userId(), group.monthStart(), labelDictionary.idOf(group.key()), sum.total, sum.count));
+        changed(sums.keySet());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removeIncome(Long userId, LocalDate date, String source, Long amountCents) {
+        LocalDate monthStart = date.withDayOfMonth(1);
+        incomeRollupRepository.apply(userId, monthStart, labelDictionary.idOf(source), -amountCents, -1L);
+        incomeRollupRepository.deleteIfEmpty(userId, monthStart, source);
+        changed(userId, date);
+    }
+
+    @Override
+    @Transactional
+    public void rebuild(Long userId) {
+        logger.debug("Rebuilding rollups for user ID {}", userId);
+        deleteForUser(userId);
+        List<MonthlyTotal> expenses = expenseRepository.sumByMonthAndCategory(userId);
+        expenseRollupRepository.saveAll(expenses.stream().map(row -> {
+            ExpenseRollup rollup = new ExpenseRollup();
+            rollup.setUserId(userId);
+            rollup.setMonthStart(LocalDate.of(row.year(), row.month(), 1));
+            rollup.setCategory(row.key());
+            rollup.setTotalCents(row.totalCents());
+            rollup.setEntryCount(row.count());
+            return rollup;
+        }).toList());
+        List<MonthlyTotal> incomes = incomeRepository.sumByMonthAndSource(userId);
+        incomeRollupRepository.saveAll(incomes.stream().map(row -> {
+            IncomeRollup rollup = new IncomeRollup();
+            rollup.setUserId(userId);
+            rollup.setMonthStart(LocalDate.of(row.year(), row.month(), 1));
+            rollup.setSource(row.key());
+            rollup.setTotalCents(row.totalCents());
+            rollup.setEntryCount(row.count());
+            return rollup;
+        }).toList());
+    }
+
+    @Override
+    @Transactional
+    public void deleteForUser(Long userId) {
+        expenseRollupRepository.deleteAllByUserId(userId);
+        incomeRollupRepository.deleteAllByUserId(userId);
+        eventPublisher.publishEvent(new ClosedPeriodChangedEvent(userId));
+        changed(userId);
+    }
+
+    private void changed(Long userId) {
+        eventPublisher.publishEvent(new UserDataChangedEvent(userId));
+    }
+
+    private void changed(Long userId, LocalDate date) {
+        if (AccountingPeriods.isClosed(date)) {
+            eventPublisher.publishEvent(new ClosedPeriodChangedEvent(userId));
+        }
+        changed(userId);
+    }
+
+    /** One event of each kind per user, however many of the user's groups the batch touched. */
+    private void changed(Set<Group> groups) {
+        groups.stream()
+                .filter(group -> AccountingPeriods.isClosed(group.monthStart()))
+                .map(Group::userId)
+                .distinct()
+                .forEach(userId -> eventPublisher.publishEvent(new ClosedPeriodChangedEvent(userId)));
+        groups.stream().map(Group::userId).distinct().forEach(this::changed);
+    }
+
+    /** Collapses a batch to one rollup delta per (user, month, key) so it costs one upsert each. */
+    private static <T> Map<Group, Sum> sumByGroup(List<T> rows, Function<T, Long> userId, Function<T, LocalDate> date,
+                                                  Function<T, String> key, Function<T, Long> amountCents) {
+        Map<Group, Sum> sums = new HashMap<>();
+        for (T row : rows) {
+            Group group = new Group(userId.apply(row), date.apply(row).withDayOfMonth(1), key.apply(row));
+            Sum sum = sums.computeIfAbsent(group, g -> new Sum());
+            sum.total += amountCents.apply(row);
+            sum.count++;
+        }
+        return sums;
+    }
+
+    private record Group(Long userId, LocalDate monthStart, String key) {
+    }
+
+    private static final class Sum {
+        long total;
+        long count;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.finance.tracker.service.stats;
+
+import com.example.finance.tracker.concurrency.DatabaseConcurrencyLimiter;
+import com.example.finance.tracker.entity.StatsSnapshot;
+import com.example.finance.tracker.repository.StatsSnapshotRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Frozen per-user snapshots of closed months, held in a bounded in-memory
+ * cache in front of the {@code stats_snapshot} table. A snapshot is looked up
+ * by the user's closed-period version and the open month, so it can never
+ * stand in for months that changed or closed after it was built.
+ * <p>
+ * Snapshots are built by readers inside read-only transactions. Writing them
+ * there would take a second connection per thread, so they are stored once
+ * the reading transaction commits, by a single background writer holding a
+ * database slot of its own. That write is best-effort: if its queue is full
+ * or the write fails, the next miss builds the snapshot again. Hit, miss and
+ * eviction counts are published as the {@code cache.*} meters tagged
+ * {@code cache=stats-snapshot}.
+ */
+@Component
+public class ClosedPeriodSnapshots implements MeterBinder, DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(ClosedPeriodSnapshots.class);
+
+    private final StatsSnapshotRepository statsSnapshotRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final DatabaseConcurrencyLimiter databaseConcurrencyLimiter;
+    private final Cache<Long, Entry> cache;
+    private final ThreadPoolExecutor writer;
+
+    public ClosedPeriodSnapshots(StatsSnapshotRepository statsSnapshotRepository,
+                                 ObjectMapper objectMapper,
+                                 PlatformTransactionManager transactionManager,
+                                 DatabaseConcurrencyLimiter databaseConcurrencyLimiter,
+                                 @Value("${finance.stats-snapshot.maximum-size:10000}") long maximumSize) {
+        this.statsSnapshotRepository = statsSnapshotRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.databaseConcurrencyLimiter = databaseConcurrencyLimiter;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1024), runnable -> {
+            Thread thread = new Thread(runnable, "stats-snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /** The snapshot of the user's months before {@code openMonth} at {@code closedVersion}, if one was built. */
+    public Optional<StatsSnapshot.Totals> find(Long userId, long closedVersion, LocalDate openMonth) {
+        Entry cached = cache.getIfPresent(userId);
+        if (cached != null && cached.matches(closedVersion, openMonth)) {
+            return Optional.of(cached.totals());
+        }
+        Optional<StatsSnapshot.Totals> stored = statsSnapshotRepository
+                .findByUserIdAndClosedVersionAndOpenMonth(userId, closedVersion, openMonth)
+                .map(StatsSnapshot::getTotals);
+        stored.ifPresent(totals -> cache.put(userId, new Entry(closedVersion, openMonth, totals)));
+        return stored;
+    }
+
+    /** Caches the snapshot now and stores it once the current transaction, if any, commits. */
+    public void store(Long userId, long closedVersion, LocalDate openMonth, StatsSnapshot.Totals totals) {
+        Entry entry = new Entry(closedVersion, openMonth, totals);
+        cache.put(userId, entry);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    writer.execute(() -> persist(userId, entry));
+                }
+            });
+        } else {
+            writer.execute(() -> persist(userId, entry));
+        }
+    }
+
+    /** Drops the user's snapshot, in the transaction deleting the user. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deleteForUser(Long userId) {
+        cache.invalidate(userId);
+        statsSnapshotRepository.deleteAllByUserId(userId);
+    }
+
+    private void persist(Long userId, Entry entry) {
+        try {
+            String totals = objectMapper.writeValueAsString(entry.totals());
+            databaseConcurrencyLimiter.run(() -> transactionTemplate.executeWithoutResult(status ->
+                    statsSnapshotRepository.store(userId, entry.closedVersion(), entry.openMonth(), totals)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (JsonProcessingException | RuntimeException e) {
+            logger.warn("Could not store the closed-period snapshot of user ID {}", userId, e);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "stats-snapshot");
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        writer.shutdown();
+        writer.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private record Entry(long closedVersion, LocalDate openMonth, StatsSnapshot.Totals totals) {
+        boolean matches(long closedVersion, LocalDate openMonth) {
+            return this.closedVersion == closedVersion && this.openMonth.equals(openMonth);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.finance.tracker.service.stats;
+
+import com.example.finance.tracker.dto.StatsDTO;
+import com.example.finance.tracker.money.Money;
+import com.example.finance.tracker.repository.projection.MonthlyTotal;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds a {@link StatsDTO} from grouped (month, category/source) totals.
+ * Shared by the blocking and reactive stats paths, which differ only in how
+ * they read the groups.
+ * <p>
+ * Each side is folded in one pass into primitive sums: months are keyed by
+ * {@code year * 12 + month - 1} into a {@code long[]} of cents, and each
+ * distinct category/source gets a slot in another, so a row costs no
+ * allocation and the sums are exact. The {@code Map<String, Double>} shape of
+ * the DTO is only built at the end, once per distinct month and key, which is
+ * also the only place cents become amounts.
+ */
+public final class StatsAssembler {
+
+    private StatsAssembler() {
+    }
+
+    public static StatsDTO build(Long userId, List<MonthlyTotal> incomes, List<MonthlyTotal> expenses){
+        Fold income = Fold.of(incomes);
+        Fold expense = Fold.of(expenses);
+
+        return StatsDTO.builder()
+                .userId(userId)
+                .totalIncome(Money.toAmount(income.total))
+                .totalExpenses(Money.toAmount(expense.total))
+                .netBalance(Money.toAmount(income.total - expense.total))
+                .expenseByCategory(expense.byKey())
+                .incomeBySource(income.byKey())
+                .monthlyExpenses(expense.byMonth())
+                .monthlyIncome(income.byMonth())
+                .build();
+    }
+
+    /** Per-key and per-month sums of one side, plus its grand total. */
+    private static final class Fold {
+        private static final int INITIAL_MONTHS = 128;
+
+        private final Map<String, Integer> slots = new HashMap<>();
+        private final List<String> keys = new ArrayList<>();
+        private long[] keySums = new long[8];
+
+        /** Month index of {@code monthSums[0]}, fixed by the first row. */
+        private int firstMonth;
+        private long[] monthSums = new long[0];
+        private boolean[] monthSeen = new boolean[0];
+
+        private long total;
+
+        static Fold of(List<MonthlyTotal> rows) {
+            Fold fold = new Fold();
+            for (MonthlyTotal row : rows) {
+                fold.add(row.year() * 12 + row.month() - 1, row.key(), row.totalCents());
+            }
+            return fold;
+        }
+
+        private void add(int month, String key, long cents) {
+            total += cents;
+            // Resolve both indexes before touching the arrays: either lookup may replace them.
+            int slot = slotOf(key);
+            int offset = offsetOf(month);
+            keySums[slot] += cents;
+            monthSums[offset] += cents;
+            monthSeen[offset] = true;
+        }
+
+        /** The key's slot, taking the first instance seen as the one the result map holds. */
+        private int slotOf(String key) {
+            Integer slot = slots.get(key);
+            if (slot != null) {
+                return slot;
+            }
+            int next = keys.size();
+            slots.put(key, next);
+            keys.add(key);
+            if (next == keySums.length) {
+                keySums = Arrays.copyOf(keySums, next * 2);
+            }
+            return next;
+        }
+
+        /** Index of the month in {@link #monthSums}, widening the window when the month lies outside it. */
+        private int offsetOf(int month) {
+            if (monthSums.length == 0) {
+                firstMonth = month;
+                monthSums = new long[INITIAL_MONTHS];
+                monthSeen = new boolean[INITIAL_MONTHS];
+            }
+            int offset = month - firstMonth;
+            if (offset < 0) {
+                int shift = Math.max(-offset, monthSums.length);
+                monthSums = shifted(monthSums, shift);
+                monthSeen = shifted(monthSeen, shift);
+                firstMonth -= shift;
+                offset += shift;
+            } else if (offset >= monthSums.length) {
+                int length = Math.max(offset + 1, monthSums.length * 2);
+                monthSums = Arrays.copyOf(monthSums, length);
+                monthSeen = Arrays.copyOf(monthSeen, length);
+            }
+            return offset;
+        }
+
+        Map<String, Double> byKey() {
+            Map<String, Double> byKey = HashMap.newHashMap(keys.size());
+            for (int slot = 0; slot < keys.size(); slot++) {
+                byKey.put(keys.get(slot), Money.toAmount(keySums[slot]));
+            }
+            return byKey;
+        }
+
+        Map<String, Double> byMonth() {
+            Map<String, Double> byMonth = new HashMap<>();
+            for (int offset = 0; offset < monthSums.length; offset++) {
+                if (monthSeen[offset]) {
+                    int month = firstMonth + offset;
+                    byMonth.put(YearMonth.of(Math.floorDiv(month, 12), Math.floorMod(month, 12) + 1).toString(),
+                            Money.toAmount(monthSums[offset]));
+                }
+            }
+            return byMonth;
+        }
+
+        private static long[] shifted(long[] values, int shift) {
+            long[] copy = new long[values.length + shift];
+            System.arraycopy(values, 0, copy, shift, values.length);
+            return copy;
+        }
+
+        private static boolean[] shifted(boolean[] values, int shift) {
+            boolean[] copy = new boolean[values.length + shift];
+            System.arraycopy(values, 0, copy, shift, values.length);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.finance.tracker.service.stats;
+
+import com.example.finance.tracker.dto.StatsDTO;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of computed stats, keyed by user and data version. A write
+ * bumps the version in its own transaction, so once it commits every reader
+ * asks for the new key and the old entry is simply never read again; it ages
+ * out by size or TTL. Concurrent misses for the same key wait on a single
+ * computation, which runs on the calling thread outside any cache lock;
+ * waiters park on its future, so a virtual thread never pins its carrier while
+ * the stats queries block on JDBC. Hit, miss and eviction counts are
+ * published as the {@code cache.*} meters tagged {@code cache=stats}.
+ */
+@Component
+public class StatsCache implements MeterBinder {
+    private final AsyncCache<Key, StatsDTO> cache;
+
+    public StatsCache(@Value("${finance.stats-cache.maximum-size:10000}") long maximumSize,
+                      @Value("${finance.stats-cache.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+    }
+
+    public StatsDTO get(Long userId, long version, Function<Long, StatsDTO> compute) {
+        CompletableFuture<StatsDTO> computation = new CompletableFuture<>();
+        CompletableFuture<StatsDTO> cached = cache.get(new Key(userId, version), (key, executor) -> computation);
+        if (cached == computation) {
+            try {
+                computation.complete(compute.apply(userId));
+            } catch (RuntimeException | Error e) {
+                computation.completeExceptionally(e);
+            }
+        }
+        try {
+            return cached.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Non-blocking variant for the reactive read path: {@code compute} only
+     * starts the computation and returns its future, and concurrent misses for
+     * the same key share it.
+     */
+    public CompletableFuture<StatsDTO> getAsync(Long userId, long version,
+                                                Function<Long, CompletableFuture<StatsDTO>> compute) {
+        return cache.get(new Key(userId, version), (key, executor) -> compute.apply(key.userId()));
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    public long size() {
+        return cache.synchronous().estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "stats");
+    }
+
+    private record Key(Long userId, long version) {
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.finance.tracker.service.stats;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+import java.time.temporal.TemporalUnit;
+
+/**
+ * Width of the buckets of a stats time series. Each bucket starts where
+ * PostgreSQL's {@code date_trunc} with {@link #unit} puts it; weeks start on
+ * Monday.
+ */
+public enum StatsGranularity {
+    DAY("day", ChronoUnit.DAYS),
+    WEEK("week", ChronoUnit.WEEKS),
+    MONTH("month", ChronoUnit.MONTHS),
+    QUARTER("quarter", IsoFields.QUARTER_YEARS),
+    YEAR("year", ChronoUnit.YEARS);
+
+    private final String unit;
+    private final TemporalUnit step;
+
+    StatsGranularity(String unit, TemporalUnit step) {
+        this.unit = unit;
+        this.step = step;
+    }
+
+    /** The {@code date_trunc} field name. */
+    public String unit() {
+        return unit;
+    }
+
+    /** Whether every bucket is made of whole months, and so can be summed from the monthly rollups. */
+    public boolean wholeMonths() {
+        return compareTo(MONTH) >= 0;
+    }
+
+    /** Start of the bucket holding {@code date}. */
+    public LocalDate bucketOf(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+            case QUARTER -> date.with(IsoFields.DAY_OF_QUARTER, 1);
+            case YEAR -> date.withDayOfYear(1);
+        };
+    }
+
+    /** Start of the bucket after the one starting at {@code bucket}. */
+    public LocalDate next(LocalDate bucket) {
+        return bucket.plus(1, step);
+    }
+
+    /** Number of buckets from the one starting at {@code first} to the one starting at {@code last}, both included. */
+    public long count(LocalDate first, LocalDate last) {
+        return step.between(first, last) + 1;
+    }
+}
@@ -1,7 +1,23 @@
 package com.example.finance.tracker.service.stats;
 
+import com.example.finance.tracker.dto.StatsBatchItemDTO;
 import com.example.finance.tracker.dto.StatsDTO;
+import com.example.finance.tracker.dto.TimeSeriesDTO;
+import com.example.finance.tracker.service.filter.TransactionFilter;
+
+import java.time.LocalDate;
+import java.util.List;
 
 public interface StatsService {
+    /** Most user IDs one batch stats request may carry. */
+    int MAX_BATCH_USERS = 100_000;
+    /** Most user IDs {@link #getUsersFinanceStats} reads at once. */
+    int BATCH_CHUNK_SIZE = 1_000;
+    /** Most buckets one time series may hold; about 27 years of days. */
+    int MAX_SERIES_BUCKETS = 10_000;
+
     StatsDTO getUserFinanceStats (Long userId);
+    StatsDTO getUserFinanceStats (Long userId, TransactionFilter filter);
+    List<StatsBatchItemDTO> getUsersFinanceStats (List<Long> userIds);
+    TimeSeriesDTO getUserFinanceSeries (Long userId, StatsGranularity granularity, LocalDate from, LocalDate to);
 }
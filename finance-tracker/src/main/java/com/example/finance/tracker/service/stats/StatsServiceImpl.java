@@ -1,78 +1,241 @@
 package com.example.finance.tracker.service.stats;
 
+import com.example.finance.tracker.dto.StatsBatchItemDTO;
 import com.example.finance.tracker.dto.StatsDTO;
+import com.example.finance.tracker.dto.TimeBucketDTO;
+import com.example.finance.tracker.dto.TimeSeriesDTO;
 import com.example.finance.tracker.entity.Expense;
 import com.example.finance.tracker.entity.Income;
-import com.example.finance.tracker.entity.User;
+import com.example.finance.tracker.entity.StatsSnapshot;
+import com.example.finance.tracker.exception.InvalidRangeException;
 import com.example.finance.tracker.exception.ResourceNotFoundException;
-import com.example.finance.tracker.repository.ExpenseRepository;
-import com.example.finance.tracker.repository.IncomeRepository;
+import com.example.finance.tracker.money.Money;
+import com.example.finance.tracker.repository.ExpenseRollupRepository;
+import com.example.finance.tracker.repository.IncomeRollupRepository;
+import com.example.finance.tracker.repository.MonthlyTotalQueries;
+import com.example.finance.tracker.repository.TimeSeriesQueries;
 import com.example.finance.tracker.repository.UserRepository;
+import com.example.finance.tracker.repository.projection.BucketTotal;
+import com.example.finance.tracker.repository.projection.MonthlyTotal;
+import com.example.finance.tracker.repository.projection.UserMonthlyTotal;
+import com.example.finance.tracker.service.columnar.TransactionColumnStore;
+import com.example.finance.tracker.service.filter.TransactionFilter;
+import com.example.finance.tracker.service.filter.TransactionSpecifications;
 import com.example.finance.tracker.service.income.IncomeServiceImpl;
+import com.example.finance.tracker.service.rollup.AccountingPeriods;
+import com.example.finance.tracker.service.version.DataVersionService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class StatsServiceImpl implements StatsService {
     private final UserRepository userRepository;
-    private final IncomeRepository incomeRepository;
-    private final ExpenseRepository expenseRepository;
+    private final IncomeRollupRepository incomeRollupRepository;
+    private final ExpenseRollupRepository expenseRollupRepository;
+    private final StatsCache statsCache;
+    private final DataVersionService dataVersionService;
+    private final MonthlyTotalQueries monthlyTotalQueries;
+    private final TransactionColumnStore transactionColumnStore;
+    private final TimeSeriesQueries timeSeriesQueries;
+    private final ClosedPeriodSnapshots closedPeriodSnapshots;
     private static final Logger logger = LoggerFactory.getLogger(IncomeServiceImpl.class);
 
     @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
     public StatsDTO getUserFinanceStats (Long userId){
         logger.info("Getting User Stats...");
-        User user  = userRepository.findById(userId)
-                .orElseThrow(()-> new ResourceNotFoundException(userId));
-        List<Income> incomes = incomeRepository.findAllByUserId(userId);
-        List<Expense> expenses = expenseRepository.findAllByUserId(userId);
+        // A missing user has no version; the computation below reports the 404.
+        long version = dataVersionService.currentVersion(userId).orElse(-1L);
+        return statsCache.get(userId, version, id -> computeStats(id, version));
+    }
 
-        double totalIncome = incomes.stream()
-                .mapToDouble(Income::getAmount).sum();
-        double totalExpenses = expenses.stream()
-                .mapToDouble(Expense::getAmount).sum();
-        double netBalance = totalIncome - totalExpenses;
-
-        Map<String, Double> expenseByCategory = expenses.stream()
-                .collect(Collectors.groupingBy(
-                        Expense::getCategory,
-                        Collectors.summingDouble(Expense::getAmount)
-                ));
-
-        Map<String, Double> incomeBySource = incomes.stream()
-                .collect(Collectors.groupingBy(
-                        Income::getSource,
-                        Collectors.summingDouble(Income::getAmount)
-                ));
+    /**
+     * Stats over the rows matching the filter. Rollups only know whole months
+     * per category/source, so filtered stats are scanned from the user's
+     * columns when the column store holds them, and otherwise grouped from the
+     * raw rows with the filter as SQL predicates. They are not cached.
+     */
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public StatsDTO getUserFinanceStats (Long userId, TransactionFilter filter){
+        if (filter.matchesAll()) {
+            return getUserFinanceStats(userId);
+        }
+        logger.info("Getting User Stats matching {}", filter);
+        Optional<StatsDTO> scanned = transactionColumnStore.stats(userId, filter);
+        if (scanned.isPresent()) {
+            return scanned.get();
+        }
+        requireUser(userId);
+        List<MonthlyTotal> incomes = monthlyTotalQueries.sumByMonth(
+                Income.class, "source", TransactionSpecifications.income(userId, filter));
+        List<MonthlyTotal> expenses = monthlyTotalQueries.sumByMonth(
+                Expense.class, "category", TransactionSpecifications.expenses(userId, filter));
+        return StatsAssembler.build(userId, incomes, expenses);
+    }
 
-        Map<String, Double> monthlyExpenses = expenses.stream()
-                .collect(Collectors.groupingBy(
-                        e -> e.getDate().toString().substring(0, 7),
-                        Collectors.summingDouble(Expense::getAmount)
-                ));
+    /**
+     * Stats of up to {@link #BATCH_CHUNK_SIZE} users from three reads: which of
+     * them exist, then the income and the expense rollups of all of them at
+     * once. Results follow the order of {@code userIds}, and an unknown ID is
+     * reported as {@code NOT_FOUND} instead of failing the rest. Batches skip
+     * the stats cache, whose key would cost a version read per user.
+     */
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public List<StatsBatchItemDTO> getUsersFinanceStats (List<Long> userIds){
+        if (userIds.size() > BATCH_CHUNK_SIZE) {
+            throw new IllegalArgumentException("At most " + BATCH_CHUNK_SIZE + " users can be read at once, got " + userIds.size());
+        }
+        logger.info("Getting stats for a batch of {} users", userIds.size());
+        Set<Long> requested = userIds.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<Long> existing = requested.isEmpty() ? Set.of() : userRepository.findExistingIds(requested);
+        Map<Long, List<MonthlyTotal>> incomes = Map.of();
+        Map<Long, List<MonthlyTotal>> expenses = Map.of();
+        if (!existing.isEmpty()) {
+            incomes = byUser(incomeRollupRepository.findMonthlyTotalsByUserIdIn(existing));
+            expenses = byUser(expenseRollupRepository.findMonthlyTotalsByUserIdIn(existing));
+        }
+        List<StatsBatchItemDTO> results = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            if (userId == null || !existing.contains(userId)) {
+                results.add(StatsBatchItemDTO.builder()
+                        .userId(userId)
+                        .status(StatsBatchItemDTO.Status.NOT_FOUND)
+                        .build());
+                continue;
+            }
+            results.add(StatsBatchItemDTO.builder()
+                    .userId(userId)
+                    .status(StatsBatchItemDTO.Status.OK)
+                    .stats(StatsAssembler.build(userId,
+                            incomes.getOrDefault(userId, List.of()), expenses.getOrDefault(userId, List.of())))
+                    .build());
+        }
+        return results;
+    }
 
-        Map<String, Double> monthlyIncome = incomes.stream()
-                .collect(Collectors.groupingBy(
-                        i -> i.getDate().toString().substring(0, 7),
-                        Collectors.summingDouble(Income::getAmount)
-                ));
+    /**
+     * Income and expenses per bucket from {@code from} to {@code to}, widened
+     * to whole buckets. The database sums and orders the non-empty buckets in
+     * one statement; the gaps between them are filled with zeros here, so the
+     * series holds every bucket of the range.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public TimeSeriesDTO getUserFinanceSeries (Long userId, StatsGranularity granularity, LocalDate from, LocalDate to){
+        if (to.isBefore(from)) {
+            throw new InvalidRangeException("'to' " + to + " is before 'from' " + from);
+        }
+        LocalDate first = granularity.bucketOf(from);
+        LocalDate last = granularity.bucketOf(to);
+        long buckets = granularity.count(first, last);
+        if (buckets > MAX_SERIES_BUCKETS) {
+            throw new InvalidRangeException(buckets + " " + granularity + " buckets, at most " + MAX_SERIES_BUCKETS + " allowed");
+        }
+        logger.info("Getting {} series for user ID {} from {} to {}", granularity, userId, first, last);
+        requireUser(userId);
+        LocalDate end = granularity.next(last).minusDays(1);
+        List<BucketTotal> totals = granularity.wholeMonths()
+                ? timeSeriesQueries.sumRollupsByBucket(userId, granularity.unit(), first, end)
+                : timeSeriesQueries.sumByBucket(userId, granularity.unit(), first, end);
 
-        return StatsDTO.builder()
+        List<TimeBucketDTO> series = new ArrayList<>((int) buckets);
+        Iterator<BucketTotal> rows = totals.iterator();
+        BucketTotal row = rows.hasNext() ? rows.next() : null;
+        for (LocalDate start = first; !start.isAfter(last); start = granularity.next(start)) {
+            long income = 0;
+            long expenses = 0;
+            if (row != null && row.start().equals(start)) {
+                income = row.incomeCents();
+                expenses = row.expenseCents();
+                row = rows.hasNext() ? rows.next() : null;
+            }
+            series.add(TimeBucketDTO.builder()
+                    .start(start)
+                    .income(Money.toAmount(income))
+                    .expenses(Money.toAmount(expenses))
+                    .net(Money.toAmount(income - expenses))
+                    .build());
+        }
+        return TimeSeriesDTO.builder()
                 .userId(userId)
-                .totalIncome(totalIncome)
-                .totalExpenses(totalExpenses)
-                .netBalance(netBalance)
-                .expenseByCategory(expenseByCategory)
-                .incomeBySource(incomeBySource)
-                .monthlyExpenses(monthlyExpenses)
-                .monthlyIncome(monthlyIncome)
+                .granularity(granularity)
+                .from(first)
+                .to(end)
+                .buckets(series)
                 .build();
-    };
+    }
+
+    private static Map<Long, List<MonthlyTotal>> byUser(List<UserMonthlyTotal> rows){
+        Map<Long, List<MonthlyTotal>> byUser = new HashMap<>();
+        for (UserMonthlyTotal row : rows) {
+            byUser.computeIfAbsent(row.userId(), id -> new ArrayList<>()).add(row.monthlyTotal());
+        }
+        return byUser;
+    }
+
+    private StatsDTO computeStats(Long userId, long version){
+        logger.debug("Computing stats for user ID {}", userId);
+        // Columns at this version imply the user exists.
+        Optional<StatsDTO> scanned = transactionColumnStore.stats(userId, version, TransactionFilter.NONE);
+        if (scanned.isPresent()) {
+            return scanned.get();
+        }
+        requireUser(userId);
+        // Closed months come from the user's snapshot while it is current, so only the
+        // open month's rollups are read. Otherwise all rollups are read, which is
+        // O(#groups) rows however many transactions the user has, and the closed ones
+        // become the new snapshot.
+        LocalDate openMonth = AccountingPeriods.openMonth();
+        long closedVersion = dataVersionService.closedVersion(userId);
+        Optional<StatsSnapshot.Totals> closed = closedPeriodSnapshots.find(userId, closedVersion, openMonth);
+        if (closed.isPresent()) {
+            List<MonthlyTotal> incomes = concat(closed.get().incomes(),
+                    incomeRollupRepository.findMonthlyTotalsByUserIdFrom(userId, openMonth));
+            List<MonthlyTotal> expenses = concat(closed.get().expenses(),
+                    expenseRollupRepository.findMonthlyTotalsByUserIdFrom(userId, openMonth));
+            return StatsAssembler.build(userId, incomes, expenses);
+        }
+        List<MonthlyTotal> incomes = incomeRollupRepository.findMonthlyTotalsByUserId(userId);
+        List<MonthlyTotal> expenses = expenseRollupRepository.findMonthlyTotalsByUserId(userId);
+        closedPeriodSnapshots.store(userId, closedVersion, openMonth,
+                new StatsSnapshot.Totals(before(incomes, openMonth), before(expenses, openMonth)));
+        return StatsAssembler.build(userId, incomes, expenses);
+    }
+
+    private static List<MonthlyTotal> before(List<MonthlyTotal> rows, LocalDate month){
+        return rows.stream()
+                .filter(row -> LocalDate.of(row.year(), row.month(), 1).isBefore(month))
+                .toList();
+    }
+
+    private static List<MonthlyTotal> concat(List<MonthlyTotal> closed, List<MonthlyTotal> open){
+        List<MonthlyTotal> rows = new ArrayList<>(closed.size() + open.size());
+        rows.addAll(closed);
+        rows.addAll(open);
+        return rows;
+    }
+
+    private void requireUser(Long userId){
+        if (!userRepository.isKnownUser(userId)) {
+            throw new ResourceNotFoundException(userId);
+        }
+    }
 }
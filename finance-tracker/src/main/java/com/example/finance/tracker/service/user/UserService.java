@@ -1,5 +1,6 @@
 package com.example.finance.tracker.service.user;
 
+import com.example.finance.tracker.dto.CursorPageDTO;
 import com.example.finance.tracker.dto.UserDTO;
 import com.example.finance.tracker.entity.User;
 
@@ -11,4 +12,5 @@ public interface UserService {
     UserDTO getUserByID(Long id);
     UserDTO updateUser(Long id, UserDTO userDTO);
     void deleteUser(Long id);
+    CursorPageDTO<UserDTO> getUserPage(int limit, String after);
 }
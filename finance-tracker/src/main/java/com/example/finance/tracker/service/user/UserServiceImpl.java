@@ -1,16 +1,23 @@
 package com.example.finance.tracker.service.user;
 
+import com.example.finance.tracker.datasource.RecentWrites;
+import com.example.finance.tracker.dto.CursorPageDTO;
 import com.example.finance.tracker.dto.UserDTO;
 import com.example.finance.tracker.entity.User;
 import com.example.finance.tracker.exception.ResourceNotFoundException;
 import com.example.finance.tracker.exception.UserNotFoundException;
 import com.example.finance.tracker.repository.UserRepository;
+import com.example.finance.tracker.service.pagination.KeysetCursor;
+import com.example.finance.tracker.service.rollup.RollupService;
+import com.example.finance.tracker.service.stats.ClosedPeriodSnapshots;
+import com.example.finance.tracker.service.version.DataVersionService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -20,6 +27,10 @@ import java.util.stream.Collectors;
 
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final RollupService rollupService;
+    private final RecentWrites recentWrites;
+    private final DataVersionService dataVersionService;
+    private final ClosedPeriodSnapshots closedPeriodSnapshots;
     private static final Logger logger = LoggerFactory.getLogger(UserServiceImpl.class);
     @Override
     public UserDTO postUser(UserDTO userDTO) {
@@ -27,7 +38,9 @@ public class UserServiceImpl implements UserService {
         user.setUsername(userDTO.getUsername());
         user.setEmail(userDTO.getEmail());
         logger.info("Posting new user with ID:{}",userDTO.getId());
-        return userRepository.save(user).getUserDto();
+        UserDTO saved = userRepository.save(user).getUserDto();
+        recentWrites.record(saved.getId());
+        return saved;
     }
 
     private User saveOrUpdateUser(User user, UserDTO userDTO) {
@@ -39,15 +52,16 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<UserDTO> getAllUsers() {
         logger.info("Getting all users...");
-        return userRepository.findAll().stream()
-                .sorted(Comparator.comparing(User::getId).reversed())
+        return userRepository.findAllByOrderByIdDesc().stream()
                 .map(User:: getUserDto)
                 .collect(Collectors.toList());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UserDTO getUserByID(Long id) {
         Optional<User> optionalUser = userRepository.findById(id);
         if (optionalUser.isPresent()) {
@@ -63,16 +77,22 @@ public class UserServiceImpl implements UserService {
         Optional<User> optionalIncome = userRepository.findById(id);
         logger.info("Updating user with ID {}...",userDTO.getId());
         if (optionalIncome.isPresent()) {
-            return saveOrUpdateUser(optionalIncome.get(), userDTO).getUserDto();
+            UserDTO updated = saveOrUpdateUser(optionalIncome.get(), userDTO).getUserDto();
+            recentWrites.record(id);
+            return updated;
         } else {
             throw new UserNotFoundException(id);
         }
     }
 
     @Override
+    @Transactional
     public void deleteUser(Long id) {
-        if (userRepository.existsById(id)) {
+        if (userRepository.isKnownUser(id)) {
             logger.info("Deleting user with ID {}...",id);
+            rollupService.deleteForUser(id);
+            closedPeriodSnapshots.deleteForUser(id);
+            dataVersionService.deleteForUser(id);
             userRepository.deleteById(id);
         } else {
             logger.error("User with ID {} not found",id);
@@ -80,4 +100,16 @@ public class UserServiceImpl implements UserService {
         }
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<UserDTO> getUserPage(int limit, String after) {
+        int pageSize = KeysetCursor.clampPageSize(limit);
+        logger.info("Getting page of {} users after cursor {}", pageSize, after);
+        Limit fetch = Limit.of(pageSize + 1);
+        List<User> rows = after == null
+                ? userRepository.findByOrderByIdDesc(fetch)
+                : userRepository.findByIdLessThanOrderByIdDesc(KeysetCursor.decode(after, false).id(), fetch);
+        return KeysetCursor.page(rows, pageSize, u -> new KeysetCursor(null, u.getId()), User::getUserDto);
+    }
+
 }
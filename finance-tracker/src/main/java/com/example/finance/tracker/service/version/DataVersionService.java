@@ -0,0 +1,19 @@
+package com.example.finance.tracker.service.version;
+
+import java.util.Optional;
+
+public interface DataVersionService {
+    Optional<Long> currentVersion(Long userId);
+    Optional<String> eTag(Long userId);
+
+    /** Version of the user's closed accounting periods; zero until one of them first changes. */
+    long closedVersion(Long userId);
+
+    /** Drops the user's versions, in the transaction deleting the user. */
+    void deleteForUser(Long userId);
+
+    /** Strong ETag for any per-user resource at the given data version. */
+    static String eTagOf(Long userId, long version) {
+        return "\"" + userId + "-" + version + "\"";
+    }
+}
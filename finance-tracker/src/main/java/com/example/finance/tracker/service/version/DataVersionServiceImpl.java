@@ -0,0 +1,65 @@
+package com.example.finance.tracker.service.version;
+
+import com.example.finance.tracker.repository.UserDataVersionRepository;
+import com.example.finance.tracker.service.event.ClosedPeriodChangedEvent;
+import com.example.finance.tracker.service.event.UserDataChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Per-user data version. It is bumped inside the writing transaction, so it
+ * becomes visible together with the data it describes: a reader that sees
+ * version N also sees every write up to N.
+ */
+@Service
+@RequiredArgsConstructor
+public class DataVersionServiceImpl implements DataVersionService {
+    private final UserDataVersionRepository userDataVersionRepository;
+    private static final Logger logger = LoggerFactory.getLogger(DataVersionServiceImpl.class);
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> currentVersion(Long userId) {
+        return userDataVersionRepository.findVersionOfUser(userId);
+    }
+
+    /** Strong ETag for any per-user resource; empty when the user does not exist. */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<String> eTag(Long userId) {
+        return currentVersion(userId).map(version -> DataVersionService.eTagOf(userId, version));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long closedVersion(Long userId) {
+        return userDataVersionRepository.findClosedVersion(userId).orElse(0L);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deleteForUser(Long userId) {
+        userDataVersionRepository.deleteAllByUserId(userId);
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onClosedPeriodChanged(ClosedPeriodChangedEvent event) {
+        logger.debug("Bumping closed-period version for user ID {}", event.userId());
+        userDataVersionRepository.bumpClosed(event.userId());
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onUserDataChanged(UserDataChangedEvent event) {
+        logger.debug("Bumping data version for user ID {}", event.userId());
+        userDataVersionRepository.bump(event.userId());
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.finance.tracker.service.writebehind;
+
+import com.example.finance.tracker.dto.ExpenseDTO;
+import com.example.finance.tracker.dto.IncomeDTO;
+import com.example.finance.tracker.entity.Expense;
+import com.example.finance.tracker.entity.Income;
+import com.example.finance.tracker.entity.User;
+import com.example.finance.tracker.money.Money;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * An acknowledged expense or income that may not be in the database yet. The
+ * id is reserved from the table's sequence when the write is accepted, so the
+ * response carries the id the row will be stored under. {@code label} is the
+ * category of an expense or the source of an income, and {@code title} is
+ * always null for income.
+ */
+public record PendingWrite(Kind kind, long id, long userId, String title, String description,
+                           LocalDate date, String label, long amountCents) {
+
+    public enum Kind {
+        EXPENSE, INCOME
+    }
+
+    static PendingWrite expense(long id, ExpenseDTO dto) {
+        return new PendingWrite(Kind.EXPENSE, id, dto.getUserId(), dto.getTitle(), dto.getDescription(),
+                dto.getDate(), dto.getCategory(), Money.toCents(dto.getAmount()));
+    }
+
+    static PendingWrite income(long id, IncomeDTO dto) {
+        return new PendingWrite(Kind.INCOME, id, dto.getUserId(), null, dto.getDescription(),
+                dto.getDate(), dto.getSource(), Money.toCents(dto.getAmount()));
+    }
+
+    ExpenseDTO toExpenseDto() {
+        return new ExpenseDTO(id, title, description, date, label, amountCents, userId);
+    }
+
+    IncomeDTO toIncomeDto() {
+        return new IncomeDTO(id, label, description, date, amountCents, userId);
+    }
+
+    /** The stored row, with a user reference that only carries the id. */
+    Expense toExpense() {
+        Expense expense = new Expense();
+        expense.setId(id);
+        expense.setTitle(title);
+        expense.setDescription(description);
+        expense.setDate(date);
+        expense.setCategory(label);
+        expense.setAmountCents(amountCents);
+        expense.setUser(user());
+        return expense;
+    }
+
+    /** The stored row, with a user reference that only carries the id. */
+    Income toIncome() {
+        Income income = new Income();
+        income.setId(id);
+        income.setSource(label);
+        income.setDescription(description);
+        income.setDate(date);
+        income.setAmountCents(amountCents);
+        income.setUser(user());
+        return income;
+    }
+
+    private User user() {
+        User user = new User();
+        user.setId(userId);
+        return user;
+    }
+
+    /** Journal payload: kind, ids, epoch day and cents, then the three strings, each null-able. */
+    byte[] encode() {
+        byte[][] strings = {utf8(title), utf8(description), utf8(label)};
+        int size = 1 + 8 + 8 + 4 + 8;
+        for (byte[] string : strings) {
+            size += 4 + (string == null ? 0 : string.length);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size)
+                .put((byte) kind.ordinal())
+                .putLong(id)
+                .putLong(userId)
+                .putInt(Math.toIntExact(date.toEpochDay()))
+                .putLong(amountCents);
+        for (byte[] string : strings) {
+            if (string == null) {
+                buffer.putInt(-1);
+            } else {
+                buffer.putInt(string.length).put(string);
+            }
+        }
+        return buffer.array();
+    }
+
+    static PendingWrite decode(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        Kind kind = Kind.values()[buffer.get()];
+        long id = buffer.getLong();
+        long userId = buffer.getLong();
+        LocalDate date = LocalDate.ofEpochDay(buffer.getInt());
+        long amountCents = buffer.getLong();
+        String title = string(buffer);
+        String description = string(buffer);
+        String label = string(buffer);
+        return new PendingWrite(kind, id, userId, title, description, date, label, amountCents);
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
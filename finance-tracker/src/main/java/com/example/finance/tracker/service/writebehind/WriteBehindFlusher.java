@@ -0,0 +1,111 @@
+package com.example.finance.tracker.service.writebehind;
+
+import com.example.finance.tracker.entity.Expense;
+import com.example.finance.tracker.entity.Income;
+import com.example.finance.tracker.repository.ExpenseRepository;
+import com.example.finance.tracker.repository.IncomeRepository;
+import com.example.finance.tracker.repository.UserRepository;
+import com.example.finance.tracker.service.columnar.TransactionColumnStore;
+import com.example.finance.tracker.service.label.LabelDictionary;
+import com.example.finance.tracker.service.rollup.RollupService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Stores a batch of {@link PendingWrite}s with their reserved ids as JDBC
+ * batches, and applies them to the rollups and the column store exactly as
+ * the synchronous write paths do.
+ */
+@Component
+@RequiredArgsConstructor
+public class WriteBehindFlusher {
+    private static final String INSERT_EXPENSE = "INSERT INTO expense " +
+            "(id, user_id, title, description, date, amount_cents, category_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_INCOME = "INSERT INTO income " +
+            "(id, user_id, description, date, amount_cents, source_id) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+    private final ExpenseRepository expenseRepository;
+    private final IncomeRepository incomeRepository;
+    private final RollupService rollupService;
+    private final TransactionColumnStore transactionColumnStore;
+    private final LabelDictionary labelDictionary;
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindFlusher.class);
+
+    /**
+     * Always commits on its own, so the caller only marks the journal once the
+     * rows are durable. Writes already stored, which a crash between this
+     * commit and that mark would replay, are skipped, as are writes for users
+     * deleted since they were accepted.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void store(List<PendingWrite> writes) {
+        Set<Long> users = userRepository.findExistingIds(
+                writes.stream().map(PendingWrite::userId).collect(Collectors.toSet()));
+        Set<Long> storedExpenses = existing(writes, PendingWrite.Kind.EXPENSE);
+        Set<Long> storedIncome = existing(writes, PendingWrite.Kind.INCOME);
+
+        List<Expense> expenses = new ArrayList<>();
+        List<Income> incomes = new ArrayList<>();
+        for (PendingWrite write : writes) {
+            if (!users.contains(write.userId())) {
+                logger.warn("Dropping pending {} {}: user ID {} no longer exists", write.kind(), write.id(), write.userId());
+            } else if (write.kind() == PendingWrite.Kind.EXPENSE) {
+                if (!storedExpenses.contains(write.id())) {
+                    expenses.add(write.toExpense());
+                }
+            } else if (!storedIncome.contains(write.id())) {
+                incomes.add(write.toIncome());
+            }
+        }
+        if (!expenses.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_EXPENSE, expenses, expenses.size(), (statement, expense) -> {
+                statement.setLong(1, expense.getId());
+                statement.setLong(2, expense.getUser().getId());
+                statement.setString(3, expense.getTitle());
+                statement.setString(4, expense.getDescription());
+                statement.setDate(5, Date.valueOf(expense.getDate()));
+                statement.setLong(6, expense.getAmountCents());
+                statement.setInt(7, labelDictionary.idOf(expense.getCategory()));
+            });
+            rollupService.addExpenses(expenses);
+            transactionColumnStore.expensesAdded(expenses);
+        }
+        if (!incomes.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_INCOME, incomes, incomes.size(), (statement, income) -> {
+                statement.setLong(1, income.getId());
+                statement.setLong(2, income.getUser().getId());
+                statement.setString(3, income.getDescription());
+                statement.setDate(4, Date.valueOf(income.getDate()));
+                statement.setLong(5, income.getAmountCents());
+                statement.setInt(6, labelDictionary.idOf(income.getSource()));
+            });
+            rollupService.addIncomes(incomes);
+            transactionColumnStore.incomesAdded(incomes);
+        }
+        logger.debug("Stored {} expenses and {} incomes of {} pending writes",
+                expenses.size(), incomes.size(), writes.size());
+    }
+
+    private Set<Long> existing(List<PendingWrite> writes, PendingWrite.Kind kind) {
+        List<Long> ids = writes.stream().filter(write -> write.kind() == kind).map(PendingWrite::id).toList();
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        return kind == PendingWrite.Kind.EXPENSE
+                ? expenseRepository.findExistingIds(ids)
+                : incomeRepository.findExistingIds(ids);
+    }
+}
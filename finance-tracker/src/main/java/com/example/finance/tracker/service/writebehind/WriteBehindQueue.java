@@ -0,0 +1,395 @@
+package com.example.finance.tracker.service.writebehind;
+
+import com.example.finance.tracker.concurrency.DatabaseConcurrencyLimiter;
+import com.example.finance.tracker.dto.ExpenseDTO;
+import com.example.finance.tracker.dto.IncomeDTO;
+import com.example.finance.tracker.exception.UserNotFoundException;
+import com.example.finance.tracker.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Opt-in write-behind for single expense and income posts, enabled with
+ * {@code finance.write-behind.enabled=true}. A post checks the user, reserves
+ * an id and appends the write to a memory-mapped {@link WriteJournal}, then
+ * returns without a database transaction. A background thread stores what is
+ * queued every {@code finance.write-behind.flush-interval}, or as soon as
+ * {@code finance.write-behind.batch-size} writes are waiting, in one
+ * transaction per batch.
+ * <p>
+ * Nothing reads around the queue: a request that could observe a pending
+ * write calls {@link #awaitFlushed(Long)} or {@link #awaitFlushed()} first,
+ * which stores the queue on the calling thread if it holds anything for that
+ * user. Data versions, ETags, cached stats and the column store therefore only
+ * ever describe stored rows. Records left in the journal by a crash are
+ * stored on startup, before the web server accepts requests.
+ */
+@Component
+public class WriteBehindQueue implements SmartLifecycle, MeterBinder {
+    /** Ids covered by one nextval; must match the allocationSize of expense_seq and income_seq. */
+    private static final int ID_BLOCK = 50;
+    private static final int APPEND_ATTEMPTS = 3;
+
+    private final boolean enabled;
+    private final Path journalPath;
+    private final int journalBytes;
+    private final boolean force;
+    private final Duration flushInterval;
+    private final int batchSize;
+    private final UserRepository userRepository;
+    private final WriteBehindFlusher flusher;
+    private final DatabaseConcurrencyLimiter databaseConcurrencyLimiter;
+    private final JdbcTemplate jdbcTemplate;
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindQueue.class);
+
+    // Guards the journal and the queue; appends keep both in the same order.
+    private final Object lock = new Object();
+    // Held for a whole flush, so writes are stored in order and at most once.
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ArrayDeque<Queued> queue = new ArrayDeque<>();
+    private final Map<Long, Integer> pendingByUser = new ConcurrentHashMap<>();
+    private final IdBlock expenseIds = new IdBlock("expense_seq");
+    private final IdBlock incomeIds = new IdBlock("income_seq");
+    private WriteJournal journal;
+    private ScheduledExecutorService flushThread;
+    private volatile boolean running;
+
+    public WriteBehindQueue(@Value("${finance.write-behind.enabled:false}") boolean enabled,
+                            @Value("${finance.write-behind.journal:data/write-behind.journal}") Path journalPath,
+                            @Value("${finance.write-behind.journal-size:64MB}") DataSize journalSize,
+                            @Value("${finance.write-behind.force:true}") boolean force,
+                            @Value("${finance.write-behind.flush-interval:200ms}") Duration flushInterval,
+                            @Value("${finance.write-behind.batch-size:500}") int batchSize,
+                            UserRepository userRepository,
+                            WriteBehindFlusher flusher,
+                            DatabaseConcurrencyLimiter databaseConcurrencyLimiter,
+                            JdbcTemplate jdbcTemplate) {
+        this.enabled = enabled;
+        this.journalPath = journalPath;
+        this.journalBytes = Math.toIntExact(journalSize.toBytes());
+        this.force = force;
+        this.flushInterval = flushInterval;
+        this.batchSize = batchSize;
+        this.userRepository = userRepository;
+        this.flusher = flusher;
+        this.databaseConcurrencyLimiter = databaseConcurrencyLimiter;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public ExpenseDTO postExpense(ExpenseDTO expenseDTO) {
+        validate(expenseDTO.getDate(), expenseDTO.getCategory(), expenseDTO.getAmount(), expenseDTO.getUserId());
+        PendingWrite write = PendingWrite.expense(expenseIds.next(), expenseDTO);
+        append(write);
+        logger.info("Queued expense with ID:{} for user ID:{}", write.id(), write.userId());
+        return write.toExpenseDto();
+    }
+
+    public IncomeDTO postIncome(IncomeDTO incomeDTO) {
+        validate(incomeDTO.getDate(), incomeDTO.getSource(), incomeDTO.getAmount(), incomeDTO.getUserId());
+        PendingWrite write = PendingWrite.income(incomeIds.next(), incomeDTO);
+        append(write);
+        logger.info("Queued income with ID:{} for user ID:{}", write.id(), write.userId());
+        return write.toIncomeDto();
+    }
+
+    /** Whether the user has accepted writes that are not stored yet. */
+    public boolean hasPending(Long userId) {
+        return enabled && pendingByUser.containsKey(userId);
+    }
+
+    /** Returns once every write accepted so far for the user is stored. */
+    public void awaitFlushed(Long userId) {
+        if (hasPending(userId)) {
+            flushHoldingSlot();
+        }
+    }
+
+    /** Returns once every write accepted so far is stored. */
+    public void awaitFlushed() {
+        if (enabled && !pendingByUser.isEmpty()) {
+            flushHoldingSlot();
+        }
+    }
+
+    public int pendingCount() {
+        synchronized (lock) {
+            return queue.size();
+        }
+    }
+
+    /**
+     * Opens the journal and stores anything a previous run left in it. Runs
+     * before the web server starts and stops after it, so no request sees
+     * the queue closed.
+     */
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            journal = new WriteJournal(journalPath, journalBytes, force);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open write-behind journal " + journalPath, e);
+        }
+        List<WriteJournal.Replayed> replayed = journal.replay();
+        for (WriteJournal.Replayed record : replayed) {
+            PendingWrite write = PendingWrite.decode(record.payload());
+            queue.add(new Queued(write, record.end()));
+            pendingByUser.merge(write.userId(), 1, Integer::sum);
+        }
+        if (!replayed.isEmpty()) {
+            logger.info("Replaying {} pending writes from {}", replayed.size(), journalPath);
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                logger.warn("Could not store replayed writes yet; the flush thread retries them", e);
+            }
+        }
+        flushThread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "write-behind-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushThread.scheduleWithFixedDelay(this::flushInBackground,
+                flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        running = true;
+        logger.info("Write-behind enabled with journal {} ({} bytes)", journalPath, journal.capacity());
+    }
+
+    /** Stores what is queued, then closes the journal. */
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        flushThread.shutdown();
+        try {
+            flushThread.awaitTermination(30, TimeUnit.SECONDS);
+            flush();
+            journal.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Write-behind stopped with {} writes still in {}; they are replayed on the next start",
+                    pendingCount(), journalPath, e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Below the web server's start/stop phase (DEFAULT_PHASE - 2048).
+        return DEFAULT_PHASE - 4096;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("finance.write.behind.pending", this, WriteBehindQueue::pendingCount)
+                .description("Accepted expense and income writes not yet stored")
+                .register(registry);
+    }
+
+    /**
+     * Checks everything the flusher binds to a NOT NULL column up front: a
+     * write accepted here must be storable later, when no client is left to
+     * tell it was not.
+     */
+    private void validate(LocalDate date, String label, Double amount, Long userId) {
+        if (date == null || label == null || label.isBlank() || amount == null || amount < 0) {
+            throw new IllegalArgumentException(
+                    "Invalid input: date, category or source are required and amount must be non-negative.");
+        }
+        if (!userRepository.isKnownUser(userId)) {
+            logger.error("User with ID {}  not found", userId);
+            throw new UserNotFoundException(userId);
+        }
+    }
+
+    private void append(PendingWrite write) {
+        if (!running) {
+            throw new IllegalStateException("Write-behind is not running");
+        }
+        byte[] payload = write.encode();
+        for (int attempt = 1; ; attempt++) {
+            int end;
+            int queued;
+            synchronized (lock) {
+                end = journal.append(payload);
+                if (end >= 0) {
+                    queue.add(new Queued(write, end));
+                    pendingByUser.merge(write.userId(), 1, Integer::sum);
+                }
+                queued = queue.size();
+            }
+            if (end >= 0) {
+                journal.forceRecord(end, payload.length);
+                if (queued == batchSize) {
+                    flushThread.execute(this::flushInBackground);
+                }
+                return;
+            }
+            if (attempt == APPEND_ATTEMPTS) {
+                throw new IllegalStateException("Write-behind journal " + journalPath + " is full");
+            }
+            // Storing the queue lets the journal compact and make room.
+            flushHoldingSlot();
+        }
+    }
+
+    private void flushInBackground() {
+        if (pendingByUser.isEmpty()) {
+            return;
+        }
+        try {
+            databaseConcurrencyLimiter.run(this::flush);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.warn("Could not store {} pending writes; retrying in {} ms", pendingCount(),
+                    flushInterval.toMillis(), e);
+        }
+    }
+
+    private void flushHoldingSlot() {
+        try {
+            databaseConcurrencyLimiter.run(this::flush);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while storing pending writes", e);
+        }
+    }
+
+    /** Stores everything queued when it starts, in batches, and reclaims journal space. */
+    private void flush() {
+        flushLock.lock();
+        try {
+            List<Queued> pending;
+            synchronized (lock) {
+                pending = new ArrayList<>(queue);
+            }
+            for (int from = 0; from < pending.size(); from += batchSize) {
+                List<Queued> batch = pending.subList(from, Math.min(from + batchSize, pending.size()));
+                store(batch.stream().map(Queued::write).toList());
+                synchronized (lock) {
+                    for (Queued stored : batch) {
+                        queue.removeFirst();
+                        pendingByUser.computeIfPresent(stored.write.userId(), (id, count) -> count == 1 ? null : count - 1);
+                    }
+                    journal.markFlushed(batch.get(batch.size() - 1).end);
+                    int moved = journal.compact();
+                    if (moved > 0) {
+                        queue.forEach(queued -> queued.end -= moved);
+                    }
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Stores a batch; if it fails for any reason but an unreachable or busy
+     * database, stores its writes one at a time and drops only those that
+     * fail again, so one bad write cannot hold up the rest of the queue.
+     * Transient failures propagate and the whole batch is retried; writes
+     * already stored one at a time are skipped then.
+     */
+    private void store(List<PendingWrite> writes) {
+        try {
+            flusher.store(writes);
+        } catch (RuntimeException e) {
+            if (isTransient(e)) {
+                throw e;
+            }
+            logger.warn("Batch of {} pending writes was rejected; storing them one at a time", writes.size(), e);
+            for (PendingWrite write : writes) {
+                try {
+                    flusher.store(List.of(write));
+                } catch (RuntimeException rejected) {
+                    if (isTransient(rejected)) {
+                        throw rejected;
+                    }
+                    logger.error("Dropping pending write {}: {}", write, rejected.toString());
+                }
+            }
+        }
+    }
+
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof TransactionException;
+    }
+
+    /** A queued write and the journal offset just past its record. */
+    private static final class Queued {
+        final PendingWrite write;
+        int end;
+
+        Queued(PendingWrite write, int end) {
+            this.write = write;
+            this.end = end;
+        }
+
+        PendingWrite write() {
+            return write;
+        }
+    }
+
+    /** Hands out ids from sequence blocks exactly as Hibernate's pooled optimizer does. */
+    private final class IdBlock {
+        private final String sequence;
+        private long next = 1;
+        private long hi = 0;
+
+        IdBlock(String sequence) {
+            this.sequence = sequence;
+        }
+
+        synchronized long next() {
+            if (next > hi) {
+                hi = jdbcTemplate.queryForObject("SELECT nextval('" + sequence + "')", Long.class);
+                next = hi - (ID_BLOCK - 1);
+            }
+            return next++;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.finance.tracker.service.writebehind;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal in one memory-mapped file. A 16-byte header holds a
+ * magic number and the offset up to which records are in the database;
+ * records follow as {@code [length][crc][payload]}. Every append also writes
+ * a zero length after its record, which the next append overwrites, so replay
+ * stops at the last complete record.
+ * <p>
+ * Records that are in the database are reclaimed by {@link #compact}, which
+ * moves the unflushed tail to the front of the file. Not thread-safe; callers
+ * serialise appends, marks and compaction.
+ */
+final class WriteJournal implements Closeable {
+    static final int HEADER_BYTES = 16;
+    private static final int MAGIC = 0x46545742;
+    private static final int FLUSHED_AT = 8;
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final int TERMINATOR_BYTES = 4;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final boolean force;
+    private int flushedOffset;
+    private int writeOffset;
+
+    /**
+     * @param force whether each append, mark and compaction is forced to disk
+     *              before returning; without it a record survives a crash of
+     *              the process but not of the machine
+     */
+    WriteJournal(Path path, int capacity, boolean force) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        // Never map less than an earlier, larger journal wrote.
+        long size = Math.min(Integer.MAX_VALUE, Math.max(capacity, channel.size()));
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        this.force = force;
+        if (buffer.getInt(0) != MAGIC) {
+            buffer.putInt(HEADER_BYTES, 0);
+            buffer.putLong(FLUSHED_AT, HEADER_BYTES);
+            buffer.putInt(0, MAGIC);
+            force(0, HEADER_BYTES + TERMINATOR_BYTES);
+        }
+        this.flushedOffset = (int) buffer.getLong(FLUSHED_AT);
+        this.writeOffset = flushedOffset;
+    }
+
+    /**
+     * Payloads of the complete records not yet marked flushed, oldest first,
+     * each with the offset just past it. Appends continue after the last one.
+     */
+    List<Replayed> replay() {
+        List<Replayed> records = new ArrayList<>();
+        int offset = flushedOffset;
+        while (offset + RECORD_HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(offset);
+            int end = offset + RECORD_HEADER_BYTES + length;
+            if (length <= 0 || end < 0 || end + TERMINATOR_BYTES > buffer.capacity()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(offset + RECORD_HEADER_BYTES, payload);
+            if (crc(payload) != buffer.getInt(offset + 4)) {
+                break;
+            }
+            records.add(new Replayed(payload, end));
+            offset = end;
+        }
+        writeOffset = offset;
+        return records;
+    }
+
+    /** Appends a record and returns the offset just past it, or -1 when it does not fit. */
+    int append(byte[] payload) {
+        int start = writeOffset;
+        int end = start + RECORD_HEADER_BYTES + payload.length;
+        if (end + TERMINATOR_BYTES > buffer.capacity()) {
+            return -1;
+        }
+        buffer.put(start + RECORD_HEADER_BYTES, payload);
+        buffer.putInt(end, 0);
+        buffer.putInt(start + 4, crc(payload));
+        buffer.putInt(start, payload.length);
+        writeOffset = end;
+        return end;
+    }
+
+    /** Forces the record ending at {@code end} to disk; may run concurrently with appends. */
+    void forceRecord(int end, int payloadLength) {
+        int start = end - RECORD_HEADER_BYTES - payloadLength;
+        force(start, end + TERMINATOR_BYTES - start);
+    }
+
+    /** Records up to {@code offset} are in the database and will not be replayed. */
+    void markFlushed(int offset) {
+        flushedOffset = offset;
+        buffer.putLong(FLUSHED_AT, offset);
+        force(FLUSHED_AT, 8);
+    }
+
+    /**
+     * Once past half the file, moves the unflushed records to just after the
+     * header and returns how many bytes they moved back by, or 0 if nothing
+     * moved. It only moves them when they fit, terminator included, into the
+     * flushed space before them, so the copy never overwrites a record that
+     * replay could still need if the process dies before the header is
+     * updated.
+     */
+    int compact() {
+        int moved = flushedOffset - HEADER_BYTES;
+        int live = writeOffset - flushedOffset;
+        if (flushedOffset < buffer.capacity() / 2 || live + TERMINATOR_BYTES > moved) {
+            return 0;
+        }
+        buffer.put(HEADER_BYTES, buffer, flushedOffset, live);
+        buffer.putInt(HEADER_BYTES + live, 0);
+        force(HEADER_BYTES, live + TERMINATOR_BYTES);
+        markFlushed(HEADER_BYTES);
+        writeOffset = HEADER_BYTES + live;
+        return moved;
+    }
+
+    /** Bytes held by records not yet marked flushed. */
+    int pendingBytes() {
+        return writeOffset - flushedOffset;
+    }
+
+    int capacity() {
+        return buffer.capacity();
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private void force(int index, int length) {
+        if (force) {
+            buffer.force(index, length);
+        }
+    }
+
+    private static int crc(byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    record Replayed(byte[] payload, int end) {
+    }
+}
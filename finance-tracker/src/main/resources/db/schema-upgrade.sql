@@ -0,0 +1,103 @@
+-- Runs on every start, after Hibernate has applied ddl-auto=update, so every
+-- statement here must be idempotent. Statements end with ^; so that PL/pgSQL
+-- bodies can contain plain semicolons.
+
+-- Expense and income ids moved from IDENTITY columns to pooled sequences.
+-- Keep each sequence ahead of ids that were issued by the old identity column.
+SELECT setval('expense_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM expense),
+                                      (SELECT last_value FROM expense_seq)))^;
+SELECT setval('income_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM income),
+                                     (SELECT last_value FROM income_seq)))^;
+
+-- Expense categories and income sources moved from text columns to ids in the
+-- label dictionary. Hibernate has created the label table by now, but could not
+-- add the NOT NULL id columns to tables that already have rows. Each text
+-- column is converted in place, which rewrites the table and its indexes once,
+-- and then renamed. A table that still had no rows got the new column from
+-- Hibernate; that column is dropped first because it is empty anyway.
+CREATE OR REPLACE FUNCTION pg_temp.label_id(label_name text) RETURNS integer AS $$
+    SELECT id FROM label WHERE name = label_name
+$$ LANGUAGE sql STABLE^;
+
+CREATE OR REPLACE FUNCTION pg_temp.encode_labels(tbl text, name_column text, id_column text) RETURNS void AS $$
+DECLARE
+    unique_constraint text;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = current_schema() AND table_name = tbl AND column_name = name_column) THEN
+        RETURN;
+    END IF;
+    RAISE NOTICE 'Encoding %.% as label ids', tbl, name_column;
+    EXECUTE format('INSERT INTO label (name) SELECT DISTINCT %I FROM %I ORDER BY 1 ON CONFLICT (name) DO NOTHING',
+                   name_column, tbl);
+    -- Rollup unique keys are recreated below under the names the entities give them.
+    FOR unique_constraint IN
+        SELECT conname FROM pg_constraint WHERE conrelid = tbl::regclass AND contype = 'u'
+    LOOP
+        EXECUTE format('ALTER TABLE %I DROP CONSTRAINT %I', tbl, unique_constraint);
+    END LOOP;
+    EXECUTE format('ALTER TABLE %I DROP COLUMN IF EXISTS %I', tbl, id_column);
+    EXECUTE format('ALTER TABLE %I ALTER COLUMN %I TYPE integer USING pg_temp.label_id(%I)',
+                   tbl, name_column, name_column);
+    EXECUTE format('ALTER TABLE %I RENAME COLUMN %I TO %I', tbl, name_column, id_column);
+END
+$$ LANGUAGE plpgsql^;
+
+SELECT pg_temp.encode_labels('expense', 'category', 'category_id')^;
+SELECT pg_temp.encode_labels('income', 'source', 'source_id')^;
+SELECT pg_temp.encode_labels('expense_rollup', 'category', 'category_id')^;
+SELECT pg_temp.encode_labels('income_rollup', 'source', 'source_id')^;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_expense_rollup_group') THEN
+        ALTER TABLE expense_rollup ADD CONSTRAINT uk_expense_rollup_group UNIQUE (user_id, month_start, category_id);
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_income_rollup_group') THEN
+        ALTER TABLE income_rollup ADD CONSTRAINT uk_income_rollup_group UNIQUE (user_id, month_start, source_id);
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'fk_expense_category_label') THEN
+        ALTER TABLE expense ADD CONSTRAINT fk_expense_category_label FOREIGN KEY (category_id) REFERENCES label (id);
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'fk_income_source_label') THEN
+        ALTER TABLE income ADD CONSTRAINT fk_income_source_label FOREIGN KEY (source_id) REFERENCES label (id);
+    END IF;
+END
+$$^;
+
+-- Amounts moved from double precision to a bigint count of cents. As with the
+-- labels, each column is converted in place and renamed, after dropping the
+-- empty column Hibernate added to a table without rows. Rollup totals are then
+-- summed again from the converted rows rather than rounded, so they equal
+-- SUM(amount_cents) exactly even where float totals had drifted.
+CREATE OR REPLACE FUNCTION pg_temp.to_cents(tbl text, amount_column text, cents_column text) RETURNS boolean AS $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = current_schema() AND table_name = tbl AND column_name = amount_column) THEN
+        RETURN false;
+    END IF;
+    RAISE NOTICE 'Converting %.% to cents', tbl, amount_column;
+    EXECUTE format('ALTER TABLE %I DROP COLUMN IF EXISTS %I', tbl, cents_column);
+    EXECUTE format('ALTER TABLE %I ALTER COLUMN %I TYPE bigint USING round(%I::numeric * 100)',
+                   tbl, amount_column, amount_column);
+    EXECUTE format('ALTER TABLE %I RENAME COLUMN %I TO %I', tbl, amount_column, cents_column);
+    RETURN true;
+END
+$$ LANGUAGE plpgsql^;
+
+CREATE OR REPLACE FUNCTION pg_temp.resum_rollup(rollup text, tbl text, key_column text) RETURNS void AS $$
+BEGIN
+    EXECUTE format('UPDATE %1$I r SET total_cents = g.total_cents FROM ('
+                   || 'SELECT user_id, date_trunc(''month'', date)::date AS month_start, %3$I AS key_id, '
+                   || 'SUM(amount_cents) AS total_cents FROM %2$I GROUP BY 1, 2, 3) g '
+                   || 'WHERE r.user_id = g.user_id AND r.month_start = g.month_start AND r.%3$I = g.key_id '
+                   || 'AND r.total_cents <> g.total_cents', rollup, tbl, key_column);
+END
+$$ LANGUAGE plpgsql^;
+
+SELECT pg_temp.to_cents('expense', 'amount', 'amount_cents')^;
+SELECT pg_temp.to_cents('income', 'amount', 'amount_cents')^;
+SELECT pg_temp.resum_rollup('expense_rollup', 'expense', 'category_id')
+WHERE pg_temp.to_cents('expense_rollup', 'total', 'total_cents')^;
+SELECT pg_temp.resum_rollup('income_rollup', 'income', 'source_id')
+WHERE pg_temp.to_cents('income_rollup', 'total', 'total_cents')^;
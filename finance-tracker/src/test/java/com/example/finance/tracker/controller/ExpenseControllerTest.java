@@ -1,23 +1,44 @@
 package com.example.finance.tracker.controller;
 
+import com.example.finance.tracker.dto.BatchItemResultDTO;
+import com.example.finance.tracker.dto.BatchResultDTO;
+import com.example.finance.tracker.dto.CursorPageDTO;
 import com.example.finance.tracker.dto.ExpenseDTO;
+import com.example.finance.tracker.dto.ImportRejectionDTO;
+import com.example.finance.tracker.dto.ImportResultDTO;
 import com.example.finance.tracker.dto.IncomeDTO;
+import com.example.finance.tracker.exception.InvalidCursorException;
+import com.example.finance.tracker.exception.InvalidImportException;
 import com.example.finance.tracker.exception.ResourceNotFoundException;
 import com.example.finance.tracker.exception.UserNotFoundException;
 import com.example.finance.tracker.service.expense.ExpenseService;
+import com.example.finance.tracker.service.export.ExportFormat;
+import com.example.finance.tracker.service.export.ExportService;
+import com.example.finance.tracker.service.filter.TransactionFilter;
+import com.example.finance.tracker.service.importer.ImportService;
+import com.example.finance.tracker.service.pagination.KeysetCursor;
+import com.example.finance.tracker.service.version.DataVersionService;
+import com.example.finance.tracker.service.writebehind.WriteBehindQueue;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDate;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -32,6 +53,18 @@ public class ExpenseControllerTest {
     @MockBean
     private ExpenseService expenseService;
 
+    @MockBean
+    private ExportService exportService;
+
+    @MockBean
+    private ImportService importService;
+
+    @MockBean
+    private DataVersionService dataVersionService;
+
+    @MockBean
+    private WriteBehindQueue writeBehindQueue;
+
     @Test
     void postExpense_shouldReturnCreatedIncomeDTO() throws Exception{
 
@@ -82,7 +115,7 @@ public class ExpenseControllerTest {
     void getAllExpensesByUser_shouldReturnUserNotFound_whenUserDoesNotExist()throws Exception{
         Long userId = 999L;
 
-        when(expenseService.getAllExpensesByUser(userId)).thenThrow(new UserNotFoundException(userId));
+        when(expenseService.getAllExpensesByUser(userId, TransactionFilter.NONE)).thenThrow(new UserNotFoundException(userId));
 
         mockMvc.perform(get("/api/expense/user/{userId}",userId))
                 .andExpect(status().isNotFound());
@@ -103,6 +136,137 @@ public class ExpenseControllerTest {
 
     }
     @Test
+    void getExpensePageByUser_shouldReturnItemsAndNextCursor() throws Exception{
+        Long userId = 1L;
+        CursorPageDTO<ExpenseDTO> page = CursorPageDTO.<ExpenseDTO>builder()
+                .items(List.of(new ExpenseDTO(), new ExpenseDTO()))
+                .nextCursor("abc")
+                .build();
+
+        when(expenseService.getExpensePageByUser(userId, 2, null, TransactionFilter.NONE)).thenReturn(page);
+
+        mockMvc.perform(get("/api/expense/user/{userId}/page", userId).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.size()").value(2))
+                .andExpect(jsonPath("$.nextCursor").value("abc"));
+    }
+    @Test
+    void getExpensePage_shouldReturnBadRequest_whenCursorIsInvalid() throws Exception{
+        when(expenseService.getExpensePage(50, "bad")).thenThrow(new InvalidCursorException("bad"));
+
+        mockMvc.perform(get("/api/expense/page").param("after", "bad"))
+                .andExpect(status().isBadRequest());
+    }
+    @Test
+    void getExpensePage_shouldReturnBadRequest_whenCursorHasNoDate() throws Exception{
+        String userCursor = new KeysetCursor(null, 5L).encode();
+        when(expenseService.getExpensePage(50, userCursor)).thenAnswer(invocation -> {
+            KeysetCursor.decode(userCursor, true);
+            return CursorPageDTO.builder().build();
+        });
+
+        mockMvc.perform(get("/api/expense/page").param("after", userCursor))
+                .andExpect(status().isBadRequest());
+    }
+    @Test
+    void postExpenses_shouldReturnPerItemResults() throws Exception{
+        ExpenseDTO expenseDTO = new ExpenseDTO();
+        expenseDTO.setUserId(1L);
+        expenseDTO.setTitle("Lunch");
+        expenseDTO.setCategory("Food");
+        expenseDTO.setAmount(12.5);
+        expenseDTO.setDate(LocalDate.of(2025,1,15));
+
+        BatchResultDTO result = BatchResultDTO.builder()
+                .created(1)
+                .rejected(0)
+                .results(List.of(BatchItemResultDTO.builder()
+                        .index(0).status(BatchItemResultDTO.Status.CREATED).id(7L).errors(List.of()).build()))
+                .build();
+        when(expenseService.postExpenses(List.of(expenseDTO))).thenReturn(result);
+
+        mockMvc.perform(post("/api/expense/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(expenseDTO))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.results[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[0].id").value(7L));
+    }
+    @Test
+    void postExpenses_shouldReturnBadRequest_whenBatchIsTooLarge() throws Exception{
+        List<ExpenseDTO> tooMany = Collections.nCopies(10_001, new ExpenseDTO());
+
+        mockMvc.perform(post("/api/expense/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(tooMany)))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(expenseService);
+    }
+    @Test
+    void importExpensesByUser_shouldReturnRejectedLines() throws Exception{
+        ImportResultDTO result = ImportResultDTO.builder()
+                .imported(1)
+                .rejected(1)
+                .rejections(List.of(new ImportRejectionDTO(3, List.of("amount: 'abc' is not a number"))))
+                .build();
+        when(importService.importExpenses(eq(1L), any(), isNull(), eq("yyyy-MM-dd"))).thenReturn(result);
+
+        mockMvc.perform(post("/api/expense/user/{userId}/import", 1L)
+                        .contentType("text/csv")
+                        .content("title,category,date,amount\nCoffee,Food,2025-01-01,3.5\nTea,Food,2025-01-01,abc\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.rejections[0].line").value(3));
+    }
+    @Test
+    void importExpensesByUser_shouldReturnBadRequest_whenMappingIsInvalid() throws Exception{
+        when(importService.importExpenses(eq(1L), any(), eq("colour=Red"), eq("yyyy-MM-dd")))
+                .thenThrow(new InvalidImportException("bad mapping"));
+
+        mockMvc.perform(post("/api/expense/user/{userId}/import", 1L)
+                        .param("mapping", "colour=Red")
+                        .contentType("text/csv")
+                        .content("title\n"))
+                .andExpect(status().isBadRequest());
+    }
+    @Test
+    void getAllExpensesByUser_shouldReturnNotModified_whenDataVersionIsUnchanged() throws Exception{
+        Long userId = 1L;
+        when(dataVersionService.eTag(userId)).thenReturn(Optional.of("\"1-9\""));
+
+        mockMvc.perform(get("/api/expense/user/{userId}", userId).header(HttpHeaders.IF_NONE_MATCH, "\"1-9\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-9\""));
+
+        verifyNoInteractions(expenseService);
+    }
+    @Test
+    void getAllExpensesByUser_shouldBindFilterParameters() throws Exception{
+        Long userId = 1L;
+        TransactionFilter filter = new TransactionFilter(
+                LocalDate.of(2025,1,1), LocalDate.of(2025,1,31), "Food", null, 10.0, null);
+        when(expenseService.getAllExpensesByUser(userId, filter)).thenReturn(List.of(new ExpenseDTO()));
+
+        mockMvc.perform(get("/api/expense/user/{userId}", userId)
+                        .param("from", "2025-01-01")
+                        .param("to", "2025-01-31")
+                        .param("category", "Food")
+                        .param("minAmount", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(1));
+    }
+    @Test
+    void exportExpensesByUser_shouldReturnNotFound_whenUserDoesNotExist() throws Exception{
+        Long userId = 999L;
+
+        when(exportService.exportExpenses(userId, ExportFormat.CSV, false)).thenThrow(new UserNotFoundException(userId));
+
+        mockMvc.perform(get("/api/expense/user/{userId}/export", userId).param("format", "CSV"))
+                .andExpect(status().isNotFound());
+    }
+    @Test
     void getExpenseById_shouldReturnExpenseDTO() throws Exception{
         Long expenseId = 1L;
         ExpenseDTO dto = new ExpenseDTO();
@@ -4,6 +4,11 @@ package com.example.finance.tracker.controller;
 import com.example.finance.tracker.dto.IncomeDTO;
 import com.example.finance.tracker.exception.ResourceNotFoundException;
 import com.example.finance.tracker.exception.UserNotFoundException;
+import com.example.finance.tracker.service.export.ExportService;
+import com.example.finance.tracker.service.filter.TransactionFilter;
+import com.example.finance.tracker.service.importer.ImportService;
+import com.example.finance.tracker.service.version.DataVersionService;
+import com.example.finance.tracker.service.writebehind.WriteBehindQueue;
 import com.example.finance.tracker.service.income.IncomeService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -32,6 +37,17 @@ public class IncomeControllerTest {
 
     @MockBean
     private IncomeService incomeService;
+    @MockBean
+    private ExportService exportService;
+
+    @MockBean
+    private ImportService importService;
+
+    @MockBean
+    private DataVersionService dataVersionService;
+
+    @MockBean
+    private WriteBehindQueue writeBehindQueue;
 
 
     @Test
@@ -102,7 +118,7 @@ public class IncomeControllerTest {
 
         List<IncomeDTO> incomes = Arrays.asList(income1,income2);
 
-        when(incomeService.getAllIncomeByUser(userId)).thenReturn(incomes);
+        when(incomeService.getAllIncomeByUser(userId, TransactionFilter.NONE)).thenReturn(incomes);
 
         mockMvc.perform(get("/api/income/user/{userId}",userId))
                 .andExpect(status().isOk())
@@ -115,7 +131,7 @@ public class IncomeControllerTest {
     void getAllIncomeByUser_shouldReturnUserNotFound_whenUserDoesNotExist()throws Exception{
         Long userId = 999L;
 
-        when(incomeService.getAllIncomeByUser(userId)).thenThrow(new UserNotFoundException(userId));
+        when(incomeService.getAllIncomeByUser(userId, TransactionFilter.NONE)).thenThrow(new UserNotFoundException(userId));
 
         mockMvc.perform(get("/api/income/user/{userId}",userId))
                 .andExpect(status().isNotFound());
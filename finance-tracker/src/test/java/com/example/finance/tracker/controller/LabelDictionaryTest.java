@@ -0,0 +1,103 @@
+package com.example.finance.tracker.controller;
+
+import com.example.finance.tracker.dto.ExpenseDTO;
+import com.example.finance.tracker.dto.UserDTO;
+import com.example.finance.tracker.service.expense.ExpenseService;
+import com.example.finance.tracker.service.filter.TransactionFilter;
+import com.example.finance.tracker.service.label.LabelDictionary;
+import com.example.finance.tracker.service.user.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks category names round-trip through label ids against the real
+ * database, including labels first used by a transaction that rolls back.
+ * Data is committed and deleted again afterwards.
+ */
+@SpringBootTest
+class LabelDictionaryTest {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ExpenseService expenseService;
+    @Autowired
+    private LabelDictionary labelDictionary;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long userId;
+    private String category;
+
+    @BeforeEach
+    void setUp() {
+        String username = "labels-" + System.nanoTime();
+        UserDTO user = new UserDTO();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        userId = userService.postUser(user).getId();
+        category = "Category " + System.nanoTime();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userService.deleteUser(userId);
+    }
+
+    @Test
+    void postExpense_shouldStoreLabelId_andReadBackName() {
+        Long id = expenseService.postExpense(expense(category)).getId();
+
+        Integer storedId = jdbcTemplate.queryForObject("SELECT category_id FROM expense WHERE id = ?", Integer.class, id);
+        assertEquals(category, jdbcTemplate.queryForObject("SELECT name FROM label WHERE id = ?", String.class, storedId));
+        assertEquals(storedId, labelDictionary.idOf(category));
+        assertEquals(category, expenseService.getExpenseById(id).getCategory());
+    }
+
+    @Test
+    void postExpense_shouldSucceed_afterTransactionCreatingLabelRolledBack() {
+        transactionTemplate.executeWithoutResult(status -> {
+            expenseService.postExpense(expense(category));
+            status.setRollbackOnly();
+        });
+
+        ExpenseDTO saved = expenseService.postExpense(expense(category));
+
+        assertEquals(category, saved.getCategory());
+        assertEquals(List.of(saved), expenseService.getAllExpensesByUser(userId,
+                new TransactionFilter(null, null, category, null, null, null)));
+    }
+
+    @Test
+    void filter_shouldMatchNothing_forUnusedName_withoutCreatingLabel() {
+        expenseService.postExpense(expense("Food"));
+
+        List<ExpenseDTO> matching = expenseService.getAllExpensesByUser(userId,
+                new TransactionFilter(null, null, category, null, null, null));
+
+        assertTrue(matching.isEmpty());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM label WHERE name = ?", Integer.class, category));
+    }
+
+    private ExpenseDTO expense(String category) {
+        ExpenseDTO expense = new ExpenseDTO();
+        expense.setTitle("Label test");
+        expense.setCategory(category);
+        expense.setAmount(12.5);
+        expense.setDate(LocalDate.of(2025, 1, 1));
+        expense.setUserId(userId);
+        return expense;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.finance.tracker.controller;
+
+import com.example.finance.tracker.entity.Expense;
+import com.example.finance.tracker.entity.User;
+import com.example.finance.tracker.repository.ExpenseRepository;
+import com.example.finance.tracker.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Scrapes the Prometheus endpoint after a few requests and checks that the
+ * service, repository, pool and cache meters are there with their tags.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@Transactional
+class MetricsEndpointTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("metrics-" + System.nanoTime());
+        user.setEmail(user.getUsername() + "@example.com");
+        userId = userRepository.save(user).getId();
+        for (int i = 1; i <= 3; i++) {
+            Expense expense = new Expense();
+            expense.setTitle("Expense " + i);
+            expense.setCategory("Food");
+            expense.setAmountCents(1000L * i);
+            expense.setDate(LocalDate.of(2025, 1, i));
+            expense.setUser(user);
+            expenseRepository.save(expense);
+        }
+    }
+
+    @Test
+    void prometheus_shouldExposeServiceRepositoryPoolAndCacheMeters() throws Exception {
+        mockMvc.perform(get("/api/expense/user/" + userId)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/expense/user/" + userId + "/total")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/stats/" + userId)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/expense/" + Long.MAX_VALUE)).andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(allOf(
+                        matchesPattern("(?s).*finance_service_invocations_seconds_count\\{[^}]*exception=\"none\",method=\"getAllExpensesByUser\",outcome=\"SUCCESS\",service=\"ExpenseService\"} .*"),
+                        matchesPattern("(?s).*finance_service_invocations_seconds_count\\{[^}]*exception=\"ResourceNotFoundException\",method=\"getExpenseById\",outcome=\"ERROR\",service=\"ExpenseService\"} .*"),
+                        matchesPattern("(?s).*finance_service_invocations_seconds_bucket\\{[^}]*service=\"StatsService\".*"),
+                        matchesPattern("(?s).*finance_service_rows_max\\{[^}]*method=\"getAllExpensesByUser\",service=\"ExpenseService\"} 3\\.0.*"),
+                        matchesPattern("(?s).*finance_repository_rows_max\\{[^}]*method=\"findAllByUserId\",repository=\"ExpenseRepository\"} 3\\.0.*"),
+                        matchesPattern("(?s).*spring_data_repository_invocations_seconds_count\\{[^}]*method=\"getTotalByUserId\",repository=\"ExpenseRollupRepository\",state=\"SUCCESS\"} .*"),
+                        containsString("hikaricp_connections_acquire_seconds_bucket"),
+                        containsString("http_server_requests_seconds_bucket"),
+                        matchesPattern("(?s).*cache_gets_total\\{[^}]*cache=\"stats\".*"))));
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.finance.tracker.controller;
+
+import com.example.finance.tracker.dto.ExpenseDTO;
+import com.example.finance.tracker.dto.IncomeDTO;
+import com.example.finance.tracker.dto.StatsDTO;
+import com.example.finance.tracker.dto.UserDTO;
+import com.example.finance.tracker.service.expense.ExpenseService;
+import com.example.finance.tracker.service.filter.TransactionFilter;
+import com.example.finance.tracker.service.income.IncomeService;
+import com.example.finance.tracker.service.stats.StatsService;
+import com.example.finance.tracker.service.user.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the app with {@code finance.read-path=reactive} over real HTTP and
+ * checks the reactive endpoints answer exactly like the blocking services.
+ * R2DBC reads on its own connections, so the data is committed and deleted
+ * again afterwards.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "finance.read-path=reactive")
+class ReactiveReadPathTest {
+    @Autowired
+    private TestRestTemplate restTemplate;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ExpenseService expenseService;
+    @Autowired
+    private IncomeService incomeService;
+    @Autowired
+    private StatsService statsService;
+    @Autowired
+    @Qualifier("requestMappingHandlerMapping")
+    private RequestMappingHandlerMapping handlerMapping;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        String username = "reactive-" + System.nanoTime();
+        UserDTO user = new UserDTO();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        userId = userService.postUser(user).getId();
+        for (int i = 1; i <= 3; i++) {
+            ExpenseDTO expense = new ExpenseDTO();
+            expense.setTitle("Expense " + i);
+            expense.setCategory(i == 1 ? "Rent" : "Food");
+            expense.setAmount(10.0 * i);
+            expense.setDate(LocalDate.of(2025, i, 1));
+            expense.setUserId(userId);
+            expenseService.postExpense(expense);
+
+            IncomeDTO income = new IncomeDTO();
+            income.setSource("Salary");
+            income.setAmount(100.0 * i);
+            income.setDate(LocalDate.of(2025, i, 1));
+            income.setUserId(userId);
+            incomeService.postIncome(income);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        userService.deleteUser(userId);
+    }
+
+    @Test
+    void expenseList_shouldMatchBlockingService_asJsonArray() {
+        ResponseEntity<ExpenseDTO[]> response = restTemplate.exchange("/api/expense/user/" + userId, HttpMethod.GET,
+                accepting(MediaType.APPLICATION_JSON, null), ExpenseDTO[].class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(expenseService.getAllExpensesByUser(userId), List.of(response.getBody()));
+        assertEquals(3, response.getBody().length);
+    }
+
+    @Test
+    void incomeList_shouldStreamOneLinePerRow_asNdjson() {
+        ResponseEntity<String> response = restTemplate.exchange("/api/income/user/" + userId + "?minAmount=150",
+                HttpMethod.GET, accepting(MediaType.APPLICATION_NDJSON, null), String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        assertEquals(2, response.getBody().lines().count());
+    }
+
+    @Test
+    void expenseList_shouldAnswerNotModified_whenETagIsCurrent() {
+        ResponseEntity<String> first = restTemplate.exchange("/api/expense/user/" + userId, HttpMethod.GET,
+                accepting(MediaType.APPLICATION_JSON, null), String.class);
+        String eTag = first.getHeaders().getETag();
+
+        ResponseEntity<String> second = restTemplate.exchange("/api/expense/user/" + userId, HttpMethod.GET,
+                accepting(MediaType.APPLICATION_JSON, eTag), String.class);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, second.getStatusCode());
+        assertEquals(eTag, second.getHeaders().getETag());
+    }
+
+    @Test
+    void stats_shouldMatchBlockingService_withAndWithoutFilter() {
+        ResponseEntity<StatsDTO> all = restTemplate.exchange("/api/stats/" + userId, HttpMethod.GET,
+                accepting(MediaType.APPLICATION_JSON, null), StatsDTO.class);
+        ResponseEntity<StatsDTO> food = restTemplate.exchange("/api/stats/" + userId + "?category=Food",
+                HttpMethod.GET, accepting(MediaType.APPLICATION_JSON, null), StatsDTO.class);
+
+        assertEquals(statsService.getUserFinanceStats(userId), all.getBody());
+        assertEquals(statsService.getUserFinanceStats(userId,
+                new TransactionFilter(null, null, "Food", null, null, null)), food.getBody());
+        assertEquals(50.0, food.getBody().getTotalExpenses());
+    }
+
+    @Test
+    void readPaths_shouldBeHandledReactively_whateverTheClientAccepts() throws Exception {
+        for (String path : List.of("/api/expense/user/1", "/api/income/user/1", "/api/stats/1")) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+            request.addHeader(HttpHeaders.ACCEPT, MediaType.ALL_VALUE);
+
+            HandlerMethod handler = (HandlerMethod) handlerMapping.getHandler(request).getHandler();
+
+            assertEquals(ReactiveReadController.class, handler.getBeanType(), path);
+        }
+    }
+
+    @Test
+    void list_shouldAnswerNotFound_forUnknownUser() {
+        ResponseEntity<String> response = restTemplate.exchange("/api/expense/user/" + Long.MAX_VALUE,
+                HttpMethod.GET, accepting(MediaType.APPLICATION_JSON, null), String.class);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    private static HttpEntity<Void> accepting(MediaType mediaType, String ifNoneMatch) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(mediaType));
+        if (ifNoneMatch != null) {
+            headers.setIfNoneMatch(ifNoneMatch);
+        }
+        return new HttpEntity<>(headers);
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.finance.tracker.controller;
+
+import com.example.finance.tracker.entity.Expense;
+import com.example.finance.tracker.entity.Income;
+import com.example.finance.tracker.entity.User;
+import com.example.finance.tracker.repository.ExpenseRepository;
+import com.example.finance.tracker.repository.IncomeRepository;
+import com.example.finance.tracker.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements each read endpoint issues against the real
+ * database, and checks that reads never build managed expense or income
+ * entities; only the user existence check loads a {@link User}, into the
+ * second-level cache. Data is written in the test transaction and rolled back
+ * afterwards.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@Transactional
+class ReadStatementCountTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ExpenseRepository expenseRepository;
+    @Autowired
+    private IncomeRepository incomeRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long userId;
+    private Long expenseId;
+    private Long incomeId;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("statement-count-" + System.nanoTime());
+        user.setEmail(user.getUsername() + "@example.com");
+        userId = userRepository.save(user).getId();
+        for (int i = 1; i <= 3; i++) {
+            Expense expense = new Expense();
+            expense.setTitle("Expense " + i);
+            expense.setCategory(i == 1 ? "Rent" : "Food");
+            expense.setAmountCents(1000L * i);
+            expense.setDate(LocalDate.of(2025, 1, i));
+            expense.setUser(user);
+            expenseId = expenseRepository.save(expense).getId();
+
+            Income income = new Income();
+            income.setSource("Salary");
+            income.setAmountCents(10000L * i);
+            income.setDate(LocalDate.of(2025, 1, i));
+            income.setUser(user);
+            incomeId = incomeRepository.save(income).getId();
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void expenseListByUser_shouldIssueThreeStatements() throws Exception {
+        // data version for the ETag, user existence, the rows
+        assertStatements(3, "/api/expense/user/" + userId, 3);
+    }
+
+    @Test
+    void expenseListByUser_shouldIssueTwoStatements_onceUserIsCached() throws Exception {
+        assertStatements(3, "/api/expense/user/" + userId, 3);
+        assertStatements(2, "/api/expense/user/" + userId, 3);
+    }
+
+    @Test
+    void existsById_shouldCountWithoutLoading_whileIsKnownUserReadsTheCache() {
+        statistics.clear();
+        assertTrue(userRepository.existsById(userId));
+        assertEquals(0, statistics.getEntityStatistics(User.class.getName()).getLoadCount(), "users loaded");
+
+        assertTrue(userRepository.isKnownUser(userId));
+        entityManager.clear();
+        statistics.clear();
+        assertTrue(userRepository.isKnownUser(userId));
+        assertEquals(0, statistics.getPrepareStatementCount(), "SQL statements");
+        assertFalse(userRepository.isKnownUser(null));
+    }
+
+    @Test
+    void expenseListByUser_shouldIssueThreeStatements_whenFiltered() throws Exception {
+        assertStatements(3, "/api/expense/user/" + userId + "?category=Food&from=2025-01-02", 2);
+    }
+
+    @Test
+    void expensePageByUser_shouldIssueThreeStatements() throws Exception {
+        statistics.clear();
+        mockMvc.perform(get("/api/expense/user/" + userId + "/page?limit=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2));
+        assertReadOnly(3);
+    }
+
+    @Test
+    void expenseById_shouldIssueOneStatement() throws Exception {
+        statistics.clear();
+        mockMvc.perform(get("/api/expense/" + expenseId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userId").value(userId));
+        assertReadOnly(1);
+    }
+
+    @Test
+    void incomeListByUser_shouldIssueThreeStatements() throws Exception {
+        assertStatements(3, "/api/income/user/" + userId, 3);
+    }
+
+    @Test
+    void incomeById_shouldIssueOneStatement() throws Exception {
+        statistics.clear();
+        mockMvc.perform(get("/api/income/" + incomeId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userId").value(userId));
+        assertReadOnly(1);
+    }
+
+    @Test
+    void stats_shouldIssueSevenStatementsOnMissAndTwoOnHit() throws Exception {
+        // ETag version, cache key version, user existence, closed version,
+        // closed-period snapshot, income and expense rollups
+        statistics.clear();
+        mockMvc.perform(get("/api/stats/" + userId)).andExpect(status().isOk());
+        assertReadOnly(7);
+
+        statistics.clear();
+        mockMvc.perform(get("/api/stats/" + userId)).andExpect(status().isOk());
+        assertReadOnly(2);
+    }
+
+    @Test
+    void stats_shouldIssueFourStatements_whenFiltered() throws Exception {
+        statistics.clear();
+        mockMvc.perform(get("/api/stats/" + userId + "?category=Food"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalExpenses").value(50.0));
+        assertReadOnly(4);
+    }
+
+    @Test
+    void dailySeries_shouldIssueThreeStatements() throws Exception {
+        // ETag version, user existence, the bucketed sums
+        statistics.clear();
+        mockMvc.perform(get("/api/stats/" + userId + "/series?granularity=DAY&from=2025-01-01&to=2025-01-05"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.buckets.length()").value(5))
+                .andExpect(jsonPath("$.buckets[1].start").value("2025-01-02"))
+                .andExpect(jsonPath("$.buckets[1].income").value(200.0))
+                .andExpect(jsonPath("$.buckets[1].expenses").value(20.0))
+                .andExpect(jsonPath("$.buckets[4].net").value(0.0));
+        assertReadOnly(3);
+    }
+
+    private void assertStatements(long statements, String url, int rows) throws Exception {
+        statistics.clear();
+        mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(rows));
+        assertReadOnly(statements);
+    }
+
+    private void assertReadOnly(long statements) {
+        assertEquals(statements, statistics.getPrepareStatementCount(), "SQL statements");
+        assertEquals(0, statistics.getEntityStatistics(Expense.class.getName()).getLoadCount(), "expenses loaded");
+        assertEquals(0, statistics.getEntityStatistics(Income.class.getName()).getLoadCount(), "incomes loaded");
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.finance.tracker.controller;
+
+import com.example.finance.tracker.FinanceTrackerApplication;
+import com.example.finance.tracker.dto.ExpenseDTO;
+import com.example.finance.tracker.dto.UserDTO;
+import com.example.finance.tracker.service.expense.ExpenseService;
+import com.example.finance.tracker.service.user.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.endsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs the app with the usual local database as the primary and
+ * {@code finance_tracker_replica} as a stand-in replica. Nothing replicates
+ * between them, so a row written into only one of them shows which database
+ * served a read.
+ */
+@SpringBootTest(properties = {
+        "finance.datasource.replica-urls=" + ReplicaRoutingTest.REPLICA_URL,
+        "finance.datasource.primary-after-write=1s"})
+@AutoConfigureMockMvc
+class ReplicaRoutingTest {
+    static final String REPLICA_URL = "jdbc:postgresql://localhost:5432/finance_tracker_replica";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ExpenseService expenseService;
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "postgres", "postgres"));
+    private Long userId;
+
+    /** Creates the replica database and gives it the schema the app builds on startup. */
+    @BeforeAll
+    static void createReplica() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:postgresql://localhost:5432/postgres", "postgres", "postgres");
+             Statement statement = connection.createStatement()) {
+            if (!statement.executeQuery("SELECT 1 FROM pg_database WHERE datname = 'finance_tracker_replica'").next()) {
+                statement.execute("CREATE DATABASE finance_tracker_replica");
+            }
+        }
+        new SpringApplicationBuilder(FinanceTrackerApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + REPLICA_URL)
+                .close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        String username = "replica-" + System.nanoTime();
+        UserDTO user = new UserDTO();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        userId = userService.postUser(user).getId();
+        replica.update("INSERT INTO users (id, username, email) VALUES (?, ?, ?)",
+                userId, username + "-copy", username + "-copy@example.com");
+    }
+
+    @AfterEach
+    void tearDown() {
+        userService.deleteUser(userId);
+        replica.update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    @Test
+    void readOnlyRead_shouldComeFromReplica() throws Exception {
+        mockMvc.perform(get("/api/user/page").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(userId.intValue()))
+                .andExpect(jsonPath("$.items[0].username").value(endsWith("-copy")));
+    }
+
+    @Test
+    void ownReads_shouldStayOnPrimary_forWindowAfterWrite() throws Exception {
+        ExpenseDTO expense = new ExpenseDTO();
+        expense.setTitle("Rent");
+        expense.setCategory("Rent");
+        expense.setAmount(1200.0);
+        expense.setDate(LocalDate.of(2025, 3, 1));
+        expense.setUserId(userId);
+        expenseService.postExpense(expense);
+
+        mockMvc.perform(get("/api/expense/user/" + userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+        mockMvc.perform(get("/api/stats/" + userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalExpenses").value(1200.0));
+
+        Thread.sleep(1_500);
+
+        mockMvc.perform(get("/api/expense/user/" + userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(get("/api/stats/" + userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalExpenses").value(0.0));
+    }
+}
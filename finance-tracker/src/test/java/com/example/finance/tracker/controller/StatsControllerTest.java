@@ -1,16 +1,38 @@
 package com.example.finance.tracker.controller;
 
+import com.example.finance.tracker.dto.StatsBatchItemDTO;
 import com.example.finance.tracker.dto.StatsDTO;
+import com.example.finance.tracker.dto.TimeBucketDTO;
+import com.example.finance.tracker.dto.TimeSeriesDTO;
+import com.example.finance.tracker.exception.InvalidRangeException;
+import com.example.finance.tracker.service.filter.TransactionFilter;
+import com.example.finance.tracker.service.stats.StatsGranularity;
 import com.example.finance.tracker.service.stats.StatsServiceImpl;
+import com.example.finance.tracker.service.version.DataVersionService;
+import com.example.finance.tracker.service.writebehind.WriteBehindQueue;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(StatsController.class)
@@ -21,6 +43,12 @@ public class StatsControllerTest {
     @MockBean
     private StatsServiceImpl statsService;
 
+    @MockBean
+    private DataVersionService dataVersionService;
+
+    @MockBean
+    private WriteBehindQueue writeBehindQueue;
+
     @Test
     void getUserStats_shouldReturnDTO() throws Exception{
         Long userId = 1L;
@@ -32,7 +60,7 @@ public class StatsControllerTest {
                 .netBalance(3000.0)
                 .build();
 
-        when(statsService.getUserFinanceStats(userId)).thenReturn(mockStats);
+        when(statsService.getUserFinanceStats(userId, TransactionFilter.NONE)).thenReturn(mockStats);
 
         mockMvc.perform(get("/api/stats/{userId}", userId))
                 .andExpect(status().isOk())
@@ -41,5 +69,79 @@ public class StatsControllerTest {
                 .andExpect(jsonPath("$.totalExpenses").value(2000.0))
                 .andExpect(jsonPath("$.netBalance").value(3000.0));
     }
-}
+    @Test
+    void getUserStats_shouldReturnETagFromDataVersion() throws Exception{
+        Long userId = 1L;
+        when(dataVersionService.eTag(userId)).thenReturn(Optional.of("\"1-4\""));
+        when(statsService.getUserFinanceStats(userId, TransactionFilter.NONE)).thenReturn(StatsDTO.builder().userId(userId).build());
 
+        mockMvc.perform(get("/api/stats/{userId}", userId))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-4\""));
+    }
+    @Test
+    void getUserStats_shouldReturnNotModified_whenETagMatches() throws Exception{
+        Long userId = 1L;
+        when(dataVersionService.eTag(userId)).thenReturn(Optional.of("\"1-4\""));
+
+        mockMvc.perform(get("/api/stats/{userId}", userId).header(HttpHeaders.IF_NONE_MATCH, "\"1-4\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verifyNoInteractions(statsService);
+    }
+    @Test
+    void getUsersStats_shouldStreamOneLinePerRequestedUser() throws Exception{
+        when(statsService.getUsersFinanceStats(List.of(1L, 2L))).thenReturn(List.of(
+                StatsBatchItemDTO.builder().userId(1L).status(StatsBatchItemDTO.Status.OK)
+                        .stats(StatsDTO.builder().userId(1L).netBalance(3000.0).build()).build(),
+                StatsBatchItemDTO.builder().userId(2L).status(StatsBatchItemDTO.Status.NOT_FOUND).build()));
+
+        MvcResult result = mockMvc.perform(post("/api/stats/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1,2]"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        "{\"userId\":1,\"status\":\"OK\",\"stats\":{\"userId\":1,\"totalIncome\":null,\"totalExpenses\":null," +
+                        "\"netBalance\":3000.0,\"expenseByCategory\":null,\"incomeBySource\":null," +
+                        "\"monthlyIncome\":null,\"monthlyExpenses\":null}}\n" +
+                        "{\"userId\":2,\"status\":\"NOT_FOUND\",\"stats\":null}\n"));
+        verify(writeBehindQueue).awaitFlushed();
+    }
+    @Test
+    void getUserSeries_shouldDefaultToMonths() throws Exception{
+        Long userId = 1L;
+        LocalDate from = LocalDate.of(2025, 1, 1);
+        LocalDate to = LocalDate.of(2025, 2, 28);
+        when(statsService.getUserFinanceSeries(userId, StatsGranularity.MONTH, from, to)).thenReturn(TimeSeriesDTO.builder()
+                .userId(userId)
+                .granularity(StatsGranularity.MONTH)
+                .from(from)
+                .to(to)
+                .buckets(List.of(
+                        TimeBucketDTO.builder().start(from).income(3000.0).expenses(1000.0).net(2000.0).build(),
+                        TimeBucketDTO.builder().start(LocalDate.of(2025, 2, 1)).income(0.0).expenses(0.0).net(0.0).build()))
+                .build());
+
+        mockMvc.perform(get("/api/stats/{userId}/series", userId).param("from", "2025-01-01").param("to", "2025-02-28"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.granularity").value("MONTH"))
+                .andExpect(jsonPath("$.buckets[0].start").value("2025-01-01"))
+                .andExpect(jsonPath("$.buckets[0].net").value(2000.0))
+                .andExpect(jsonPath("$.buckets[1].start").value("2025-02-01"));
+    }
+    @Test
+    void getUserSeries_shouldReturnBadRequest_whenRangeIsInvalid() throws Exception{
+        when(statsService.getUserFinanceSeries(1L, StatsGranularity.DAY, LocalDate.of(2025, 2, 1), LocalDate.of(2025, 1, 1)))
+                .thenThrow(new InvalidRangeException("'to' 2025-01-01 is before 'from' 2025-02-01"));
+
+        mockMvc.perform(get("/api/stats/{userId}/series", 1L)
+                        .param("granularity", "DAY").param("from", "2025-02-01").param("to", "2025-01-01"))
+                .andExpect(status().isBadRequest());
+    }
+}
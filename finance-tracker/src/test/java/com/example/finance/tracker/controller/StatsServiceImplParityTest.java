@@ -0,0 +1,139 @@
+package com.example.finance.tracker.controller;
+
+import com.example.finance.tracker.dto.StatsDTO;
+import com.example.finance.tracker.entity.Expense;
+import com.example.finance.tracker.entity.Income;
+import com.example.finance.tracker.entity.User;
+import com.example.finance.tracker.money.Money;
+import com.example.finance.tracker.repository.ExpenseRepository;
+import com.example.finance.tracker.repository.IncomeRepository;
+import com.example.finance.tracker.repository.UserRepository;
+import com.example.finance.tracker.service.filter.TransactionFilter;
+import com.example.finance.tracker.service.rollup.RollupService;
+import com.example.finance.tracker.service.stats.StatsService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that stats grouped by the database match the original
+ * implementation, which loaded every row and grouped in Java. The rollups are
+ * rebuilt from the raw rows with SQL GROUP BY year/month, then read back both
+ * from the rollups and, through a filter that matches every row, from the raw
+ * rows. Data is written in the test transaction and rolled back afterwards.
+ */
+@SpringBootTest
+@Transactional
+class StatsServiceImplParityTest {
+    private static final double DELTA = 1e-6;
+    private static final String[] CATEGORIES = {"Food", "Rent", "Transport", "Bills", "Other"};
+    private static final String[] SOURCES = {"Salary", "Freelance", "Bonus"};
+
+    @Autowired
+    private StatsService statsService;
+    @Autowired
+    private RollupService rollupService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ExpenseRepository expenseRepository;
+    @Autowired
+    private IncomeRepository incomeRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void getUserFinanceStats_shouldMatchInMemoryImplementation() {
+        User user = new User();
+        user.setUsername("parity-" + System.nanoTime());
+        user.setEmail(user.getUsername() + "@example.com");
+        Long userId = userRepository.save(user).getId();
+        Random random = new Random(42);
+
+        List<Expense> expenses = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            Expense expense = new Expense();
+            expense.setTitle("Expense " + i);
+            expense.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            expense.setDate(LocalDate.of(2022, 1, 1).plusDays(random.nextInt(3 * 365)));
+            expense.setAmountCents((long) random.nextInt(100_000));
+            expense.setUser(user);
+            expenses.add(expense);
+        }
+        List<Income> incomes = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Income income = new Income();
+            income.setSource(SOURCES[random.nextInt(SOURCES.length)]);
+            income.setDate(LocalDate.of(2022, 1, 1).plusDays(random.nextInt(3 * 365)));
+            income.setAmountCents((long) random.nextInt(500_000));
+            income.setUser(user);
+            incomes.add(income);
+        }
+        expenseRepository.saveAll(expenses);
+        incomeRepository.saveAll(incomes);
+        entityManager.flush();
+        rollupService.rebuild(userId);
+        entityManager.flush();
+        entityManager.clear();
+
+        StatsDTO expected = inMemoryStats(userId, incomes, expenses);
+        assertStatsEqual(expected, statsService.getUserFinanceStats(userId));
+        assertStatsEqual(expected, statsService.getUserFinanceStats(userId,
+                new TransactionFilter(LocalDate.of(2000, 1, 1), null, null, null, null, null)));
+    }
+
+    private static void assertStatsEqual(StatsDTO expected, StatsDTO actual) {
+        assertEquals(expected.getUserId(), actual.getUserId());
+        assertEquals(expected.getTotalIncome(), actual.getTotalIncome(), DELTA);
+        assertEquals(expected.getTotalExpenses(), actual.getTotalExpenses(), DELTA);
+        assertEquals(expected.getNetBalance(), actual.getNetBalance(), DELTA);
+        assertMapsEqual(expected.getExpenseByCategory(), actual.getExpenseByCategory());
+        assertMapsEqual(expected.getIncomeBySource(), actual.getIncomeBySource());
+        assertMapsEqual(expected.getMonthlyExpenses(), actual.getMonthlyExpenses());
+        assertMapsEqual(expected.getMonthlyIncome(), actual.getMonthlyIncome());
+    }
+
+    private static void assertMapsEqual(Map<String, Double> expected, Map<String, Double> actual) {
+        assertEquals(expected.keySet(), actual.keySet());
+        expected.forEach((key, value) -> assertEquals(value, actual.get(key), DELTA, key));
+    }
+
+    /** The original StatsServiceImpl algorithm, summing the API's double amounts, kept here as the reference. */
+    private static StatsDTO inMemoryStats(Long userId, List<Income> incomes, List<Expense> expenses) {
+        double totalIncome = incomes.stream().mapToDouble(StatsServiceImplParityTest::amount).sum();
+        double totalExpenses = expenses.stream().mapToDouble(StatsServiceImplParityTest::amount).sum();
+        return StatsDTO.builder()
+                .userId(userId)
+                .totalIncome(totalIncome)
+                .totalExpenses(totalExpenses)
+                .netBalance(totalIncome - totalExpenses)
+                .expenseByCategory(expenses.stream().collect(Collectors.groupingBy(
+                        Expense::getCategory, Collectors.summingDouble(StatsServiceImplParityTest::amount))))
+                .incomeBySource(incomes.stream().collect(Collectors.groupingBy(
+                        Income::getSource, Collectors.summingDouble(StatsServiceImplParityTest::amount))))
+                .monthlyExpenses(expenses.stream().collect(Collectors.groupingBy(
+                        e -> e.getDate().toString().substring(0, 7), Collectors.summingDouble(StatsServiceImplParityTest::amount))))
+                .monthlyIncome(incomes.stream().collect(Collectors.groupingBy(
+                        i -> i.getDate().toString().substring(0, 7), Collectors.summingDouble(StatsServiceImplParityTest::amount))))
+                .build();
+    }
+
+    private static double amount(Expense expense) {
+        return Money.toAmount(expense.getAmountCents());
+    }
+
+    private static double amount(Income income) {
+        return Money.toAmount(income.getAmountCents());
+    }
+}
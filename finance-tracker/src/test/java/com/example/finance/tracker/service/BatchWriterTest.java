@@ -0,0 +1,132 @@
+package com.example.finance.tracker.service;
+
+import com.example.finance.tracker.dto.BatchItemResultDTO;
+import com.example.finance.tracker.dto.BatchResultDTO;
+import com.example.finance.tracker.dto.ExpenseDTO;
+import com.example.finance.tracker.entity.Expense;
+import com.example.finance.tracker.entity.User;
+import com.example.finance.tracker.money.Money;
+import com.example.finance.tracker.repository.UserRepository;
+import com.example.finance.tracker.service.batch.BatchWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BatchWriterTest {
+    private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private EntityManager entityManager;
+
+    private BatchWriter batchWriter;
+
+    @BeforeEach
+    void setUp() {
+        batchWriter = new BatchWriter(VALIDATOR, userRepository, entityManager);
+    }
+
+    @Test
+    void write_shouldStoreValidItemsAndRejectInvalidOnes() {
+        User user = new User();
+        user.setId(1L);
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(Set.of(1L));
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
+        AtomicLong ids = new AtomicLong(100);
+        doAnswer(invocation -> {
+            ((Expense) invocation.getArgument(0)).setId(ids.incrementAndGet());
+            return null;
+        }).when(entityManager).persist(any(Expense.class));
+
+        ExpenseDTO missingAmount = expenseDTO(1L);
+        missingAmount.setAmount(null);
+        List<ExpenseDTO> items = List.of(expenseDTO(1L), missingAmount, expenseDTO(2L), expenseDTO(1L));
+        List<Expense> written = new ArrayList<>();
+
+        BatchResultDTO result = batchWriter.write(items, ExpenseDTO::getUserId, (dto, u) -> {
+            Expense expense = new Expense();
+            expense.setAmountCents(Money.toCents(dto.getAmount()));
+            expense.setUser(u);
+            return expense;
+        }, Expense::getId, written::addAll);
+
+        assertEquals(2, result.getCreated());
+        assertEquals(2, result.getRejected());
+        assertEquals(4, result.getResults().size());
+        assertEquals(BatchItemResultDTO.Status.CREATED, result.getResults().get(0).getStatus());
+        assertEquals(101L, result.getResults().get(0).getId());
+        assertEquals(BatchItemResultDTO.Status.REJECTED, result.getResults().get(1).getStatus());
+        assertTrue(result.getResults().get(1).getErrors().get(0).startsWith("amount:"));
+        assertNull(result.getResults().get(1).getId());
+        assertEquals(List.of("userId: User not found with ID: 2"), result.getResults().get(2).getErrors());
+        assertEquals(102L, result.getResults().get(3).getId());
+        assertEquals(2, written.size());
+
+        verify(userRepository, times(1)).findExistingIds(anyCollection());
+        verify(userRepository, times(1)).getReferenceById(1L);
+    }
+
+    @Test
+    void write_shouldRejectItemWithoutCategory() {
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(Set.of(1L));
+        when(userRepository.getReferenceById(1L)).thenReturn(new User());
+        ExpenseDTO missingCategory = expenseDTO(1L);
+        missingCategory.setCategory(null);
+        List<Expense> written = new ArrayList<>();
+
+        BatchResultDTO result = batchWriter.write(List.of(missingCategory, expenseDTO(1L)), ExpenseDTO::getUserId,
+                (dto, u) -> new Expense(), Expense::getId, written::addAll);
+
+        assertEquals(1, result.getCreated());
+        assertEquals(BatchItemResultDTO.Status.REJECTED, result.getResults().get(0).getStatus());
+        assertEquals(List.of("category: Category is required"), result.getResults().get(0).getErrors());
+        assertEquals(BatchItemResultDTO.Status.CREATED, result.getResults().get(1).getStatus());
+        assertEquals(1, written.size());
+    }
+
+    @Test
+    void write_shouldFlushInChunks() {
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(Set.of(1L));
+        when(userRepository.getReferenceById(1L)).thenReturn(new User());
+        List<ExpenseDTO> items = new ArrayList<>();
+        for (int i = 0; i < 1_200; i++) {
+            items.add(expenseDTO(1L));
+        }
+
+        batchWriter.write(items, ExpenseDTO::getUserId, (dto, u) -> new Expense(), Expense::getId, written -> { });
+
+        verify(entityManager, times(1_200)).persist(any(Expense.class));
+        verify(entityManager, times(3)).flush();
+        verify(entityManager, times(3)).clear();
+    }
+
+    private static ExpenseDTO expenseDTO(Long userId) {
+        ExpenseDTO dto = new ExpenseDTO();
+        dto.setUserId(userId);
+        dto.setTitle("Lunch");
+        dto.setCategory("Food");
+        dto.setAmount(12.5);
+        dto.setDate(LocalDate.of(2025, 1, 15));
+        return dto;
+    }
+}
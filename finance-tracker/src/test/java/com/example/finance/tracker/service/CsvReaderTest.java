@@ -0,0 +1,61 @@
+package com.example.finance.tracker.service;
+
+import com.example.finance.tracker.exception.InvalidImportException;
+import com.example.finance.tracker.service.importer.ColumnMapping;
+import com.example.finance.tracker.service.importer.CsvReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CsvReaderTest {
+
+    @Test
+    void next_shouldParseQuotedFieldsAndTrackLines() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader(
+                "title,amount\r\n\"Rent, March\",1200\n\"multi\nline \"\"quoted\"\"\",80\nlast,"));
+
+        assertEquals(List.of("title", "amount"), reader.next());
+        assertEquals(1, reader.recordLine());
+        assertEquals(List.of("Rent, March", "1200"), reader.next());
+        assertEquals(2, reader.recordLine());
+        assertEquals(List.of("multi\nline \"quoted\"", "80"), reader.next());
+        assertEquals(3, reader.recordLine());
+        assertEquals(List.of("last", ""), reader.next());
+        assertEquals(5, reader.recordLine());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_shouldRejectUnterminatedQuote() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("a,b\n\"open,1\n"));
+        reader.next();
+
+        assertThrows(InvalidImportException.class, reader::next);
+    }
+
+    @Test
+    void columnMapping_shouldResolveHeadersCaseInsensitively() {
+        ColumnMapping mapping = ColumnMapping.resolve(List.of("title", "amount", "description"), Set.of("title", "amount"),
+                "title=Narrative", List.of("\uFEFFDate", "narrative", "AMOUNT"));
+
+        List<String> record = List.of("2025-01-01", " Coffee ", "");
+        assertEquals("Coffee", mapping.value(record, "title"));
+        assertNull(mapping.value(record, "amount"));
+        assertNull(mapping.value(record, "description"));
+    }
+
+    @Test
+    void columnMapping_shouldRejectMissingRequiredColumnAndUnknownField() {
+        assertThrows(InvalidImportException.class, () -> ColumnMapping.resolve(
+                List.of("title", "amount"), Set.of("title", "amount"), null, List.of("title")));
+        assertThrows(InvalidImportException.class, () -> ColumnMapping.resolve(
+                List.of("title", "amount"), Set.of("title"), "colour=Red", List.of("title")));
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.finance.tracker.service;
+
+import com.example.finance.tracker.concurrency.DatabaseConcurrencyLimiter;
+import com.example.finance.tracker.exception.DatabaseBusyException;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DatabaseConcurrencyLimiterTest {
+
+    @Test
+    void limit_shouldNeverLetMoreThanMaxConcurrencyThreadsIn() throws Exception {
+        DatabaseConcurrencyLimiter limiter = new DatabaseConcurrencyLimiter(3, Duration.ofSeconds(10));
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        ProbeService service = proxy(limiter, () -> {
+            peak.accumulateAndGet(inside.incrementAndGet(), Math::max);
+            sleep(20);
+            inside.decrementAndGet();
+        });
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> calls = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                calls.add(threads.submit(service::work));
+            }
+            for (Future<?> call : calls) {
+                call.get(30, TimeUnit.SECONDS);
+            }
+        }
+        assertEquals(3, peak.get());
+        assertEquals(3, limiter.availableSlots());
+    }
+
+    @Test
+    void limit_shouldLetNestedCallsThroughOnTheSlotTheirThreadHolds() throws Exception {
+        DatabaseConcurrencyLimiter limiter = new DatabaseConcurrencyLimiter(1, Duration.ofMillis(100));
+        AtomicInteger nested = new AtomicInteger();
+        ProbeService inner = proxy(limiter, nested::incrementAndGet);
+        ProbeService outer = proxy(limiter, inner::work);
+
+        outer.work();
+        limiter.run(inner::work);
+
+        assertEquals(2, nested.get());
+        assertEquals(1, limiter.availableSlots());
+    }
+
+    @Test
+    void limit_shouldFailWithDatabaseBusy_whenNoSlotFreesUpInTime() throws Exception {
+        DatabaseConcurrencyLimiter limiter = new DatabaseConcurrencyLimiter(1, Duration.ofMillis(50));
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ProbeService service = proxy(limiter, () -> {
+            holding.countDown();
+            await(release);
+        });
+        Thread holder = Thread.ofVirtual().start(service::work);
+        holding.await(5, TimeUnit.SECONDS);
+
+        assertThrows(DatabaseBusyException.class, proxy(limiter, () -> { })::work);
+
+        release.countDown();
+        holder.join();
+        assertEquals(1, limiter.availableSlots());
+    }
+
+    private static ProbeService proxy(DatabaseConcurrencyLimiter limiter, Runnable body) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new ProbeServiceImpl(body));
+        factory.addAspect(limiter);
+        return factory.getProxy();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public interface ProbeService {
+        void work();
+    }
+
+    public record ProbeServiceImpl(Runnable body) implements ProbeService {
+        @Override
+        public void work() {
+            body.run();
+        }
+    }
+}
@@ -1,18 +1,27 @@
 package com.example.finance.tracker.service;
 
+import com.example.finance.tracker.dto.CursorPageDTO;
 import com.example.finance.tracker.dto.ExpenseDTO;
 import com.example.finance.tracker.entity.Expense;
 import com.example.finance.tracker.entity.User;
+import com.example.finance.tracker.exception.InvalidCursorException;
 import com.example.finance.tracker.exception.ResourceNotFoundException;
 import com.example.finance.tracker.exception.UserNotFoundException;
 import com.example.finance.tracker.repository.ExpenseRepository;
+import com.example.finance.tracker.repository.ExpenseRollupRepository;
+import com.example.finance.tracker.repository.TransactionDtoQueries;
 import com.example.finance.tracker.repository.UserRepository;
+import com.example.finance.tracker.service.columnar.TransactionColumnStore;
+import com.example.finance.tracker.service.filter.TransactionFilter;
+import com.example.finance.tracker.service.pagination.KeysetCursor;
+import com.example.finance.tracker.service.rollup.RollupService;
 import com.example.finance.tracker.service.expense.ExpenseServiceImpl;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import java.sql.Date;
 import java.time.LocalDate;
@@ -30,6 +39,14 @@ public class ExpenseServiceImplTest {
 
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private ExpenseRollupRepository expenseRollupRepository;
+    @Mock
+    private RollupService rollupService;
+    @Mock
+    private TransactionDtoQueries transactionDtoQueries;
+    @Mock
+    private TransactionColumnStore transactionColumnStore;
 
     @InjectMocks
     private ExpenseServiceImpl expenseService;
@@ -48,7 +65,8 @@ public class ExpenseServiceImplTest {
 
         Expense savedExpense = mock(Expense.class); // Mocking Expense
         ExpenseDTO expectedDto = new ExpenseDTO();
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.isKnownUser(1L)).thenReturn(true);
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
         when(expenseRepository.save(any(Expense.class))).thenReturn(savedExpense);
         when(savedExpense.getExpenseDto()).thenReturn(expectedDto); // Mock DTO conversion
 
@@ -57,7 +75,7 @@ public class ExpenseServiceImplTest {
 
         assertNotNull(result);
         assertEquals(expectedDto, result);
-        verify(userRepository).findById(1L);
+        verify(userRepository).getReferenceById(1L);
         verify(expenseRepository).save(any(Expense.class));
         verify(savedExpense).getExpenseDto();
     }
@@ -72,7 +90,7 @@ public class ExpenseServiceImplTest {
         dto.setAmount(5000.00);
         dto.setUserId(99L);
 
-        when(userRepository.findById(99L)).thenReturn(Optional.empty());
+        when(userRepository.isKnownUser(99L)).thenReturn(false);
 
         UserNotFoundException thrown = assertThrows(
                 UserNotFoundException.class,
@@ -85,41 +103,42 @@ public class ExpenseServiceImplTest {
     void getExpenseById_shouldThrowResourceNotFoundException_whenExpenseNotFound() {
         Long expenseId = 999L;
 
-        when(expenseRepository.findById(expenseId)).thenReturn(Optional.empty());
+        when(expenseRepository.findDtoById(expenseId)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () ->
                 expenseService.getExpenseById(expenseId)
         );
     }
     @Test
+    void postExpense_shouldThrowIllegalArgumentException_whenCategoryIsMissing(){
+        ExpenseDTO dto = expenseOn(1L, null, LocalDate.of(2025, 1, 1));
+        dto.setCategory(null);
+
+        assertThrows(IllegalArgumentException.class, () -> expenseService.postExpense(dto));
+
+        verifyNoInteractions(rollupService, expenseRepository);
+    }
+    @Test
     void getExpenseById_shouldReturnDTO() {
         Long expenseId = 1L;
-        Expense expense = mock(Expense.class);
         ExpenseDTO dto = new ExpenseDTO();
 
-        when(expenseRepository.findById(expenseId)).thenReturn(Optional.of(expense));
-        when(expense.getExpenseDto()).thenReturn(dto);
+        when(expenseRepository.findDtoById(expenseId)).thenReturn(Optional.of(dto));
 
         ExpenseDTO result = expenseService.getExpenseById(expenseId);
 
         assertEquals(dto, result);
-        verify(expenseRepository).findById(expenseId);
+        verify(expenseRepository).findDtoById(expenseId);
     }
     @Test
     void getAllExpenseByUser_shouldReturnListOfDTOs(){
         Long userId = 1L;
 
-        Expense expense1 = mock(Expense.class);
-        Expense expense2 = mock(Expense.class);
         ExpenseDTO dto1 = new ExpenseDTO();
         ExpenseDTO dto2 = new ExpenseDTO();
 
-        when(userRepository.existsById(userId)).thenReturn(true);
-        when(expenseRepository.findAllByUserId(userId)).thenReturn(List.of(expense1, expense2));
-        when(expense1.getDate()).thenReturn(Date.valueOf("2025-05-01").toLocalDate());
-        when(expense2.getDate()).thenReturn(Date.valueOf("2025-01-01").toLocalDate());
-        when(expense1.getExpenseDto()).thenReturn(dto1);
-        when(expense2.getExpenseDto()).thenReturn(dto2);
+        when(userRepository.isKnownUser(userId)).thenReturn(true);
+        when(expenseRepository.findAllByUserId(userId)).thenReturn(List.of(dto1, dto2));
 
         List<ExpenseDTO> result = expenseService.getAllExpensesByUser(userId);
 
@@ -131,7 +150,7 @@ public class ExpenseServiceImplTest {
     void getAllExpenseByUser_shouldReturnUserNotFoundException_whenUserNotFound(){
         Long userId = 99999L;
 
-        when(userRepository.existsById(userId)).thenReturn(false);
+        when(userRepository.isKnownUser(userId)).thenReturn(false);
 
         assertThrows(UserNotFoundException.class,
                 ()-> expenseService.getTotalExpenseByUser(userId));
@@ -140,13 +159,81 @@ public class ExpenseServiceImplTest {
 
     }
     @Test
+    void getExpensePageByUser_shouldReturnNextCursor_whenMoreRowsExist(){
+        Long userId = 1L;
+        List<ExpenseDTO> rows = List.of(
+                expenseOn(userId, 3L, LocalDate.of(2025, 3, 1)),
+                expenseOn(userId, 2L, LocalDate.of(2025, 2, 1)),
+                expenseOn(userId, 1L, LocalDate.of(2025, 1, 1)));
+
+        when(userRepository.isKnownUser(userId)).thenReturn(true);
+        when(expenseRepository.findFirstPageByUserId(userId, Limit.of(3))).thenReturn(rows);
+
+        CursorPageDTO<ExpenseDTO> page = expenseService.getExpensePageByUser(userId, 2, null);
+
+        assertEquals(2, page.getItems().size());
+        assertEquals(new KeysetCursor(LocalDate.of(2025, 2, 1), 2L), KeysetCursor.decode(page.getNextCursor(), true));
+    }
+    @Test
+    void getExpensePage_shouldContinueAfterCursor(){
+        KeysetCursor cursor = new KeysetCursor(LocalDate.of(2025, 2, 1), 2L);
+
+        when(expenseRepository.findPageAfter(cursor.date(), cursor.id(), Limit.of(3)))
+                .thenReturn(List.of(expenseOn(1L, 1L, LocalDate.of(2025, 1, 1))));
+
+        CursorPageDTO<ExpenseDTO> page = expenseService.getExpensePage(2, cursor.encode());
+
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+    @Test
+    void getExpensePage_shouldThrowInvalidCursorException_whenCursorIsMalformed(){
+        assertThrows(InvalidCursorException.class, () -> expenseService.getExpensePage(10, "not-a-cursor"));
+
+        verifyNoInteractions(expenseRepository);
+    }
+    @Test
+    void getExpensePage_shouldThrowInvalidCursorException_whenCursorHasNoDate(){
+        String userCursor = new KeysetCursor(null, 5L).encode();
+
+        assertThrows(InvalidCursorException.class, () -> expenseService.getExpensePage(10, userCursor));
+
+        verifyNoInteractions(expenseRepository);
+    }
+    @Test
+    void getAllExpensesByUser_shouldPushFilterIntoQuery_whenFilterIsGiven(){
+        Long userId = 1L;
+        TransactionFilter filter = new TransactionFilter(LocalDate.of(2025, 1, 1), null, "Food", null, null, null);
+        when(userRepository.isKnownUser(userId)).thenReturn(true);
+        when(transactionDtoQueries.findExpenses(any(), eq(Limit.unlimited())))
+                .thenReturn(List.of(expenseOn(userId, 2L, LocalDate.of(2025, 2, 1))));
+
+        List<ExpenseDTO> result = expenseService.getAllExpensesByUser(userId, filter);
+
+        assertEquals(1, result.size());
+        verify(transactionDtoQueries).findExpenses(any(), eq(Limit.unlimited()));
+        verify(expenseRepository, never()).findAllByUserId(any());
+    }
+    private static ExpenseDTO expenseOn(Long userId, Long id, LocalDate date){
+        return new ExpenseDTO(id, "Lunch", null, date, "Food", 10.0, userId);
+    }
+    @Test
     void deleteExpense_shouldDeleteExpense(){
         Long expenseId = 1L;
-        when(expenseRepository.existsById(expenseId)).thenReturn(true);
+        User user = new User();
+        user.setId(1L);
+        Expense expense = new Expense();
+        expense.setId(expenseId);
+        expense.setUser(user);
+        expense.setCategory("Food");
+        expense.setAmountCents(25000L);
+        expense.setDate(LocalDate.of(2025, 1, 1));
+        when(expenseRepository.findById(expenseId)).thenReturn(Optional.of(expense));
 
         expenseService.deleteExpense(expenseId);
 
-        verify(expenseRepository).existsById(expenseId);
+        verify(expenseRepository).findById(expenseId);
+        verify(rollupService).removeExpense(1L, LocalDate.of(2025, 1, 1), "Food", 25000L);
         verify(expenseRepository).deleteById(expenseId);
     }
     @Test
@@ -164,6 +251,7 @@ public class ExpenseServiceImplTest {
 
         Expense existingExpense = mock(Expense.class);
         Expense savedExpense = mock(Expense.class);
+        when(existingExpense.getUser()).thenReturn(user);
 
         ExpenseDTO returnedDto = new ExpenseDTO();
         returnedDto.setId(expenseId);
@@ -173,7 +261,8 @@ public class ExpenseServiceImplTest {
         returnedDto.setDate(LocalDate.of(2025, 5, 25));
 
         when(expenseRepository.findById(expenseId)).thenReturn(Optional.of(existingExpense));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.isKnownUser(userId)).thenReturn(true);
+        when(userRepository.getReferenceById(userId)).thenReturn(user);
         when(expenseRepository.save(any(Expense.class))).thenReturn(savedExpense);
         when(savedExpense.getExpenseDto()).thenReturn(returnedDto);
 
@@ -188,6 +277,33 @@ public class ExpenseServiceImplTest {
         verify(savedExpense).getExpenseDto();
     }
     @Test
+    void updateExpense_shouldReverseOldRollupAndApplyNew(){
+        User user = new User();
+        user.setId(1L);
+        Expense existing = new Expense();
+        existing.setId(5L);
+        existing.setUser(user);
+        existing.setCategory("Food");
+        existing.setAmountCents(4000L);
+        existing.setDate(LocalDate.of(2025, 1, 31));
+
+        ExpenseDTO dto = new ExpenseDTO();
+        dto.setUserId(1L);
+        dto.setCategory("Rent");
+        dto.setAmount(900.0);
+        dto.setDate(LocalDate.of(2025, 2, 1));
+
+        when(expenseRepository.findById(5L)).thenReturn(Optional.of(existing));
+        when(userRepository.isKnownUser(1L)).thenReturn(true);
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
+        when(expenseRepository.save(existing)).thenReturn(existing);
+
+        expenseService.updateExpense(5L, dto);
+
+        verify(rollupService).removeExpense(1L, LocalDate.of(2025, 1, 31), "Food", 4000L);
+        verify(rollupService).addExpense(1L, LocalDate.of(2025, 2, 1), "Rent", 90000L);
+    }
+    @Test
     void updateExpense_shouldThrowException_whenExpenseNotFound() {
         Long expenseId = 99L;
         ExpenseDTO inputDto = mock(ExpenseDTO.class);
@@ -203,53 +319,53 @@ public class ExpenseServiceImplTest {
     @Test
     void getTotalExpenseByUser_shouldReturnTotal(){
         Long userId = 1L;
-        Double totalExpense = 1500.0;
+        Long totalExpenseCents = 150001L;
 
-        when(userRepository.existsById(userId)).thenReturn(true);
-        when(expenseRepository.getTotalExpenseByUserId(userId)).thenReturn(totalExpense);
+        when(userRepository.isKnownUser(userId)).thenReturn(true);
+        when(expenseRollupRepository.getTotalByUserId(userId)).thenReturn(totalExpenseCents);
         Double result = expenseService.getTotalExpenseByUser(userId);
 
-        assertEquals(totalExpense, result);
-        verify(userRepository).existsById(userId);
-        verify(expenseRepository).getTotalExpenseByUserId(userId);
+        assertEquals(1500.01, result);
+        verify(userRepository).isKnownUser(userId);
+        verify(expenseRollupRepository).getTotalByUserId(userId);
     }
     @Test
     void getTotalIncomeByUser_shouldReturnTotal(){
         Long userId = 1L;
-        Double totalExpense = 15000.0;
+        Long totalExpenseCents = 1500000L;
 
-        when(userRepository.existsById(userId)).thenReturn(true);
-        when(expenseRepository.getTotalExpenseByUserId(userId)).thenReturn(totalExpense);
+        when(userRepository.isKnownUser(userId)).thenReturn(true);
+        when(expenseRollupRepository.getTotalByUserId(userId)).thenReturn(totalExpenseCents);
 
         Double result = expenseService.getTotalExpenseByUser(userId);
 
-        assertEquals(totalExpense, result);
-        verify(userRepository).existsById(userId);
-        verify(expenseRepository).getTotalExpenseByUserId(userId);
+        assertEquals(15000.0, result);
+        verify(userRepository).isKnownUser(userId);
+        verify(expenseRollupRepository).getTotalByUserId(userId);
     }
     @Test
     void getTotalIncomeByUser_shouldReturnZero_whenIncomeIsNull() {
         Long userId = 2L;
 
-        when(userRepository.existsById(userId)).thenReturn(true);
-        when(expenseRepository.getTotalExpenseByUserId(userId)).thenReturn(null); // simulate no income
+        when(userRepository.isKnownUser(userId)).thenReturn(true);
+        when(expenseRollupRepository.getTotalByUserId(userId)).thenReturn(null); // simulate no income
 
         Double result = expenseService.getTotalExpenseByUser(userId);
 
         assertEquals(0.0, result);
-        verify(userRepository).existsById(userId);
-        verify(expenseRepository).getTotalExpenseByUserId(userId);
+        verify(userRepository).isKnownUser(userId);
+        verify(expenseRollupRepository).getTotalByUserId(userId);
     }
     @Test
     void getTotalIncomeByUser_shouldThrowUserNotFoundException_whenUserNotFound() {
         Long userId = 3L;
 
-        when(userRepository.existsById(userId)).thenReturn(false);
+        when(userRepository.isKnownUser(userId)).thenReturn(false);
 
         assertThrows(UserNotFoundException.class,
                 () -> expenseService.getTotalExpenseByUser(userId));
 
-        verify(userRepository).existsById(userId);
+        verify(userRepository).isKnownUser(userId);
         verifyNoInteractions(expenseRepository);
     }
 
@@ -0,0 +1,126 @@
+package com.example.finance.tracker.service;
+
+import com.example.finance.tracker.concurrency.DatabaseConcurrencyLimiter;
+import com.example.finance.tracker.entity.Expense;
+import com.example.finance.tracker.entity.Income;
+import com.example.finance.tracker.entity.User;
+import com.example.finance.tracker.exception.UserNotFoundException;
+import com.example.finance.tracker.repository.ExpenseRepository;
+import com.example.finance.tracker.repository.IncomeRepository;
+import com.example.finance.tracker.repository.UserRepository;
+import com.example.finance.tracker.service.export.ExportFormat;
+import com.example.finance.tracker.service.export.ExportServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ExportServiceImplTest {
+    @Mock
+    private ExpenseRepository expenseRepository;
+    @Mock
+    private IncomeRepository incomeRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ExportServiceImpl exportService;
+    private User user;
+
+    @BeforeEach
+    void setUp(){
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        exportService = new ExportServiceImpl(expenseRepository, incomeRepository, userRepository,
+                entityManager, transactionManager, objectMapper, new DatabaseConcurrencyLimiter(1, Duration.ofSeconds(1)));
+        user = new User();
+        user.setId(1L);
+    }
+
+    @Test
+    void exportExpenses_shouldWriteCsvWithEscapedFields() throws Exception{
+        Expense expense = new Expense();
+        expense.setId(7L);
+        expense.setTitle("Dinner, drinks");
+        expense.setDescription("said \"cheers\"");
+        expense.setCategory("Food");
+        expense.setAmountCents(4250L);
+        expense.setDate(LocalDate.of(2025, 2, 14));
+        expense.setUser(user);
+
+        when(userRepository.isKnownUser(1L)).thenReturn(true);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(expenseRepository.streamAllByUserId(1L)).thenReturn(Stream.of(expense));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportExpenses(1L, ExportFormat.CSV, false).writeTo(out);
+
+        assertEquals("id,date,title,description,category,amount,userId\n" +
+                        "7,2025-02-14,\"Dinner, drinks\",\"said \"\"cheers\"\"\",Food,42.5,1\n",
+                out.toString(StandardCharsets.UTF_8));
+        verify(entityManager).detach(expense);
+    }
+
+    @Test
+    void exportIncome_shouldWriteGzippedNdjson() throws Exception{
+        Income first = new Income();
+        first.setId(1L);
+        first.setSource("Salary");
+        first.setAmountCents(300000L);
+        first.setDate(LocalDate.of(2025, 1, 1));
+        first.setUser(user);
+        Income second = new Income();
+        second.setId(2L);
+        second.setSource("Bonus");
+        second.setAmountCents(50000L);
+        second.setDate(LocalDate.of(2025, 1, 2));
+        second.setUser(user);
+
+        when(userRepository.isKnownUser(1L)).thenReturn(true);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(incomeRepository.streamAllByUserId(1L)).thenReturn(Stream.of(first, second));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportIncome(1L, ExportFormat.NDJSON, true).writeTo(out);
+
+        String body = new String(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())).readAllBytes(),
+                StandardCharsets.UTF_8);
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":1,\"source\":\"Salary\""));
+        assertTrue(lines[1].contains("\"date\":\"2025-01-02\""));
+    }
+
+    @Test
+    void exportExpenses_shouldThrowUserNotFoundException_beforeStreaming(){
+        when(userRepository.isKnownUser(9L)).thenReturn(false);
+
+        assertThrows(UserNotFoundException.class, () -> exportService.exportExpenses(9L, ExportFormat.NDJSON, false));
+
+        verifyNoInteractions(expenseRepository);
+    }
+}
@@ -6,7 +6,10 @@ import com.example.finance.tracker.entity.User;
 import com.example.finance.tracker.exception.ResourceNotFoundException;
 import com.example.finance.tracker.exception.UserNotFoundException;
 import com.example.finance.tracker.repository.IncomeRepository;
+import com.example.finance.tracker.repository.IncomeRollupRepository;
 import com.example.finance.tracker.repository.UserRepository;
+import com.example.finance.tracker.service.columnar.TransactionColumnStore;
+import com.example.finance.tracker.service.rollup.RollupService;
 import com.example.finance.tracker.service.income.IncomeServiceImpl;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -22,6 +25,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,6 +34,12 @@ public class IncomeServiceImplTest {
     private IncomeRepository incomeRepository;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private IncomeRollupRepository incomeRollupRepository;
+    @Mock
+    private RollupService rollupService;
+    @Mock
+    private TransactionColumnStore transactionColumnStore;
 
     @InjectMocks
     private IncomeServiceImpl incomeService;
@@ -51,7 +61,8 @@ public class IncomeServiceImplTest {
         Income income = Mockito.mock(Income.class);
         when(income.getIncomeDto()).thenReturn(dto);
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.isKnownUser(1L)).thenReturn(true);
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
         when(incomeRepository.save(any(Income.class))).thenReturn(income);
 
         IncomeDTO result = incomeService.postIncome(dto);
@@ -71,7 +82,7 @@ public class IncomeServiceImplTest {
         dto.setAmount(5000.00);
         dto.setUserId(99L);
 
-        when(userRepository.findById(99L)).thenReturn(Optional.empty());
+        when(userRepository.isKnownUser(99L)).thenReturn(false);
 
         UserNotFoundException thrown = assertThrows(
                 UserNotFoundException.class,
@@ -104,14 +115,7 @@ public class IncomeServiceImplTest {
     void getAllIncomesByUser_shouldReturnListOfDTOs(){
         Long userId = 1L;
 
-        when(userRepository.existsById(userId)).thenReturn(true);
-
-
-        Income income1 = mock(Income.class);
-        Income income2 = mock(Income.class);
-
-        when(income1.getDate()).thenReturn(LocalDate.of(2025,1,1));
-        when(income2.getDate()).thenReturn(LocalDate.of(2025,1,2));
+        when(userRepository.isKnownUser(userId)).thenReturn(true);
 
         IncomeDTO dto1 = new IncomeDTO();
         dto1.setId(1L);
@@ -125,10 +129,8 @@ public class IncomeServiceImplTest {
         dto2.setAmount(5000.00);
         dto2.setDate(LocalDate.of(2025,1,2));
 
-        when(income1.getIncomeDto()).thenReturn(dto1);
-        when(income2.getIncomeDto()).thenReturn(dto2);
-
-        List<Income> incomes = Arrays.asList(income1, income2);
+        // The query orders newest first.
+        List<IncomeDTO> incomes = Arrays.asList(dto2, dto1);
         when(incomeRepository.findAllByUserId(userId)).thenReturn(incomes);
 
         List<IncomeDTO> result = incomeService.getAllIncomeByUser(userId);
@@ -138,21 +140,19 @@ public class IncomeServiceImplTest {
         assertEquals("Job", result.get(0).getSource());
         assertEquals("Freelance", result.get(1).getSource());
 
-        verify(userRepository).existsById(userId);
+        verify(userRepository).isKnownUser(userId);
         verify(incomeRepository).findAllByUserId(userId);
     }
     @Test
     void getIncomeById_shouldReturnDTO(){
         Long incomeId = 10L;
-        Income income = mock(Income.class);
         IncomeDTO dto = new IncomeDTO();
 
         dto.setId(incomeId);
         dto.setSource("Bonus");
         dto.setAmount(1500.00);
         dto.setDate(LocalDate.of(2025,3,1));
-        when(incomeRepository.findById(incomeId)).thenReturn(Optional.of(income));
-        when(income.getIncomeDto()).thenReturn(dto);
+        when(incomeRepository.findDtoById(incomeId)).thenReturn(Optional.of(dto));
         IncomeDTO result = incomeService.getIncomeById(incomeId);
 
         assertNotNull(result);
@@ -160,19 +160,18 @@ public class IncomeServiceImplTest {
         assertEquals("Bonus", result.getSource());
         assertEquals(1500.00, result.getAmount());
 
-        verify(incomeRepository).findById(incomeId);
-        verify(income).getIncomeDto();
+        verify(incomeRepository).findDtoById(incomeId);
     }
     @Test
     void getIncomeById_shouldReturnResourceNotFoundException_whenIncomeNotFound(){
         Long incomeId = 190123120L;
 
-        when(incomeRepository.findById(incomeId)).thenReturn(Optional.empty());
+        when(incomeRepository.findDtoById(incomeId)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class,
                 ()-> incomeService.getIncomeById(incomeId)
                 );
-        verify(incomeRepository).findById(incomeId);
+        verify(incomeRepository).findDtoById(incomeId);
     }
     @Test
     void deleteIncome_shouldThrowResourceNotFoundException_whenNotFound(){
@@ -181,57 +180,61 @@ public class IncomeServiceImplTest {
         when(incomeRepository.findById(incomeId)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> incomeService.deleteIncome(incomeId));
-        verify(incomeRepository, never()).delete(any());
+        verify(incomeRepository, never()).delete(any(Income.class));
     }
     @Test
     void deleteIncome_shouldDeleteIncome(){
         Long incomeId = 1L;
         Income income = mock(Income.class);
         income.setId(incomeId);
+        User user = new User();
+        user.setId(1L);
+        when(income.getUser()).thenReturn(user);
 
         when(incomeRepository.findById(incomeId)).thenReturn(Optional.of(income));
 
         incomeService.deleteIncome(incomeId);
 
         verify(incomeRepository).findById(incomeId);
+        verify(rollupService).removeIncome(eq(1L), any(), any(), any());
         verify(incomeRepository).deleteById(incomeId);
     }
     @Test
     void getTotalIncomeByUser_shouldReturnTotal(){
         Long userId = 1L;
-        Double totalIncome = 15000.0;
+        Long totalIncomeCents = 1500000L;
 
-        when(userRepository.existsById(userId)).thenReturn(true);
-        when(incomeRepository.getTotalIncomeByUserId(userId)).thenReturn(totalIncome);
+        when(userRepository.isKnownUser(userId)).thenReturn(true);
+        when(incomeRollupRepository.getTotalByUserId(userId)).thenReturn(totalIncomeCents);
 
         Double result = incomeService.getTotalIncomeByUser(userId);
 
-        assertEquals(totalIncome, result);
-        verify(userRepository).existsById(userId);
-        verify(incomeRepository).getTotalIncomeByUserId(userId);
+        assertEquals(15000.0, result);
+        verify(userRepository).isKnownUser(userId);
+        verify(incomeRollupRepository).getTotalByUserId(userId);
     }
     @Test
     void getTotalIncomeByUser_shouldReturnZero_whenIncomeIsNull() {
         Long userId = 2L;
 
-        when(userRepository.existsById(userId)).thenReturn(true);
-        when(incomeRepository.getTotalIncomeByUserId(userId)).thenReturn(null); // simulate no income
+        when(userRepository.isKnownUser(userId)).thenReturn(true);
+        when(incomeRollupRepository.getTotalByUserId(userId)).thenReturn(null); // simulate no income
 
         Double result = incomeService.getTotalIncomeByUser(userId);
 
         assertEquals(0.0, result);
-        verify(userRepository).existsById(userId);
-        verify(incomeRepository).getTotalIncomeByUserId(userId);
+        verify(userRepository).isKnownUser(userId);
+        verify(incomeRollupRepository).getTotalByUserId(userId);
     }
     @Test
     void getTotalIncomeByUser_shouldThrowUserNotFoundException_whenUserNotFound() {
         Long userId = 3L;
 
-        when(userRepository.existsById(userId)).thenReturn(false);
+        when(userRepository.isKnownUser(userId)).thenReturn(false);
 
         assertThrows(UserNotFoundException.class, () -> incomeService.getTotalIncomeByUser(userId));
 
-        verify(userRepository).existsById(userId);
+        verify(userRepository).isKnownUser(userId);
         verifyNoInteractions(incomeRepository);
     }
 
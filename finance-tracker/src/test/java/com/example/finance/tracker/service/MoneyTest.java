@@ -0,0 +1,36 @@
+package com.example.finance.tracker.service;
+
+import com.example.finance.tracker.money.Money;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MoneyTest {
+
+    @Test
+    void toCents_shouldUseDecimalValue_notBinaryExpansion() {
+        // 0.29 * 100 is 28.999999999999996 as a double.
+        assertEquals(29L, Money.toCents(0.29));
+        assertEquals(1_000_000_001L, Money.toCents(10_000_000.01));
+    }
+
+    @Test
+    void toCents_shouldRoundHalfUp_pastSecondDecimal() {
+        assertEquals(1001L, Money.toCents(10.005));
+        assertEquals(1000L, Money.toCents(10.004));
+    }
+
+    @Test
+    void boundCents_shouldKeepInclusiveBoundsInclusive() {
+        assertEquals(1001L, Money.ceilCents(10.001));
+        assertEquals(1000L, Money.floorCents(10.009));
+        assertEquals(1000L, Money.ceilCents(10.0));
+        assertEquals(1000L, Money.floorCents(10.0));
+    }
+
+    @Test
+    void toAmount_shouldReturnClosestDouble() {
+        assertEquals(0.3, Money.toAmount(Money.toCents(0.1) + Money.toCents(0.2)));
+        assertEquals(17443466.65, Money.toAmount(1_744_346_665L));
+    }
+}
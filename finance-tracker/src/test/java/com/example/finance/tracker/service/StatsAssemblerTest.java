@@ -0,0 +1,100 @@
+package com.example.finance.tracker.service;
+
+import com.example.finance.tracker.dto.StatsDTO;
+import com.example.finance.tracker.money.Money;
+import com.example.finance.tracker.repository.projection.MonthlyTotal;
+import com.example.finance.tracker.service.stats.StatsAssembler;
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StatsAssemblerTest {
+
+    @Test
+    void build_shouldMatchMapMerge_forUnorderedMonthsAcrossDecades() {
+        Random random = new Random(7);
+        List<MonthlyTotal> expenses = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            // Starts mid-range, then wanders both before and far after the first month.
+            int year = i == 0 ? 2000 : 1980 + random.nextInt(40);
+            expenses.add(new MonthlyTotal(year, 1 + random.nextInt(12), "Category" + random.nextInt(30),
+                    (long) random.nextInt(100_000), 1L));
+        }
+        List<MonthlyTotal> incomes = List.of(
+                new MonthlyTotal(2024, 12, "Salary", 100_000L, 1L),
+                new MonthlyTotal(2023, 1, "Salary", 50_000L, 1L));
+
+        StatsDTO stats = StatsAssembler.build(1L, incomes, expenses);
+
+        assertEquals(byKey(expenses), stats.getExpenseByCategory());
+        assertEquals(byMonth(expenses), stats.getMonthlyExpenses());
+        assertEquals(byKey(incomes), stats.getIncomeBySource());
+        assertEquals(byMonth(incomes), stats.getMonthlyIncome());
+        assertEquals(1500.0, stats.getTotalIncome());
+        assertEquals(1500.0 - stats.getTotalExpenses(), stats.getNetBalance());
+    }
+
+    @Test
+    void build_shouldKeepMonthsAndKeysThatSumToZero() {
+        List<MonthlyTotal> expenses = List.of(
+                new MonthlyTotal(2025, 3, "Refunded", 0L, 1L),
+                new MonthlyTotal(2025, 1, "Food", 1000L, 1L));
+
+        StatsDTO stats = StatsAssembler.build(1L, List.of(), expenses);
+
+        assertEquals(Map.of("2025-01", 10.0, "2025-03", 0.0), stats.getMonthlyExpenses());
+        assertEquals(Map.of("Food", 10.0, "Refunded", 0.0), stats.getExpenseByCategory());
+    }
+
+    @Test
+    void build_shouldSumCentsExactly() {
+        List<MonthlyTotal> expenses = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            expenses.add(new MonthlyTotal(2025, 1, "Coffee", 10L, 1L));
+        }
+
+        StatsDTO stats = StatsAssembler.build(1L, List.of(new MonthlyTotal(2025, 1, "Salary", 30L, 1L)), expenses);
+
+        // Adding 0.1 as a double a thousand times gives 99.9999999999986.
+        assertEquals(100.0, stats.getTotalExpenses());
+        assertEquals(Map.of("Coffee", 100.0), stats.getExpenseByCategory());
+        assertEquals(-99.7, stats.getNetBalance());
+    }
+
+    @Test
+    void build_shouldReturnEmptyMapsAndZeroTotals_forNoRows() {
+        StatsDTO stats = StatsAssembler.build(1L, List.of(), List.of());
+
+        assertEquals(0.0, stats.getTotalIncome());
+        assertEquals(0.0, stats.getTotalExpenses());
+        assertEquals(0.0, stats.getNetBalance());
+        assertTrue(stats.getMonthlyIncome().isEmpty());
+        assertTrue(stats.getExpenseByCategory().isEmpty());
+    }
+
+    private static Map<String, Double> byKey(List<MonthlyTotal> rows) {
+        Map<String, Long> byKey = new HashMap<>();
+        rows.forEach(row -> byKey.merge(row.key(), row.totalCents(), Long::sum));
+        return toAmounts(byKey);
+    }
+
+    private static Map<String, Double> byMonth(List<MonthlyTotal> rows) {
+        Map<String, Long> byMonth = new HashMap<>();
+        rows.forEach(row -> byMonth.merge(YearMonth.of(row.year(), row.month()).toString(), row.totalCents(), Long::sum));
+        return toAmounts(byMonth);
+    }
+
+    private static Map<String, Double> toAmounts(Map<String, Long> cents) {
+        Map<String, Double> amounts = new HashMap<>();
+        cents.forEach((key, value) -> amounts.put(key, Money.toAmount(value)));
+        return amounts;
+    }
+}
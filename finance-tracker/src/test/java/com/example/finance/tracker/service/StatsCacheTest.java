@@ -0,0 +1,73 @@
+package com.example.finance.tracker.service;
+
+import com.example.finance.tracker.dto.StatsDTO;
+import com.example.finance.tracker.service.stats.StatsCache;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class StatsCacheTest {
+
+    @Test
+    void get_shouldCoalesceConcurrentMissesForTheSameUser() throws Exception {
+        StatsCache cache = new StatsCache(100, Duration.ofMinutes(5));
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<StatsDTO>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> cache.get(1L, 7L, userId -> {
+                    computations.incrementAndGet();
+                    await(release);
+                    return StatsDTO.builder().userId(userId).build();
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            StatsDTO first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<StatsDTO> result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, computations.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void get_shouldRecomputeOnlyForTheUserWhoseVersionChanged() {
+        StatsCache cache = new StatsCache(100, Duration.ofMinutes(5));
+        AtomicInteger computations = new AtomicInteger();
+        cache.get(1L, 1L, userId -> StatsDTO.builder().userId(userId).build());
+        cache.get(2L, 1L, userId -> StatsDTO.builder().userId(userId).build());
+
+        cache.get(1L, 2L, userId -> {
+            computations.incrementAndGet();
+            return StatsDTO.builder().userId(userId).build();
+        });
+        cache.get(2L, 1L, userId -> { throw new AssertionError("user 2 should still be cached"); });
+
+        assertEquals(1, computations.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
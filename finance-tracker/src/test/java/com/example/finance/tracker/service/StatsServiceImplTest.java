@@ -1,38 +1,75 @@
 package com.example.finance.tracker.service;
 
+import com.example.finance.tracker.dto.StatsBatchItemDTO;
 import com.example.finance.tracker.dto.StatsDTO;
+import com.example.finance.tracker.dto.TimeSeriesDTO;
 import com.example.finance.tracker.entity.Expense;
 import com.example.finance.tracker.entity.Income;
+import com.example.finance.tracker.entity.StatsSnapshot;
 import com.example.finance.tracker.entity.User;
+import com.example.finance.tracker.exception.InvalidRangeException;
 import com.example.finance.tracker.exception.ResourceNotFoundException;
-import com.example.finance.tracker.repository.ExpenseRepository;
-import com.example.finance.tracker.repository.IncomeRepository;
+import com.example.finance.tracker.repository.ExpenseRollupRepository;
+import com.example.finance.tracker.repository.IncomeRollupRepository;
+import com.example.finance.tracker.repository.MonthlyTotalQueries;
+import com.example.finance.tracker.repository.TimeSeriesQueries;
 import com.example.finance.tracker.repository.UserRepository;
+import com.example.finance.tracker.repository.projection.BucketTotal;
+import com.example.finance.tracker.repository.projection.MonthlyTotal;
+import com.example.finance.tracker.repository.projection.UserMonthlyTotal;
+import com.example.finance.tracker.service.columnar.TransactionColumnStore;
+import com.example.finance.tracker.service.filter.TransactionFilter;
 import com.example.finance.tracker.service.income.IncomeServiceImpl;
+import com.example.finance.tracker.service.rollup.AccountingPeriods;
+import com.example.finance.tracker.service.stats.ClosedPeriodSnapshots;
+import com.example.finance.tracker.service.stats.StatsCache;
+import com.example.finance.tracker.service.stats.StatsGranularity;
 import com.example.finance.tracker.service.stats.StatsServiceImpl;
+import com.example.finance.tracker.service.version.DataVersionService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class StatsServiceImplTest {
     @Mock
-    private ExpenseRepository expenseRepository;
+    private ExpenseRollupRepository expenseRollupRepository;
     @Mock
-    private IncomeRepository incomeRepository;
+    private IncomeRollupRepository incomeRollupRepository;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private DataVersionService dataVersionService;
+    @Mock
+    private MonthlyTotalQueries monthlyTotalQueries;
+
+    @Mock
+    private ClosedPeriodSnapshots closedPeriodSnapshots;
+
+    @Spy
+    private StatsCache statsCache = new StatsCache(100, Duration.ofMinutes(5));
+
+    @Mock
+    private TransactionColumnStore transactionColumnStore;
+    @Mock
+    private TimeSeriesQueries timeSeriesQueries;
 
     @InjectMocks
     private StatsServiceImpl statsService;
@@ -49,14 +86,14 @@ public class StatsServiceImplTest {
         income1.setSource("Salary");
         income1.setDescription("Monthly");
         income1.setDate(LocalDate.of(2025,1,1));
-        income1.setAmount(3000.00);
+        income1.setAmountCents(300000L);
         income1.setUser(user);
         Income income2 = new Income();
         income2.setId(2L);
         income2.setSource("Freelance");
         income2.setDescription("Side gig");
         income2.setDate(LocalDate.of(2025,1,15));
-        income2.setAmount(1000.00);
+        income2.setAmountCents(100000L);
         income2.setUser(user);
 
         Expense expense1 = new Expense();
@@ -65,7 +102,7 @@ public class StatsServiceImplTest {
         expense1.setDescription("bought groceries");
         expense1.setCategory("Groceries");
         expense1.setDate(LocalDate.of(2025,1,1));
-        expense1.setAmount(500.0);
+        expense1.setAmountCents(50000L);
         expense1.setUser(user);
 
         Expense expense2 = new Expense();
@@ -74,12 +111,16 @@ public class StatsServiceImplTest {
         expense2.setDescription("paidRent");
         expense2.setCategory("Rent");
         expense2.setDate(LocalDate.of(2025,1,1));
-        expense2.setAmount(1000.0);
+        expense2.setAmountCents(100000L);
         expense2.setUser(user);
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(incomeRepository.findAllByUserId(userId)).thenReturn(List.of(income1, income2));
-        when(expenseRepository.findAllByUserId(userId)).thenReturn(List.of(expense1, expense2));
+        when(userRepository.isKnownUser(userId)).thenReturn(true);
+        when(incomeRollupRepository.findMonthlyTotalsByUserId(userId)).thenReturn(List.of(
+                new MonthlyTotal(2025, 1, income1.getSource(), income1.getAmountCents(), 1L),
+                new MonthlyTotal(2025, 1, income2.getSource(), income2.getAmountCents(), 1L)));
+        when(expenseRollupRepository.findMonthlyTotalsByUserId(userId)).thenReturn(List.of(
+                new MonthlyTotal(2025, 1, expense1.getCategory(), expense1.getAmountCents(), 1L),
+                new MonthlyTotal(2025, 1, expense2.getCategory(), expense2.getAmountCents(), 1L)));
 
 
         StatsDTO stats = statsService.getUserFinanceStats(userId);
@@ -94,24 +135,174 @@ public class StatsServiceImplTest {
         assertEquals(1, stats.getMonthlyIncome().size());
         assertEquals(1, stats.getMonthlyExpenses().size());
 
-        verify(userRepository).findById(userId);
-        verify(incomeRepository).findAllByUserId(userId);
-        verify(expenseRepository).findAllByUserId(userId);
+        assertEquals(4000.0, stats.getMonthlyIncome().get("2025-01"));
+        assertEquals(1500.0, stats.getMonthlyExpenses().get("2025-01"));
+
+        verify(userRepository).isKnownUser(userId);
+        verify(incomeRollupRepository).findMonthlyTotalsByUserId(userId);
+        verify(expenseRollupRepository).findMonthlyTotalsByUserId(userId);
 
 
+    }
+    @Test
+    void getUserFinanceStats_shouldServeRepeatCallsFromCacheUntilDataVersionChanges() {
+        Long userId = 1L;
+        when(userRepository.isKnownUser(userId)).thenReturn(true);
+        when(incomeRollupRepository.findMonthlyTotalsByUserId(userId)).thenReturn(List.of(
+                new MonthlyTotal(2025, 1, "Salary", 300000L, 1L)));
+        when(expenseRollupRepository.findMonthlyTotalsByUserId(userId)).thenReturn(List.of());
+        when(dataVersionService.currentVersion(userId)).thenReturn(Optional.of(3L));
+
+        StatsDTO first = statsService.getUserFinanceStats(userId);
+        StatsDTO second = statsService.getUserFinanceStats(userId);
+
+        assertSame(first, second);
+        verify(incomeRollupRepository, times(1)).findMonthlyTotalsByUserId(userId);
+
+        when(dataVersionService.currentVersion(userId)).thenReturn(Optional.of(4L));
+        statsService.getUserFinanceStats(userId);
+
+        verify(incomeRollupRepository, times(2)).findMonthlyTotalsByUserId(userId);
+        assertEquals(2, statsCache.stats().missCount());
+        assertEquals(1, statsCache.stats().hitCount());
+    }
+    @Test
+    void getUserFinanceStats_shouldGroupRawRows_whenFilterIsGiven() {
+        Long userId = 1L;
+        TransactionFilter filter = new TransactionFilter(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31),
+                "Rent", null, null, null);
+        when(userRepository.isKnownUser(userId)).thenReturn(true);
+        when(monthlyTotalQueries.sumByMonth(eq(Income.class), eq("source"), any())).thenReturn(List.of(
+                new MonthlyTotal(2025, 1, "Salary", 300000L, 1L)));
+        when(monthlyTotalQueries.sumByMonth(eq(Expense.class), eq("category"), any())).thenReturn(List.of(
+                new MonthlyTotal(2025, 1, "Rent", 100000L, 1L)));
+
+        StatsDTO stats = statsService.getUserFinanceStats(userId, filter);
+
+        assertEquals(2000.0, stats.getNetBalance());
+        assertEquals(1000.0, stats.getExpenseByCategory().get("Rent"));
+        verifyNoInteractions(incomeRollupRepository, expenseRollupRepository);
     }
     @Test
     void getUserFinanceStats_shouldThrowResourceNotFound_whenUserDoesNotExist() {
 
         Long userId = 2L;
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userRepository.isKnownUser(userId)).thenReturn(false);
 
         assertThrows(ResourceNotFoundException.class, () -> {
             statsService.getUserFinanceStats(userId);
         });
 
-        verify(userRepository).findById(userId);
-        verifyNoInteractions(incomeRepository);
-        verifyNoInteractions(expenseRepository);
+        verify(userRepository).isKnownUser(userId);
+        verifyNoInteractions(incomeRollupRepository);
+        verifyNoInteractions(expenseRollupRepository);
+    }
+    @Test
+    void getUsersFinanceStats_shouldReadAllUsersTogether_andReportUnknownOnes() {
+        when(userRepository.findExistingIds(Set.of(1L, 2L, 3L))).thenReturn(Set.of(1L, 3L));
+        when(incomeRollupRepository.findMonthlyTotalsByUserIdIn(Set.of(1L, 3L))).thenReturn(List.of(
+                new UserMonthlyTotal(1L, 2025, 1, "Salary", 300000L, 1L),
+                new UserMonthlyTotal(3L, 2025, 2, "Salary", 100000L, 1L)));
+        when(expenseRollupRepository.findMonthlyTotalsByUserIdIn(Set.of(1L, 3L))).thenReturn(List.of(
+                new UserMonthlyTotal(1L, 2025, 1, "Rent", 100000L, 1L)));
+
+        List<StatsBatchItemDTO> results = statsService.getUsersFinanceStats(Arrays.asList(3L, 2L, null, 1L));
+
+        assertEquals(Arrays.asList(3L, 2L, null, 1L), results.stream().map(StatsBatchItemDTO::getUserId).toList());
+        assertEquals(StatsBatchItemDTO.Status.OK, results.get(0).getStatus());
+        assertEquals(1000.0, results.get(0).getStats().getNetBalance());
+        assertEquals(0.0, results.get(0).getStats().getTotalExpenses());
+        assertEquals(StatsBatchItemDTO.Status.NOT_FOUND, results.get(1).getStatus());
+        assertNull(results.get(1).getStats());
+        assertEquals(StatsBatchItemDTO.Status.NOT_FOUND, results.get(2).getStatus());
+        assertEquals(2000.0, results.get(3).getStats().getNetBalance());
+        verify(incomeRollupRepository, never()).findMonthlyTotalsByUserId(any());
+        verifyNoInteractions(dataVersionService);
+    }
+    @Test
+    void getUserFinanceSeries_shouldFillEmptyBucketsInOrder() {
+        Long userId = 1L;
+        when(userRepository.isKnownUser(userId)).thenReturn(true);
+        // 2025-01-01 is a Wednesday, so its week starts on 2024-12-30.
+        when(timeSeriesQueries.sumByBucket(userId, "week", LocalDate.of(2024, 12, 30), LocalDate.of(2025, 1, 26)))
+                .thenReturn(List.of(new BucketTotal(LocalDate.of(2025, 1, 6), 300000L, 50000L),
+                        new BucketTotal(LocalDate.of(2025, 1, 20), 0L, 25000L)));
+
+        TimeSeriesDTO series = statsService.getUserFinanceSeries(userId, StatsGranularity.WEEK,
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 21));
+
+        assertEquals(LocalDate.of(2024, 12, 30), series.getFrom());
+        assertEquals(LocalDate.of(2025, 1, 26), series.getTo());
+        assertEquals(List.of(LocalDate.of(2024, 12, 30), LocalDate.of(2025, 1, 6), LocalDate.of(2025, 1, 13), LocalDate.of(2025, 1, 20)),
+                series.getBuckets().stream().map(bucket -> bucket.getStart()).toList());
+        assertEquals(0.0, series.getBuckets().get(0).getIncome());
+        assertEquals(2500.0, series.getBuckets().get(1).getNet());
+        assertEquals(0.0, series.getBuckets().get(2).getExpenses());
+        assertEquals(-250.0, series.getBuckets().get(3).getNet());
+        verify(timeSeriesQueries, never()).sumRollupsByBucket(any(), any(), any(), any());
+    }
+    @Test
+    void getUserFinanceSeries_shouldSumRollups_forWholeMonthBuckets() {
+        Long userId = 1L;
+        when(userRepository.isKnownUser(userId)).thenReturn(true);
+        when(timeSeriesQueries.sumRollupsByBucket(userId, "quarter", LocalDate.of(2023, 1, 1), LocalDate.of(2025, 6, 30)))
+                .thenReturn(List.of(new BucketTotal(LocalDate.of(2024, 4, 1), 100000L, 0L)));
+
+        TimeSeriesDTO series = statsService.getUserFinanceSeries(userId, StatsGranularity.QUARTER,
+                LocalDate.of(2023, 2, 14), LocalDate.of(2025, 5, 2));
+
+        assertEquals(10, series.getBuckets().size());
+        assertEquals(LocalDate.of(2024, 4, 1), series.getBuckets().get(5).getStart());
+        assertEquals(1000.0, series.getBuckets().get(5).getIncome());
+        verify(timeSeriesQueries, never()).sumByBucket(any(), any(), any(), any());
+    }
+    @Test
+    void getUserFinanceSeries_shouldRejectReversedOrOversizedRanges() {
+        assertThrows(InvalidRangeException.class, () -> statsService.getUserFinanceSeries(1L, StatsGranularity.DAY,
+                LocalDate.of(2025, 2, 1), LocalDate.of(2025, 1, 1)));
+        assertThrows(InvalidRangeException.class, () -> statsService.getUserFinanceSeries(1L, StatsGranularity.DAY,
+                LocalDate.of(1990, 1, 1), LocalDate.of(2025, 1, 1)));
+        verifyNoInteractions(userRepository, timeSeriesQueries);
+    }
+    @Test
+    void getUserFinanceStats_shouldReadOnlyOpenMonth_whenClosedMonthsAreSnapshotted() {
+        Long userId = 1L;
+        LocalDate openMonth = AccountingPeriods.openMonth();
+        LocalDate lastMonth = openMonth.minusMonths(1);
+        when(userRepository.isKnownUser(userId)).thenReturn(true);
+        when(dataVersionService.closedVersion(userId)).thenReturn(7L);
+        when(closedPeriodSnapshots.find(userId, 7L, openMonth)).thenReturn(Optional.of(new StatsSnapshot.Totals(
+                List.of(new MonthlyTotal(lastMonth.getYear(), lastMonth.getMonthValue(), "Salary", 300000L, 1L)),
+                List.of(new MonthlyTotal(lastMonth.getYear(), lastMonth.getMonthValue(), "Rent", 100000L, 1L)))));
+        when(incomeRollupRepository.findMonthlyTotalsByUserIdFrom(userId, openMonth)).thenReturn(List.of());
+        when(expenseRollupRepository.findMonthlyTotalsByUserIdFrom(userId, openMonth)).thenReturn(List.of(
+                new MonthlyTotal(openMonth.getYear(), openMonth.getMonthValue(), "Rent", 50000L, 1L)));
+
+        StatsDTO stats = statsService.getUserFinanceStats(userId);
+
+        assertEquals(1500.0, stats.getNetBalance());
+        assertEquals(1500.0, stats.getExpenseByCategory().get("Rent"));
+        assertEquals(2, stats.getMonthlyExpenses().size());
+        verify(incomeRollupRepository, never()).findMonthlyTotalsByUserId(any());
+        verify(expenseRollupRepository, never()).findMonthlyTotalsByUserId(any());
+        verify(closedPeriodSnapshots, never()).store(any(), anyLong(), any(), any());
+    }
+    @Test
+    void getUserFinanceStats_shouldSnapshotClosedMonths_whenNoSnapshotIsCurrent() {
+        Long userId = 1L;
+        LocalDate openMonth = AccountingPeriods.openMonth();
+        LocalDate lastMonth = openMonth.minusMonths(1);
+        MonthlyTotal closedIncome = new MonthlyTotal(lastMonth.getYear(), lastMonth.getMonthValue(), "Salary", 300000L, 1L);
+        MonthlyTotal openIncome = new MonthlyTotal(openMonth.getYear(), openMonth.getMonthValue(), "Salary", 300000L, 1L);
+        when(userRepository.isKnownUser(userId)).thenReturn(true);
+        when(dataVersionService.closedVersion(userId)).thenReturn(2L);
+        when(incomeRollupRepository.findMonthlyTotalsByUserId(userId)).thenReturn(List.of(closedIncome, openIncome));
+        when(expenseRollupRepository.findMonthlyTotalsByUserId(userId)).thenReturn(List.of());
+
+        StatsDTO stats = statsService.getUserFinanceStats(userId);
+
+        assertEquals(6000.0, stats.getTotalIncome());
+        verify(closedPeriodSnapshots).store(userId, 2L, openMonth,
+                new StatsSnapshot.Totals(List.of(closedIncome), List.of()));
     }
 }
@@ -0,0 +1,120 @@
+package com.example.finance.tracker.service;
+
+import com.example.finance.tracker.repository.projection.MonthlyTotal;
+import com.example.finance.tracker.service.columnar.RowFilter;
+import com.example.finance.tracker.service.columnar.TransactionColumns;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TransactionColumnsTest {
+    private static final RowFilter ALL = new RowFilter(Integer.MIN_VALUE, Integer.MAX_VALUE,
+            RowFilter.ANY_LABEL, Long.MIN_VALUE, Long.MAX_VALUE);
+
+    @Test
+    void sumByMonth_shouldMatchGroupingEveryRow() {
+        Random random = new Random(11);
+        List<TransactionColumns.Row> rows = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            rows.add(row(i, LocalDate.of(2022, 1, 1).plusDays(random.nextInt(3 * 365)),
+                    random.nextInt(100_000), random.nextInt(40)));
+        }
+        TransactionColumns columns = build(rows);
+        RowFilter filter = new RowFilter(day(LocalDate.of(2022, 6, 15)), day(LocalDate.of(2024, 2, 3)),
+                RowFilter.ANY_LABEL, 1_000, 90_000);
+
+        assertEquals(grouped(rows, filter), index(columns.sumByMonth(filter, String::valueOf)));
+    }
+
+    @Test
+    void newestFirst_shouldReturnMatchingRowsByDateThenIdDescending() {
+        TransactionColumns columns = build(List.of(
+                row(1, LocalDate.of(2025, 1, 1), 500, 1),
+                row(2, LocalDate.of(2025, 1, 2), 700, 2),
+                row(3, LocalDate.of(2025, 1, 2), 900, 1),
+                row(4, LocalDate.of(2025, 2, 1), 100, 1)));
+        RowFilter filter = new RowFilter(day(LocalDate.of(2025, 1, 1)), day(LocalDate.of(2025, 1, 31)),
+                1, Long.MIN_VALUE, Long.MAX_VALUE);
+
+        assertEquals(List.of(3L, 1L), columns.newestFirst(filter, (id, day, cents, label, title, description) -> id));
+    }
+
+    @Test
+    void apply_shouldLeaveEarlierInstanceUnchanged() {
+        TransactionColumns before = build(List.of(
+                row(1, LocalDate.of(2025, 1, 1), 500, 1),
+                row(2, LocalDate.of(2025, 1, 5), 700, 1)));
+
+        TransactionColumns.Changes appended = new TransactionColumns.Changes();
+        appended.add(row(3, LocalDate.of(2025, 1, 9), 100, 2));
+        TransactionColumns afterAppend = before.apply(appended);
+
+        TransactionColumns.Changes edited = new TransactionColumns.Changes();
+        edited.remove(2);
+        edited.add(row(1, LocalDate.of(2025, 1, 20), 600, 1));
+        edited.add(row(4, LocalDate.of(2025, 1, 3), 50, 2));
+        TransactionColumns afterEdit = afterAppend.apply(edited);
+
+        assertEquals(List.of(2L, 1L), ids(before));
+        assertEquals(List.of(3L, 2L, 1L), ids(afterAppend));
+        assertEquals(List.of(1L, 3L, 4L), ids(afterEdit));
+        assertEquals(List.of(new MonthlyTotal(2025, 1, "1", 600L, 1L), new MonthlyTotal(2025, 1, "2", 150L, 2L)),
+                afterEdit.sumByMonth(ALL, String::valueOf).stream()
+                        .sorted(Comparator.comparing(MonthlyTotal::key)).toList());
+    }
+
+    private static TransactionColumns build(List<TransactionColumns.Row> rows) {
+        TransactionColumns.Builder builder = new TransactionColumns.Builder();
+        rows.stream()
+                .sorted(Comparator.comparingInt(TransactionColumns.Row::day).thenComparingLong(TransactionColumns.Row::id))
+                .forEach(row -> builder.add(row.id(), row.day(), row.cents(), row.label(), row.title(), row.description()));
+        return builder.build();
+    }
+
+    private static TransactionColumns.Row row(long id, LocalDate date, long cents, int label) {
+        return new TransactionColumns.Row(id, day(date), cents, label, "Title " + label, null);
+    }
+
+    private static int day(LocalDate date) {
+        return Math.toIntExact(date.toEpochDay());
+    }
+
+    private static List<Long> ids(TransactionColumns columns) {
+        return columns.newestFirst(ALL, (id, day, cents, label, title, description) -> id);
+    }
+
+    private static Map<String, List<Long>> grouped(List<TransactionColumns.Row> rows, RowFilter filter) {
+        Map<String, long[]> groups = new HashMap<>();
+        for (TransactionColumns.Row row : rows) {
+            if (row.day() < filter.fromDay() || row.day() > filter.toDay()
+                    || row.cents() < filter.minCents() || row.cents() > filter.maxCents()) {
+                continue;
+            }
+            LocalDate date = LocalDate.ofEpochDay(row.day());
+            long[] sum = groups.computeIfAbsent(date.getYear() + "-" + date.getMonthValue() + "/" + row.label(),
+                    key -> new long[2]);
+            sum[0] += row.cents();
+            sum[1]++;
+        }
+        Map<String, List<Long>> totals = new HashMap<>();
+        groups.forEach((key, sum) -> totals.put(key, List.of(sum[0], sum[1])));
+        return totals;
+    }
+
+    private static Map<String, List<Long>> index(List<MonthlyTotal> totals) {
+        Map<String, List<Long>> groups = new HashMap<>();
+        for (MonthlyTotal total : totals) {
+            groups.put(total.year() + "-" + total.month() + "/" + total.key(),
+                    List.of(total.totalCents(), total.count()));
+        }
+        return groups;
+    }
+}
@@ -1,15 +1,21 @@
 package com.example.finance.tracker.service;
 
+import com.example.finance.tracker.datasource.RecentWrites;
+import com.example.finance.tracker.dto.CursorPageDTO;
 import com.example.finance.tracker.dto.UserDTO;
 import com.example.finance.tracker.entity.User;
 import com.example.finance.tracker.exception.UserNotFoundException;
 import com.example.finance.tracker.repository.UserRepository;
+import com.example.finance.tracker.service.rollup.RollupService;
+import com.example.finance.tracker.service.stats.ClosedPeriodSnapshots;
 import com.example.finance.tracker.service.user.UserServiceImpl;
+import com.example.finance.tracker.service.version.DataVersionService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import java.util.List;
 import java.util.Optional;
@@ -22,6 +28,14 @@ import static org.mockito.Mockito.*;
 public class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private RollupService rollupService;
+    @Mock
+    private RecentWrites recentWrites;
+    @Mock
+    private DataVersionService dataVersionService;
+    @Mock
+    private ClosedPeriodSnapshots closedPeriodSnapshots;
 
     @InjectMocks
     private UserServiceImpl userService;
@@ -47,12 +61,28 @@ public class UserServiceImplTest {
         User user1 = mock(User.class);
         User user2 = mock(User.class);
 
-        when(userRepository.findAll()).thenReturn(List.of(user1, user2));
-        when(user1.getUserDto()).thenReturn(mock(UserDTO.class));
-        when(user2.getUserDto()).thenReturn(mock(UserDTO.class));
+        UserDTO dto1 = mock(UserDTO.class);
+        UserDTO dto2 = mock(UserDTO.class);
+
+        when(userRepository.findAllByOrderByIdDesc()).thenReturn(List.of(user1, user2));
+        when(user1.getUserDto()).thenReturn(dto1);
+        when(user2.getUserDto()).thenReturn(dto2);
 
         List<UserDTO> result = userService.getAllUsers();
-        assertEquals(2, result.size());
+        assertEquals(List.of(dto1, dto2), result);
+        verify(userRepository, never()).findAll();
+    }
+    @Test
+    void getUserPage_shouldReturnNullCursor_onLastPage(){
+        User user = mock(User.class);
+
+        when(userRepository.findByOrderByIdDesc(Limit.of(11))).thenReturn(List.of(user));
+        when(user.getUserDto()).thenReturn(mock(UserDTO.class));
+
+        CursorPageDTO<UserDTO> page = userService.getUserPage(10, null);
+
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
     }
     @Test
     void getUserById_shouldReturnUserDTO_whenUserExists(){
@@ -98,17 +128,21 @@ public class UserServiceImplTest {
     }
     @Test
     void deleteUser_shouldDelete_whenUserExists() {
-        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.isKnownUser(1L)).thenReturn(true);
 
         userService.deleteUser(1L);
 
+        verify(rollupService).deleteForUser(1L);
+        verify(closedPeriodSnapshots).deleteForUser(1L);
+        verify(dataVersionService).deleteForUser(1L);
         verify(userRepository).deleteById(1L);
     }
 
     @Test
     void deleteUser_shouldThrowException_whenUserNotFound() {
-        when(userRepository.existsById(99L)).thenReturn(false);
+        when(userRepository.isKnownUser(99L)).thenReturn(false);
 
         assertThrows(UserNotFoundException.class, () -> userService.deleteUser(99L));
+        verifyNoInteractions(closedPeriodSnapshots, dataVersionService);
     }
 }
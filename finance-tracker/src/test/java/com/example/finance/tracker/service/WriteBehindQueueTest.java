@@ -0,0 +1,218 @@
+package com.example.finance.tracker.service;
+
+import com.example.finance.tracker.concurrency.DatabaseConcurrencyLimiter;
+import com.example.finance.tracker.dto.ExpenseDTO;
+import com.example.finance.tracker.dto.IncomeDTO;
+import com.example.finance.tracker.exception.UserNotFoundException;
+import com.example.finance.tracker.repository.UserRepository;
+import com.example.finance.tracker.service.writebehind.PendingWrite;
+import com.example.finance.tracker.service.writebehind.WriteBehindFlusher;
+import com.example.finance.tracker.service.writebehind.WriteBehindQueue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class WriteBehindQueueTest {
+    @TempDir
+    Path directory;
+
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void post_shouldReserveIdsFromSequenceBlocksAndStoreOnRead() {
+        when(userRepository.isKnownUser(1L)).thenReturn(true);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(50L);
+        WriteBehindFlusher flusher = mock(WriteBehindFlusher.class);
+        List<PendingWrite> stored = recordStores(flusher);
+        WriteBehindQueue queue = queue(flusher);
+        queue.start();
+
+        ExpenseDTO first = queue.postExpense(expense("Rent", 1200.50));
+        ExpenseDTO second = queue.postExpense(expense("Food", 30.25));
+        IncomeDTO income = queue.postIncome(new IncomeDTO(null, "Salary", null, LocalDate.of(2025, 3, 1), 3000.0, 1L));
+
+        assertEquals(1L, first.getId());
+        assertEquals(2L, second.getId());
+        assertEquals(1L, income.getId());
+        assertTrue(queue.hasPending(1L));
+        verifyNoInteractions(flusher);
+
+        queue.awaitFlushed(1L);
+
+        assertFalse(queue.hasPending(1L));
+        assertEquals(List.of("Rent", "Food", "Salary"), stored.stream()
+                .map(write -> write.kind() == PendingWrite.Kind.EXPENSE ? write.title() : write.label()).toList());
+        assertEquals(120050L, stored.get(0).amountCents());
+        queue.stop();
+    }
+
+    @Test
+    void post_shouldRejectUnknownUserWithoutQueueing() {
+        when(userRepository.isKnownUser(9L)).thenReturn(false);
+        WriteBehindQueue queue = queue(mock(WriteBehindFlusher.class));
+        queue.start();
+        ExpenseDTO expense = expense("Rent", 10.0);
+        expense.setUserId(9L);
+
+        assertThrows(UserNotFoundException.class, () -> queue.postExpense(expense));
+        assertEquals(0, queue.pendingCount());
+        queue.stop();
+    }
+
+    @Test
+    void start_shouldStoreWritesLeftInJournalByEarlierRun() {
+        when(userRepository.isKnownUser(1L)).thenReturn(true);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(50L);
+        WriteBehindFlusher unavailable = mock(WriteBehindFlusher.class);
+        doThrow(new CannotGetJdbcConnectionException("database down")).when(unavailable).store(anyList());
+        WriteBehindQueue crashed = queue(unavailable);
+        crashed.start();
+        crashed.postExpense(expense("Rent", 1200.50));
+        crashed.postExpense(expense("Food", 30.25));
+        crashed.stop();
+
+        WriteBehindFlusher flusher = mock(WriteBehindFlusher.class);
+        List<PendingWrite> stored = recordStores(flusher);
+        WriteBehindQueue restarted = queue(flusher);
+        restarted.start();
+
+        assertEquals(List.of(1L, 2L), stored.stream().map(PendingWrite::id).toList());
+        assertEquals(0, restarted.pendingCount());
+        restarted.stop();
+
+        WriteBehindFlusher afterFlush = mock(WriteBehindFlusher.class);
+        WriteBehindQueue again = queue(afterFlush);
+        again.start();
+        verifyNoInteractions(afterFlush);
+        again.stop();
+    }
+
+    @Test
+    void flush_shouldDropOnlyWritesTheDatabaseRejects() {
+        when(userRepository.isKnownUser(1L)).thenReturn(true);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(50L);
+        WriteBehindFlusher flusher = mock(WriteBehindFlusher.class);
+        List<List<PendingWrite>> batches = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<PendingWrite> writes = invocation.getArgument(0);
+            batches.add(writes);
+            if (writes.stream().anyMatch(write -> write.title().equals("Bad"))) {
+                throw new DataIntegrityViolationException("rejected");
+            }
+            return null;
+        }).when(flusher).store(anyList());
+        WriteBehindQueue queue = queue(flusher);
+        queue.start();
+        queue.postExpense(expense("Rent", 10.0));
+        queue.postExpense(expense("Bad", 20.0));
+
+        queue.awaitFlushed();
+
+        assertEquals(List.of(2, 1, 1), batches.stream().map(List::size).toList());
+        assertEquals(0, queue.pendingCount());
+        queue.stop();
+    }
+
+    @Test
+    void post_shouldRejectWriteMissingCategoryWithoutQueueing() {
+        WriteBehindQueue queue = queue(mock(WriteBehindFlusher.class));
+        queue.start();
+        ExpenseDTO expense = expense("Rent", 10.0);
+        expense.setCategory(" ");
+
+        assertThrows(IllegalArgumentException.class, () -> queue.postExpense(expense));
+        assertThrows(IllegalArgumentException.class,
+                () -> queue.postIncome(new IncomeDTO(null, "Salary", null, null, 3000.0, 1L)));
+        assertEquals(0, queue.pendingCount());
+        verifyNoInteractions(userRepository);
+        queue.stop();
+    }
+
+    @Test
+    void flush_shouldDropWriteTheFlusherFailsOn_andKeepStoringTheRest() {
+        when(userRepository.isKnownUser(1L)).thenReturn(true);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(50L);
+        WriteBehindFlusher flusher = mock(WriteBehindFlusher.class);
+        List<PendingWrite> stored = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<PendingWrite> writes = invocation.getArgument(0);
+            if (writes.stream().anyMatch(write -> write.title().equals("Bad"))) {
+                throw new NullPointerException("no label");
+            }
+            stored.addAll(writes);
+            return null;
+        }).when(flusher).store(anyList());
+        WriteBehindQueue queue = queue(flusher);
+        queue.start();
+        queue.postExpense(expense("Bad", 20.0));
+        queue.postExpense(expense("Rent", 10.0));
+
+        queue.awaitFlushed();
+        queue.postExpense(expense("Food", 5.0));
+        queue.awaitFlushed();
+
+        assertEquals(List.of("Rent", "Food"), stored.stream().map(PendingWrite::title).toList());
+        assertEquals(0, queue.pendingCount());
+        queue.stop();
+    }
+
+    @Test
+    void flush_shouldKeepWritesQueued_whenDatabaseIsUnavailable() {
+        when(userRepository.isKnownUser(1L)).thenReturn(true);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(50L);
+        WriteBehindFlusher flusher = mock(WriteBehindFlusher.class);
+        doThrow(new CannotGetJdbcConnectionException("database down")).when(flusher).store(anyList());
+        WriteBehindQueue queue = queue(flusher);
+        queue.start();
+        queue.postExpense(expense("Rent", 10.0));
+
+        assertThrows(CannotGetJdbcConnectionException.class, queue::awaitFlushed);
+        assertEquals(1, queue.pendingCount());
+        verify(flusher, times(1)).store(anyList());
+        queue.stop();
+    }
+
+    private WriteBehindQueue queue(WriteBehindFlusher flusher) {
+        return new WriteBehindQueue(true, directory.resolve("write-behind.journal"), DataSize.ofKilobytes(64),
+                false, Duration.ofHours(1), 500, userRepository, flusher,
+                new DatabaseConcurrencyLimiter(1, Duration.ofSeconds(1)), jdbcTemplate);
+    }
+
+    private static List<PendingWrite> recordStores(WriteBehindFlusher flusher) {
+        List<PendingWrite> stored = new ArrayList<>();
+        doAnswer(invocation -> {
+            stored.addAll(invocation.getArgument(0));
+            return null;
+        }).when(flusher).store(anyList());
+        return stored;
+    }
+
+    private static ExpenseDTO expense(String title, double amount) {
+        return new ExpenseDTO(null, title, null, LocalDate.of(2025, 3, 1), "Living", amount, 1L);
+    }
+}